@@ -5,6 +5,10 @@ import java.time.LocalTime;
 
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class Timeslot {
 
     @PlanningId
@@ -14,15 +18,23 @@ public class Timeslot {
     private LocalTime startTime;
     private LocalTime endTime;
 
-    Timeslot() {
-        // Required for JSON deserialization.
-    }
+    // Derived from the fields above to compare timeslots with int arithmetic in the constraints
+    private final int startMinuteOfWeek;
+    private final int endMinuteOfWeek;
+    private final int durationMinutes;
 
-    public Timeslot(long id, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+    // Also used for JSON deserialization, so the derived fields are always initialized
+    @JsonCreator
+    public Timeslot(@JsonProperty("id") long id, @JsonProperty("dayOfWeek") DayOfWeek dayOfWeek,
+            @JsonProperty("startTime") LocalTime startTime, @JsonProperty("endTime") LocalTime endTime) {
         this.dayOfWeek = dayOfWeek;
         this.startTime = startTime;
         this.endTime = endTime;
         this.id = id;
+        int dayStartMinute = (dayOfWeek.getValue() - 1) * 24 * 60;
+        startMinuteOfWeek = dayStartMinute + startTime.getHour() * 60 + startTime.getMinute();
+        endMinuteOfWeek = dayStartMinute + endTime.getHour() * 60 + endTime.getMinute();
+        durationMinutes = endMinuteOfWeek - startMinuteOfWeek;
     }
 
     public Timeslot(long id, DayOfWeek dayOfWeek, LocalTime startTime) {
@@ -54,4 +66,19 @@ public class Timeslot {
         return endTime;
     }
 
+    @JsonIgnore
+    public int getStartMinuteOfWeek() {
+        return startMinuteOfWeek;
+    }
+
+    @JsonIgnore
+    public int getEndMinuteOfWeek() {
+        return endMinuteOfWeek;
+    }
+
+    @JsonIgnore
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
 }
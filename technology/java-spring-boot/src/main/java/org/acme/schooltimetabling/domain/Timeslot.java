@@ -6,9 +6,15 @@ import java.time.LocalTime;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Transient;
 
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Entity
 public class Timeslot {
 
@@ -20,6 +26,14 @@ public class Timeslot {
     private LocalTime startTime;
     private LocalTime endTime;
 
+    // Derived from the fields above to compare timeslots with int arithmetic in the constraints
+    @Transient
+    private int startMinuteOfWeek;
+    @Transient
+    private int endMinuteOfWeek;
+    @Transient
+    private int durationMinutes;
+
     // No-arg constructor required for Hibernate
     public Timeslot() {
     }
@@ -28,6 +42,7 @@ public class Timeslot {
         this.dayOfWeek = dayOfWeek;
         this.startTime = startTime;
         this.endTime = endTime;
+        initMinuteOfWeek();
     }
 
     public Timeslot(long id, DayOfWeek dayOfWeek, LocalTime startTime) {
@@ -35,6 +50,16 @@ public class Timeslot {
         this.id = id;
     }
 
+    @PostLoad
+    @PrePersist
+    @PreUpdate
+    void initMinuteOfWeek() {
+        int dayStartMinute = (dayOfWeek.getValue() - 1) * 24 * 60;
+        startMinuteOfWeek = dayStartMinute + startTime.getHour() * 60 + startTime.getMinute();
+        endMinuteOfWeek = dayStartMinute + endTime.getHour() * 60 + endTime.getMinute();
+        durationMinutes = endMinuteOfWeek - startMinuteOfWeek;
+    }
+
     @Override
     public String toString() {
         return dayOfWeek + " " + startTime;
@@ -60,4 +85,19 @@ public class Timeslot {
         return endTime;
     }
 
+    @JsonIgnore
+    public int getStartMinuteOfWeek() {
+        return startMinuteOfWeek;
+    }
+
+    @JsonIgnore
+    public int getEndMinuteOfWeek() {
+        return endMinuteOfWeek;
+    }
+
+    @JsonIgnore
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
 }
@@ -1,7 +1,5 @@
 package org.acme.schooltimetabling.solver;
 
-import java.time.Duration;
-
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import org.optaplanner.core.api.score.stream.Constraint;
 import org.optaplanner.core.api.score.stream.ConstraintFactory;
@@ -77,9 +75,9 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .join(Lesson.class, Joiners.equal(Lesson::getTeacher),
                         Joiners.equal((lesson) -> lesson.getTimeslot().getDayOfWeek()))
                 .filter((lesson1, lesson2) -> {
-                    Duration between = Duration.between(lesson1.getTimeslot().getEndTime(),
-                            lesson2.getTimeslot().getStartTime());
-                    return !between.isNegative() && between.compareTo(Duration.ofMinutes(30)) <= 0;
+                    int minutesBetween = lesson2.getTimeslot().getStartMinuteOfWeek()
+                            - lesson1.getTimeslot().getEndMinuteOfWeek();
+                    return minutesBetween >= 0 && minutesBetween <= 30;
                 })
                 .reward(HardSoftScore.ONE_SOFT)
                 .asConstraint("Teacher time efficiency");
@@ -94,9 +92,9 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         Joiners.equal(Lesson::getStudentGroup),
                         Joiners.equal((lesson) -> lesson.getTimeslot().getDayOfWeek()))
                 .filter((lesson1, lesson2) -> {
-                    Duration between = Duration.between(lesson1.getTimeslot().getEndTime(),
-                            lesson2.getTimeslot().getStartTime());
-                    return !between.isNegative() && between.compareTo(Duration.ofMinutes(30)) <= 0;
+                    int minutesBetween = lesson2.getTimeslot().getStartMinuteOfWeek()
+                            - lesson1.getTimeslot().getEndMinuteOfWeek();
+                    return minutesBetween >= 0 && minutesBetween <= 30;
                 })
                 .penalize(HardSoftScore.ONE_SOFT)
                 .asConstraint("Student group subject variety");
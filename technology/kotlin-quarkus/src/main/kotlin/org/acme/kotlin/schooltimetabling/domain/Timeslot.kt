@@ -1,10 +1,15 @@
 package org.acme.kotlin.schooltimetabling.domain
 
+import com.fasterxml.jackson.annotation.JsonIgnore
 import java.time.DayOfWeek
 import java.time.LocalTime
 import jakarta.persistence.Entity
 import jakarta.persistence.GeneratedValue
 import jakarta.persistence.Id
+import jakarta.persistence.PostLoad
+import jakarta.persistence.PrePersist
+import jakarta.persistence.PreUpdate
+import jakarta.persistence.Transient
 
 
 @Entity
@@ -18,6 +23,20 @@ class Timeslot {
     lateinit var startTime: LocalTime
     lateinit var endTime: LocalTime
 
+    // Derived from the fields above to compare timeslots with int arithmetic in the constraints
+    @Transient
+    @get:JsonIgnore
+    var startMinuteOfWeek: Int = 0
+        private set
+    @Transient
+    @get:JsonIgnore
+    var endMinuteOfWeek: Int = 0
+        private set
+    @Transient
+    @get:JsonIgnore
+    var durationMinutes: Int = 0
+        private set
+
     // No-arg constructor required for Hibernate
     constructor()
 
@@ -25,6 +44,7 @@ class Timeslot {
         this.dayOfWeek = dayOfWeek
         this.startTime = startTime
         this.endTime = endTime
+        initMinuteOfWeek()
     }
 
     constructor(id: Long?, dayOfWeek: DayOfWeek, startTime: LocalTime, endTime: LocalTime)
@@ -32,6 +52,16 @@ class Timeslot {
         this.id = id
     }
 
+    @PostLoad
+    @PrePersist
+    @PreUpdate
+    fun initMinuteOfWeek() {
+        val dayStartMinute = (dayOfWeek.value - 1) * 24 * 60
+        startMinuteOfWeek = dayStartMinute + startTime.hour * 60 + startTime.minute
+        endMinuteOfWeek = dayStartMinute + endTime.hour * 60 + endTime.minute
+        durationMinutes = endMinuteOfWeek - startMinuteOfWeek
+    }
+
     override fun toString(): String = "$dayOfWeek $startTime"
 
 }
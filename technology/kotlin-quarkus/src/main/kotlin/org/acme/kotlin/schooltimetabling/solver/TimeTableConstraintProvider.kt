@@ -6,7 +6,6 @@ import org.optaplanner.core.api.score.stream.Constraint
 import org.optaplanner.core.api.score.stream.ConstraintFactory
 import org.optaplanner.core.api.score.stream.ConstraintProvider
 import org.optaplanner.core.api.score.stream.Joiners
-import java.time.Duration
 
 class TimeTableConstraintProvider : ConstraintProvider {
 
@@ -83,11 +82,8 @@ class TimeTableConstraintProvider : ConstraintProvider {
                 Joiners.equal(Lesson::teacher),
                 Joiners.equal { lesson: Lesson -> lesson.timeslot?.dayOfWeek })
             .filter { lesson1: Lesson, lesson2: Lesson ->
-                val between = Duration.between(
-                    lesson1.timeslot?.endTime,
-                    lesson2.timeslot?.startTime
-                )
-                !between.isNegative && between.compareTo(Duration.ofMinutes(30)) <= 0
+                val minutesBetween = lesson2.timeslot!!.startMinuteOfWeek - lesson1.timeslot!!.endMinuteOfWeek
+                minutesBetween in 0..30
             }
             .reward(HardSoftScore.ONE_SOFT)
             .asConstraint("Teacher time efficiency");
@@ -102,11 +98,8 @@ class TimeTableConstraintProvider : ConstraintProvider {
                 Joiners.equal(Lesson::studentGroup),
                 Joiners.equal { lesson: Lesson -> lesson.timeslot?.dayOfWeek })
             .filter { lesson1: Lesson, lesson2: Lesson ->
-                val between = Duration.between(
-                    lesson1.timeslot?.endTime,
-                    lesson2.timeslot?.startTime
-                )
-                !between.isNegative && between.compareTo(Duration.ofMinutes(30)) <= 0
+                val minutesBetween = lesson2.timeslot!!.startMinuteOfWeek - lesson1.timeslot!!.endMinuteOfWeek
+                minutesBetween in 0..30
             }
             .penalize(HardSoftScore.ONE_SOFT)
             .asConstraint("Student group subject variety");
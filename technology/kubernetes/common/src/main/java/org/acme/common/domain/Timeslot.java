@@ -4,6 +4,12 @@ import java.time.DayOfWeek;
 import java.time.LocalTime;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Transient;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 public class Timeslot extends AbstractPersistable {
@@ -12,6 +18,14 @@ public class Timeslot extends AbstractPersistable {
     private LocalTime startTime;
     private LocalTime endTime;
 
+    // Derived from the fields above to compare timeslots with int arithmetic in the constraints
+    @Transient
+    private int startMinuteOfWeek;
+    @Transient
+    private int endMinuteOfWeek;
+    @Transient
+    private int durationMinutes;
+
     // No-arg constructor required for Hibernate
     public Timeslot() {
     }
@@ -20,6 +34,7 @@ public class Timeslot extends AbstractPersistable {
         this.dayOfWeek = dayOfWeek;
         this.startTime = startTime;
         this.endTime = endTime;
+        initMinuteOfWeek();
     }
 
     public Timeslot(long problemId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
@@ -27,6 +42,7 @@ public class Timeslot extends AbstractPersistable {
         this.dayOfWeek = dayOfWeek;
         this.startTime = startTime;
         this.endTime = endTime;
+        initMinuteOfWeek();
     }
 
     public Timeslot(long id, DayOfWeek dayOfWeek, LocalTime startTime) {
@@ -34,6 +50,17 @@ public class Timeslot extends AbstractPersistable {
         this.dayOfWeek = dayOfWeek;
         this.startTime = startTime;
         this.endTime = startTime.plusHours(1);
+        initMinuteOfWeek();
+    }
+
+    @PostLoad
+    @PrePersist
+    @PreUpdate
+    void initMinuteOfWeek() {
+        int dayStartMinute = (dayOfWeek.getValue() - 1) * 24 * 60;
+        startMinuteOfWeek = dayStartMinute + startTime.getHour() * 60 + startTime.getMinute();
+        endMinuteOfWeek = dayStartMinute + endTime.getHour() * 60 + endTime.getMinute();
+        durationMinutes = endMinuteOfWeek - startMinuteOfWeek;
     }
 
     @Override
@@ -57,4 +84,19 @@ public class Timeslot extends AbstractPersistable {
         return endTime;
     }
 
+    @JsonIgnore
+    public int getStartMinuteOfWeek() {
+        return startMinuteOfWeek;
+    }
+
+    @JsonIgnore
+    public int getEndMinuteOfWeek() {
+        return endMinuteOfWeek;
+    }
+
+    @JsonIgnore
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
 }
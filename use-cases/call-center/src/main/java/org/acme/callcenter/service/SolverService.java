@@ -20,17 +20,28 @@ import org.optaplanner.core.api.solver.SolverManager;
 import org.optaplanner.core.api.solver.SolverStatus;
 import org.optaplanner.core.api.solver.change.ProblemChange;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @ApplicationScoped
 public class SolverService {
 
     private final SolverManager<CallCenter, Long> solverManager;
+    private final MeterRegistry meterRegistry;
+    // Time between registering a problem change and the solver having processed it
+    private final Timer problemChangeTimer;
     public static final long SINGLETON_ID = 1L;
 
     private final BlockingQueue<WaitingProblemChange> waitingProblemChanges = new LinkedBlockingQueue<>();
 
     @Inject
-    public SolverService(SolverManager<CallCenter, Long> solverManager) {
+    public SolverService(SolverManager<CallCenter, Long> solverManager, MeterRegistry meterRegistry) {
         this.solverManager = solverManager;
+        this.meterRegistry = meterRegistry;
+        problemChangeTimer = Timer.builder("optaplanner.problem.change.latency")
+                .description("Time between submitting a problem change and the solver having processed it")
+                .tag("solution", "callCenter")
+                .register(meterRegistry);
     }
 
     private void pinCallAssignedToAgents(List<Call> calls) {
@@ -81,7 +92,7 @@ public class SolverService {
 
     private CompletableFuture<Void> registerProblemChange(ProblemChange<CallCenter> problemChange) {
         if (isSolving()) {
-            return solverManager.addProblemChange(SINGLETON_ID, problemChange);
+            return timeProblemChange(solverManager.addProblemChange(SINGLETON_ID, problemChange));
         } else {
             /*
              * Expose a temporary CompletableFuture that will get completed once the solver is started again
@@ -89,10 +100,17 @@ public class SolverService {
              */
             CompletableFuture<Void> completion = new CompletableFuture<>();
             waitingProblemChanges.add(new WaitingProblemChange(completion, problemChange));
-            return completion;
+            // Includes the time waiting for the solver to start again
+            return timeProblemChange(completion);
         }
     }
 
+    private CompletableFuture<Void> timeProblemChange(CompletableFuture<Void> problemChangeFuture) {
+        Timer.Sample problemChangeSample = Timer.start(meterRegistry);
+        problemChangeFuture.whenComplete((result, throwable) -> problemChangeSample.stop(problemChangeTimer));
+        return problemChangeFuture;
+    }
+
     private static class WaitingProblemChange {
         private final CompletableFuture<Void> completion;
         private final ProblemChange<CallCenter> problemChange;
@@ -1,6 +1,7 @@
 package org.acme.callcenter.solver;
 
 import org.acme.callcenter.domain.Call;
+import org.acme.common.solver.ConstraintProfiler;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import org.optaplanner.core.api.score.stream.Constraint;
 import org.optaplanner.core.api.score.stream.ConstraintFactory;
@@ -8,6 +9,8 @@ import org.optaplanner.core.api.score.stream.ConstraintProvider;
 
 public class CallCenterConstraintsProvider implements ConstraintProvider {
 
+    private final ConstraintProfiler profiler = ConstraintProfiler.create();
+
     @Override
     public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
         return new Constraint[] {
@@ -18,16 +21,18 @@ public class CallCenterConstraintsProvider implements ConstraintProvider {
 
     Constraint noRequiredSkillMissing(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Call.class)
-                .filter(call -> call.getMissingSkillCount() > 0)
-                .penalize(HardSoftScore.ONE_HARD, Call::getMissingSkillCount)
+                .filter(profiler.filter("No required skills are missing", call -> call.getMissingSkillCount() > 0))
+                .penalize(HardSoftScore.ONE_HARD,
+                        profiler.weigh("No required skills are missing", Call::getMissingSkillCount))
                 .asConstraint("No required skills are missing");
     }
 
     Constraint minimizeWaitingTime(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Call.class)
-                .filter(call -> call.getNextCall() == null)
-                .penalize(HardSoftScore.ONE_SOFT, call -> Math.toIntExact(call.getEstimatedWaiting().getSeconds()
-                                * call.getEstimatedWaiting().getSeconds()))
+                .filter(profiler.filter("Minimize waiting time", call -> call.getNextCall() == null))
+                .penalize(HardSoftScore.ONE_SOFT, profiler.weigh("Minimize waiting time",
+                        call -> Math.toIntExact(call.getEstimatedWaiting().getSeconds()
+                                * call.getEstimatedWaiting().getSeconds())))
                 .asConstraint("Minimize waiting time");
     }
 }
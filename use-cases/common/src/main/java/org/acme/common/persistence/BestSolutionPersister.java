@@ -0,0 +1,158 @@
+package org.acme.common.persistence;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Persists the best solutions of a solver on a background thread.
+ * <p>
+ * Each best solution is put in a single-slot mailbox, replacing the previous one if that hasn't been persisted yet.
+ * The background thread persists the latest solution, but no more often than once per minimum interval.
+ * Early in solving, when there are hundreds of best solution events per second,
+ * most intermediate solutions are dropped instead of written.
+ * <p>
+ * The write amplification, which is the number of persisted solutions divided by the number of received solutions,
+ * is reported as a Micrometer gauge.
+ * @param <Solution_> the solution type
+ */
+public class BestSolutionPersister<Solution_> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BestSolutionPersister.class);
+
+    private final String name;
+    private final long minimumIntervalNanos;
+    private final Consumer<Solution_> writer;
+
+    private final ScheduledThreadPoolExecutor writerExecutor;
+    private final AtomicReference<Solution_> mailbox = new AtomicReference<>();
+    private final Counter receivedCounter;
+    private final Counter writtenCounter;
+
+    // Only accessed by the writer thread
+    private long lastWriteNanos;
+
+    /**
+     * @param name never null, used in the thread name and as the metrics tag
+     * @param tags never null, the extra metrics tags, such as the problem id, their values are also in the thread name,
+     * {@link Tags#empty()} if there is only 1 problem
+     * @param minimumInterval never null, the minimum time between the start of 2 writes
+     * @param writer never null, persists a solution, called on the writer thread only
+     * @param meterRegistry never null
+     */
+    public BestSolutionPersister(String name, Tags tags, Duration minimumInterval, Consumer<Solution_> writer,
+            MeterRegistry meterRegistry) {
+        this.name = tags.stream().map(Tag::getValue).reduce(name, (prefix, value) -> prefix + "-" + value);
+        this.minimumIntervalNanos = minimumInterval.toNanos();
+        this.writer = writer;
+        writerExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, this.name + "-persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // With a persister per problem, such as per school, idle problems must not hold on to a thread
+        writerExecutor.setKeepAliveTime(1L, TimeUnit.MINUTES);
+        writerExecutor.allowCoreThreadTimeOut(true);
+        lastWriteNanos = System.nanoTime() - minimumIntervalNanos;
+        receivedCounter = Counter.builder("optaplanner.best.solution.received")
+                .description("Best solutions received for persisting")
+                .tag("solution", name)
+                .tags(tags)
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("optaplanner.best.solution.written")
+                .description("Best solutions actually persisted")
+                .tag("solution", name)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("optaplanner.best.solution.write.amplification", this,
+                BestSolutionPersister::getWriteAmplification)
+                .description("Persisted best solutions divided by received best solutions")
+                .tag("solution", name)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Persists the solution asynchronously, unless a newer solution is submitted before it is written.
+     * Does not block, so it can be used as the best solution consumer of the {@code SolverManager}.
+     * After {@link #close()}, for example when the application shuts down during a solve, it drops the solution.
+     * @param solution never null, must not change after it has been submitted
+     */
+    public void submit(Solution_ solution) {
+        receivedCounter.increment();
+        if (mailbox.getAndSet(solution) == null) {
+            try {
+                writerExecutor.execute(this::scheduleWrite);
+            } catch (RejectedExecutionException e) {
+                // Don't throw into the solver, it's being terminated anyway
+                LOGGER.warn("Dropped a best solution of {} submitted after the persister was closed.", name);
+            }
+        }
+    }
+
+    /**
+     * Writes the latest submitted solution immediately, regardless of the minimum interval,
+     * and blocks until every solution submitted so far has been persisted or dropped.
+     */
+    public void flush() {
+        try {
+            writerExecutor.submit(this::writeLatest).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while flushing the " + name + " persister.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed flushing the " + name + " persister.", e.getCause());
+        }
+    }
+
+    /**
+     * Writes the latest submitted solution and stops the writer thread.
+     */
+    public void close() {
+        writerExecutor.execute(this::writeLatest);
+        writerExecutor.shutdown();
+    }
+
+    public double getWriteAmplification() {
+        double receivedCount = receivedCounter.count();
+        return receivedCount == 0.0 ? 0.0 : writtenCounter.count() / receivedCount;
+    }
+
+    private void scheduleWrite() {
+        long delayNanos = lastWriteNanos + minimumIntervalNanos - System.nanoTime();
+        if (delayNanos <= 0L) {
+            writeLatest();
+        } else {
+            writerExecutor.schedule(this::writeLatest, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void writeLatest() {
+        Solution_ solution = mailbox.getAndSet(null);
+        if (solution == null) {
+            return;
+        }
+        lastWriteNanos = System.nanoTime();
+        try {
+            writer.accept(solution);
+            writtenCounter.increment();
+        } catch (RuntimeException e) {
+            // Keep the writer thread alive: the next best solution will be written anyway
+            LOGGER.error("Failed persisting a best solution of {}.", name, e);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.acme.common.rest;
+
+import java.util.List;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+
+import org.acme.common.solver.ConstraintProfiler;
+import org.acme.common.solver.ConstraintProfiler.ConstraintProfile;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+
+@Path("constraintProfile")
+public class ConstraintProfileResource {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    void bindMetrics(@Observes StartupEvent startupEvent) {
+        ConstraintProfiler.bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    void unbindMetrics() {
+        ConstraintProfiler.unbindFrom(meterRegistry);
+    }
+
+    // To try, set constraint-profiling.enabled=true, solve and open http://localhost:8080/constraintProfile
+    @GET
+    public List<ConstraintProfile> getProfiles() {
+        return ConstraintProfiler.getProfiles();
+    }
+
+    @DELETE
+    public void reset() {
+        ConstraintProfiler.reset();
+    }
+
+}
@@ -0,0 +1,368 @@
+package org.acme.common.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongBiFunction;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.optaplanner.core.api.function.ToIntTriFunction;
+import org.optaplanner.core.api.function.ToLongTriFunction;
+import org.optaplanner.core.api.function.TriPredicate;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Measures how much time the solver spends in the filters and match weighers of each constraint.
+ * <p>
+ * Off by default, because it slows down score calculation.
+ * Turn it on with {@code constraint-profiling.enabled=true} in {@code application.properties}.
+ * A constraint provider creates one profiler per instance, so one per solver factory,
+ * and passes its lambdas through {@link #filter(String, Predicate)}, {@link #weigh(String, ToIntFunction)}
+ * or {@link #weighLong(String, ToLongFunction)} when it builds its constraints.
+ * If profiling is off, those methods return the lambda itself, so the constraints are unchanged.
+ * Otherwise the returned lambda times each call with {@link System#nanoTime()}.
+ * The time spent in joiners and collectors, and inside the constraint stream engine itself, isn't included.
+ * Timed lambdas also prevent the engine from sharing equal nodes between constraints,
+ * so only compare the profiles with each other, not with the score calculation speed without profiling.
+ * <p>
+ * The lambdas are grouped by the name they're profiled under, normally the name of their constraint.
+ * Profile the lambdas of a stream that several constraints are built from under a name of their own.
+ * <p>
+ * A profiler lives as long as the constraints built with it, so until its solver factory is discarded.
+ * The profiles of all live profilers are added up per name by {@code GET /constraintProfile}
+ * and, once {@link #bindTo(MeterRegistry)} is called, by the {@code optaplanner.constraint.evaluation}
+ * Micrometer function timers, tagged by constraint.
+ */
+public final class ConstraintProfiler {
+
+    public static final String ENABLED_PROPERTY = "constraint-profiling.enabled";
+
+    // The constraint providers aren't CDI beans, so the live profilers are found here, without keeping them alive
+    private static final Set<ConstraintProfiler> LIVE_PROFILER_SET =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final Map<MeterRegistry, Map<String, Meter>> REGISTRY_METER_MAP = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final Map<String, Section> sectionMap = new ConcurrentHashMap<>();
+
+    /**
+     * @return never null, enabled if {@value #ENABLED_PROPERTY} is true
+     */
+    public static ConstraintProfiler create() {
+        return create(ConfigProvider.getConfig().getOptionalValue(ENABLED_PROPERTY, Boolean.class).orElse(false));
+    }
+
+    /**
+     * @param enabled false to return every lambda as is
+     * @return never null
+     */
+    public static ConstraintProfiler create(boolean enabled) {
+        ConstraintProfiler profiler = new ConstraintProfiler(enabled);
+        if (enabled) {
+            LIVE_PROFILER_SET.add(profiler);
+        }
+        return profiler;
+    }
+
+    private ConstraintProfiler(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <A> Predicate<A> filter(String constraintName, Predicate<A> predicate) {
+        if (!enabled) {
+            return predicate;
+        }
+        Section section = getSection(constraintName);
+        return a -> {
+            long startNanos = System.nanoTime();
+            try {
+                return predicate.test(a);
+            } finally {
+                section.record(startNanos);
+            }
+        };
+    }
+
+    public <A, B> BiPredicate<A, B> filter(String constraintName, BiPredicate<A, B> predicate) {
+        if (!enabled) {
+            return predicate;
+        }
+        Section section = getSection(constraintName);
+        return (a, b) -> {
+            long startNanos = System.nanoTime();
+            try {
+                return predicate.test(a, b);
+            } finally {
+                section.record(startNanos);
+            }
+        };
+    }
+
+    public <A, B, C> TriPredicate<A, B, C> filter(String constraintName, TriPredicate<A, B, C> predicate) {
+        if (!enabled) {
+            return predicate;
+        }
+        Section section = getSection(constraintName);
+        return (a, b, c) -> {
+            long startNanos = System.nanoTime();
+            try {
+                return predicate.test(a, b, c);
+            } finally {
+                section.record(startNanos);
+            }
+        };
+    }
+
+    public <A> ToIntFunction<A> weigh(String constraintName, ToIntFunction<A> matchWeigher) {
+        if (!enabled) {
+            return matchWeigher;
+        }
+        Section section = getSection(constraintName);
+        return a -> {
+            long startNanos = System.nanoTime();
+            try {
+                return matchWeigher.applyAsInt(a);
+            } finally {
+                section.record(startNanos);
+            }
+        };
+    }
+
+    public <A, B> ToIntBiFunction<A, B> weigh(String constraintName, ToIntBiFunction<A, B> matchWeigher) {
+        if (!enabled) {
+            return matchWeigher;
+        }
+        Section section = getSection(constraintName);
+        return (a, b) -> {
+            long startNanos = System.nanoTime();
+            try {
+                return matchWeigher.applyAsInt(a, b);
+            } finally {
+                section.record(startNanos);
+            }
+        };
+    }
+
+    public <A, B, C> ToIntTriFunction<A, B, C> weigh(String constraintName, ToIntTriFunction<A, B, C> matchWeigher) {
+        if (!enabled) {
+            return matchWeigher;
+        }
+        Section section = getSection(constraintName);
+        return (a, b, c) -> {
+            long startNanos = System.nanoTime();
+            try {
+                return matchWeigher.applyAsInt(a, b, c);
+            } finally {
+                section.record(startNanos);
+            }
+        };
+    }
+
+    public <A> ToLongFunction<A> weighLong(String constraintName, ToLongFunction<A> matchWeigher) {
+        if (!enabled) {
+            return matchWeigher;
+        }
+        Section section = getSection(constraintName);
+        return a -> {
+            long startNanos = System.nanoTime();
+            try {
+                return matchWeigher.applyAsLong(a);
+            } finally {
+                section.record(startNanos);
+            }
+        };
+    }
+
+    public <A, B> ToLongBiFunction<A, B> weighLong(String constraintName, ToLongBiFunction<A, B> matchWeigher) {
+        if (!enabled) {
+            return matchWeigher;
+        }
+        Section section = getSection(constraintName);
+        return (a, b) -> {
+            long startNanos = System.nanoTime();
+            try {
+                return matchWeigher.applyAsLong(a, b);
+            } finally {
+                section.record(startNanos);
+            }
+        };
+    }
+
+    public <A, B, C> ToLongTriFunction<A, B, C> weighLong(String constraintName,
+            ToLongTriFunction<A, B, C> matchWeigher) {
+        if (!enabled) {
+            return matchWeigher;
+        }
+        Section section = getSection(constraintName);
+        return (a, b, c) -> {
+            long startNanos = System.nanoTime();
+            try {
+                return matchWeigher.applyAsLong(a, b, c);
+            } finally {
+                section.record(startNanos);
+            }
+        };
+    }
+
+    private Section getSection(String constraintName) {
+        return sectionMap.computeIfAbsent(constraintName, name -> {
+            REGISTRY_METER_MAP.forEach((meterRegistry, meterMap) -> registerMeter(meterRegistry, meterMap, name));
+            return new Section();
+        });
+    }
+
+    /**
+     * Registers a function timer per constraint on the meter registry, also for the constraints profiled later.
+     * @param meterRegistry never null
+     */
+    public static void bindTo(MeterRegistry meterRegistry) {
+        Map<String, Meter> meterMap = new ConcurrentHashMap<>();
+        REGISTRY_METER_MAP.put(meterRegistry, meterMap);
+        for (ConstraintProfiler profiler : getLiveProfilers()) {
+            profiler.sectionMap.keySet().forEach(name -> registerMeter(meterRegistry, meterMap, name));
+        }
+    }
+
+    /**
+     * Removes the meters that {@link #bindTo(MeterRegistry)} registered, for example when the application stops.
+     * @param meterRegistry never null
+     */
+    public static void unbindFrom(MeterRegistry meterRegistry) {
+        Map<String, Meter> meterMap = REGISTRY_METER_MAP.remove(meterRegistry);
+        if (meterMap != null) {
+            meterMap.values().forEach(meterRegistry::remove);
+        }
+    }
+
+    private static void registerMeter(MeterRegistry meterRegistry, Map<String, Meter> meterMap, String constraintName) {
+        // The meter map holds the name strongly, which the function timer only holds weakly
+        meterMap.computeIfAbsent(constraintName, name -> FunctionTimer.builder(
+                "optaplanner.constraint.evaluation", name,
+                n -> sumLiveSections(n, Section::getCallCount), n -> sumLiveSections(n, Section::getTotalTimeNanos),
+                TimeUnit.NANOSECONDS)
+                .description("Time spent in the lambdas of a constraint")
+                .tag("constraint", name)
+                .register(meterRegistry));
+    }
+
+    private static long sumLiveSections(String constraintName, ToLongFunction<Section> valueFunction) {
+        long sum = 0L;
+        for (ConstraintProfiler profiler : getLiveProfilers()) {
+            Section section = profiler.sectionMap.get(constraintName);
+            if (section != null) {
+                sum += valueFunction.applyAsLong(section);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return never null, the profiles of all live profilers added up per name, the slowest constraint first
+     */
+    public static List<ConstraintProfile> getProfiles() {
+        Map<String, ConstraintProfile> profileMap = new LinkedHashMap<>();
+        for (ConstraintProfiler profiler : getLiveProfilers()) {
+            profiler.sectionMap.forEach((name, section) -> profileMap
+                    .computeIfAbsent(name, ConstraintProfile::new)
+                    .add(section.getCallCount(), section.getTotalTimeNanos()));
+        }
+        List<ConstraintProfile> profileList = new ArrayList<>(profileMap.values());
+        profileList.sort(Comparator.comparingLong(ConstraintProfile::getTotalTimeNanos).reversed());
+        return profileList;
+    }
+
+    public static void reset() {
+        for (ConstraintProfiler profiler : getLiveProfilers()) {
+            profiler.sectionMap.values().forEach(Section::reset);
+        }
+    }
+
+    private static List<ConstraintProfiler> getLiveProfilers() {
+        synchronized (LIVE_PROFILER_SET) {
+            return new ArrayList<>(LIVE_PROFILER_SET);
+        }
+    }
+
+    /**
+     * The time spent in the lambdas profiled under one name.
+     * Not static, so the profiled lambdas keep their profiler alive.
+     */
+    private final class Section {
+
+        private final LongAdder callCount = new LongAdder();
+        private final LongAdder totalTimeNanos = new LongAdder();
+
+        private void record(long startNanos) {
+            totalTimeNanos.add(System.nanoTime() - startNanos);
+            callCount.increment();
+        }
+
+        private long getCallCount() {
+            return callCount.sum();
+        }
+
+        private long getTotalTimeNanos() {
+            return totalTimeNanos.sum();
+        }
+
+        private void reset() {
+            callCount.reset();
+            totalTimeNanos.reset();
+        }
+
+    }
+
+    public static final class ConstraintProfile {
+
+        private final String constraintName;
+        private long callCount = 0L;
+        private long totalTimeNanos = 0L;
+
+        private ConstraintProfile(String constraintName) {
+            this.constraintName = constraintName;
+        }
+
+        private void add(long callCount, long totalTimeNanos) {
+            this.callCount += callCount;
+            this.totalTimeNanos += totalTimeNanos;
+        }
+
+        public String getConstraintName() {
+            return constraintName;
+        }
+
+        public long getCallCount() {
+            return callCount;
+        }
+
+        public long getTotalTimeNanos() {
+            return totalTimeNanos;
+        }
+
+        public long getAverageTimeNanos() {
+            return callCount == 0L ? 0L : totalTimeNanos / callCount;
+        }
+
+    }
+
+}
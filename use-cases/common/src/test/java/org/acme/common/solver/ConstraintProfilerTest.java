@@ -0,0 +1,66 @@
+package org.acme.common.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntBiFunction;
+import java.util.stream.Collectors;
+
+import org.acme.common.solver.ConstraintProfiler.ConstraintProfile;
+import org.junit.jupiter.api.Test;
+
+class ConstraintProfilerTest {
+
+    @Test
+    void returnTheLambdaItselfIfDisabled() {
+        ConstraintProfiler profiler = ConstraintProfiler.create(false);
+        Predicate<String> predicate = s -> s.isEmpty();
+        ToIntBiFunction<String, String> matchWeigher = (s1, s2) -> s1.length() + s2.length();
+        assertSame(predicate, profiler.filter("Disabled", predicate));
+        assertSame(matchWeigher, profiler.weigh("Disabled", matchWeigher));
+        assertFalse(getProfileMap().containsKey("Disabled"));
+    }
+
+    @Test
+    void addUpTheProfilersPerConstraint() {
+        ConstraintProfiler firstProfiler = ConstraintProfiler.create(true);
+        ConstraintProfiler secondProfiler = ConstraintProfiler.create(true);
+        Predicate<String> firstPredicate = firstProfiler.filter("Added up", s -> s.isEmpty());
+        ToIntBiFunction<String, String> secondMatchWeigher =
+                secondProfiler.weigh("Added up", (s1, s2) -> s1.length() + s2.length());
+
+        assertTrue(firstPredicate.test(""));
+        assertFalse(firstPredicate.test("a"));
+        assertEquals(3, secondMatchWeigher.applyAsInt("a", "bc"));
+
+        ConstraintProfile profile = getProfileMap().get("Added up");
+        assertEquals(3L, profile.getCallCount());
+        assertTrue(profile.getTotalTimeNanos() >= 0L);
+
+        ConstraintProfiler.reset();
+        assertEquals(0L, getProfileMap().get("Added up").getCallCount());
+    }
+
+    @Test
+    void timeTheCallsThatThrow() {
+        ConstraintProfiler profiler = ConstraintProfiler.create(true);
+        Predicate<String> predicate = profiler.filter("Throwing", s -> s.isEmpty());
+        try {
+            predicate.test(null);
+        } catch (NullPointerException expected) {
+            // The exception is the lambda's own
+        }
+        assertEquals(1L, getProfileMap().get("Throwing").getCallCount());
+    }
+
+    private static Map<String, ConstraintProfile> getProfileMap() {
+        return ConstraintProfiler.getProfiles().stream()
+                .collect(Collectors.toMap(ConstraintProfile::getConstraintName, Function.identity()));
+    }
+
+}
@@ -1,13 +1,17 @@
 package org.acme.employeescheduling.rest;
 
+import java.time.Duration;
 import java.time.LocalDate;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 
+import org.acme.common.persistence.BestSolutionPersister;
 import org.acme.employeescheduling.bootstrap.DemoDataGenerator;
 import org.acme.employeescheduling.domain.EmployeeSchedule;
 import org.acme.employeescheduling.domain.ScheduleState;
@@ -16,11 +20,15 @@ import org.acme.employeescheduling.persistence.AvailabilityRepository;
 import org.acme.employeescheduling.persistence.EmployeeRepository;
 import org.acme.employeescheduling.persistence.ScheduleStateRepository;
 import org.acme.employeescheduling.persistence.ShiftRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import org.optaplanner.core.api.solver.SolutionManager;
 import org.optaplanner.core.api.solver.SolverManager;
 import org.optaplanner.core.api.solver.SolverStatus;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.quarkus.panache.common.Sort;
 
 @Path("/schedule")
@@ -40,17 +48,36 @@ public class EmployeeScheduleResource {
     @Inject
     DemoDataGenerator dataGenerator;
 
+    @ConfigProperty(name = "schedule.save.minimum-interval", defaultValue = "1s")
+    Duration saveMinimumInterval;
+    @Inject
+    MeterRegistry meterRegistry;
+    private BestSolutionPersister<EmployeeSchedule> bestSolutionPersister;
+
     @Inject
     SolverManager<EmployeeSchedule, Long> solverManager;
     @Inject
     SolutionManager<EmployeeSchedule, HardSoftScore> solutionManager;
 
+    @PostConstruct
+    void initBestSolutionPersister() {
+        bestSolutionPersister = new BestSolutionPersister<>("employeeSchedule", Tags.empty(), saveMinimumInterval,
+                this::save, meterRegistry);
+    }
+
+    @PreDestroy
+    void closeBestSolutionPersister() {
+        bestSolutionPersister.close();
+    }
+
     // To try, open http://localhost:8080/schedule
     @GET
     public EmployeeSchedule getSchedule() {
         // Get the solver status before loading the solution
         // to avoid the race condition that the solver terminates between them
         SolverStatus solverStatus = getSolverStatus();
+        // Make sure the best solution found so far is in the database
+        bestSolutionPersister.flush();
         EmployeeSchedule solution = findById(SINGLETON_SCHEDULE_ID);
         solutionManager.update(solution); // Sets the score
         solution.setSolverStatus(solverStatus);
@@ -66,7 +93,7 @@ public class EmployeeScheduleResource {
     public void solve() {
         solverManager.solveAndListen(SINGLETON_SCHEDULE_ID,
                 this::findById,
-                this::save);
+                bestSolutionPersister::submit);
     }
 
     @POST
@@ -93,6 +120,7 @@ public class EmployeeScheduleResource {
     }
 
     @Transactional
+    @Timed(value = "schedule.findById", description = "Time spent loading the schedule from the database")
     protected EmployeeSchedule findById(Long id) {
         if (!SINGLETON_SCHEDULE_ID.equals(id)) {
             throw new IllegalStateException("There is no schedule with id (" + id + ").");
@@ -105,6 +133,7 @@ public class EmployeeScheduleResource {
     }
 
     @Transactional
+    @Timed(value = "schedule.save", description = "Time spent saving the schedule to the database")
     protected void save(EmployeeSchedule schedule) {
         for (Shift shift : schedule.getShiftList()) {
             // TODO this is awfully naive: optimistic locking causes issues if called by the SolverManager
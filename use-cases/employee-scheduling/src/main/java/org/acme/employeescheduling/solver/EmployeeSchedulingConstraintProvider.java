@@ -3,6 +3,7 @@ package org.acme.employeescheduling.solver;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
+import org.acme.common.solver.ConstraintProfiler;
 import org.acme.employeescheduling.domain.Availability;
 import org.acme.employeescheduling.domain.AvailabilityType;
 import org.acme.employeescheduling.domain.Shift;
@@ -14,6 +15,8 @@ import org.optaplanner.core.api.score.stream.Joiners;
 
 public class EmployeeSchedulingConstraintProvider implements ConstraintProvider {
 
+    private final ConstraintProfiler profiler = ConstraintProfiler.create();
+
     private static int getMinuteOverlap(Shift shift1, Shift shift2) {
         // The overlap of two timeslot occurs in the range common to both timeslots.
         // Both timeslots are active after the higher of their two start times,
@@ -45,7 +48,8 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
 
     Constraint requiredSkill(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Shift.class)
-                .filter(shift -> !shift.getEmployee().getSkillSet().contains(shift.getRequiredSkill()))
+                .filter(profiler.filter("Missing required skill",
+                        shift -> !shift.getEmployee().getSkillSet().contains(shift.getRequiredSkill())))
                 .penalize(HardSoftScore.ONE_HARD)
                 .asConstraint("Missing required skill");
     }
@@ -54,7 +58,7 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         return constraintFactory.forEachUniquePair(Shift.class, Joiners.equal(Shift::getEmployee),
                         Joiners.overlapping(Shift::getStart, Shift::getEnd))
                 .penalize(HardSoftScore.ONE_HARD,
-                        EmployeeSchedulingConstraintProvider::getMinuteOverlap)
+                        profiler.weigh("Overlapping shift", EmployeeSchedulingConstraintProvider::getMinuteOverlap))
                 .asConstraint("Overlapping shift");
     }
 
@@ -62,12 +66,13 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         return constraintFactory.forEachUniquePair(Shift.class,
                         Joiners.equal(Shift::getEmployee),
                         Joiners.lessThanOrEqual(Shift::getEnd, Shift::getStart))
-                .filter((firstShift, secondShift) -> Duration.between(firstShift.getEnd(), secondShift.getStart()).toHours() < 10)
-                .penalize(HardSoftScore.ONE_HARD,
+                .filter(profiler.filter("At least 10 hours between 2 shifts",
+                        (firstShift, secondShift) -> Duration.between(firstShift.getEnd(), secondShift.getStart()).toHours() < 10))
+                .penalize(HardSoftScore.ONE_HARD, profiler.weigh("At least 10 hours between 2 shifts",
                         (firstShift, secondShift) -> {
                             int breakLength = (int) Duration.between(firstShift.getEnd(), secondShift.getStart()).toMinutes();
                             return (10 * 60) - breakLength;
-                        })
+                        }))
                 .asConstraint("At least 10 hours between 2 shifts");
     }
 
@@ -82,9 +87,10 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         return constraintFactory.forEach(Shift.class)
                 .join(Availability.class, Joiners.equal((Shift shift) -> shift.getStart().toLocalDate(), Availability::getDate),
                         Joiners.equal(Shift::getEmployee, Availability::getEmployee))
-                .filter((shift, availability) -> availability.getAvailabilityType() == AvailabilityType.UNAVAILABLE)
+                .filter(profiler.filter("Unavailable employee",
+                        (shift, availability) -> availability.getAvailabilityType() == AvailabilityType.UNAVAILABLE))
                 .penalize(HardSoftScore.ONE_HARD,
-                        (shift, availability) -> getShiftDurationInMinutes(shift))
+                        profiler.weigh("Unavailable employee", (shift, availability) -> getShiftDurationInMinutes(shift)))
                 .asConstraint("Unavailable employee");
     }
 
@@ -92,9 +98,10 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         return constraintFactory.forEach(Shift.class)
                 .join(Availability.class, Joiners.equal((Shift shift) -> shift.getStart().toLocalDate(), Availability::getDate),
                         Joiners.equal(Shift::getEmployee, Availability::getEmployee))
-                .filter((shift, availability) -> availability.getAvailabilityType() == AvailabilityType.DESIRED)
+                .filter(profiler.filter("Desired day for employee",
+                        (shift, availability) -> availability.getAvailabilityType() == AvailabilityType.DESIRED))
                 .reward(HardSoftScore.ONE_SOFT,
-                        (shift, availability) -> getShiftDurationInMinutes(shift))
+                        profiler.weigh("Desired day for employee", (shift, availability) -> getShiftDurationInMinutes(shift)))
                 .asConstraint("Desired day for employee");
     }
 
@@ -102,9 +109,10 @@ public class EmployeeSchedulingConstraintProvider implements ConstraintProvider
         return constraintFactory.forEach(Shift.class)
                 .join(Availability.class, Joiners.equal((Shift shift) -> shift.getStart().toLocalDate(), Availability::getDate),
                         Joiners.equal(Shift::getEmployee, Availability::getEmployee))
-                .filter((shift, availability) -> availability.getAvailabilityType() == AvailabilityType.UNDESIRED)
+                .filter(profiler.filter("Undesired day for employee",
+                        (shift, availability) -> availability.getAvailabilityType() == AvailabilityType.UNDESIRED))
                 .penalize(HardSoftScore.ONE_SOFT,
-                        (shift, availability) -> getShiftDurationInMinutes(shift))
+                        profiler.weigh("Undesired day for employee", (shift, availability) -> getShiftDurationInMinutes(shift)))
                 .asConstraint("Undesired day for employee");
     }
 
@@ -2,6 +2,7 @@ package org.acme.facilitylocation.solver;
 
 import static org.optaplanner.core.api.score.stream.ConstraintCollectors.sumLong;
 
+import org.acme.common.solver.ConstraintProfiler;
 import org.acme.facilitylocation.domain.Consumer;
 import org.acme.facilitylocation.domain.Facility;
 import org.acme.facilitylocation.domain.FacilityLocationConstraintConfiguration;
@@ -11,6 +12,8 @@ import org.optaplanner.core.api.score.stream.ConstraintProvider;
 
 public class FacilityLocationConstraintProvider implements ConstraintProvider {
 
+    private final ConstraintProfiler profiler = ConstraintProfiler.create();
+
     @Override
     public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
         return new Constraint[] {
@@ -23,22 +26,26 @@ public class FacilityLocationConstraintProvider implements ConstraintProvider {
     Constraint facilityCapacity(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Consumer.class)
                 .groupBy(Consumer::getFacility, sumLong(Consumer::getDemand))
-                .filter((facility, demand) -> demand > facility.getCapacity())
-                .penalizeConfigurableLong((facility, demand) -> demand - facility.getCapacity())
+                .filter(profiler.filter(FacilityLocationConstraintConfiguration.FACILITY_CAPACITY,
+                        (facility, demand) -> demand > facility.getCapacity()))
+                .penalizeConfigurableLong(profiler.weighLong(FacilityLocationConstraintConfiguration.FACILITY_CAPACITY,
+                        (facility, demand) -> demand - facility.getCapacity()))
                 .asConstraint(FacilityLocationConstraintConfiguration.FACILITY_CAPACITY);
     }
 
     Constraint setupCost(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Consumer.class)
                 .groupBy(Consumer::getFacility)
-                .penalizeConfigurableLong(Facility::getSetupCost)
+                .penalizeConfigurableLong(profiler.weighLong(FacilityLocationConstraintConfiguration.FACILITY_SETUP_COST,
+                        Facility::getSetupCost))
                 .asConstraint(FacilityLocationConstraintConfiguration.FACILITY_SETUP_COST);
     }
 
     Constraint distanceFromFacility(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Consumer.class)
-                .filter(Consumer::isAssigned)
-                .penalizeConfigurableLong(Consumer::distanceFromFacility)
+                .filter(profiler.filter(FacilityLocationConstraintConfiguration.DISTANCE_FROM_FACILITY, Consumer::isAssigned))
+                .penalizeConfigurableLong(profiler.weighLong(FacilityLocationConstraintConfiguration.DISTANCE_FROM_FACILITY,
+                        Consumer::distanceFromFacility))
                 .asConstraint(FacilityLocationConstraintConfiguration.DISTANCE_FROM_FACILITY);
     }
 }
@@ -1,21 +1,30 @@
 package org.acme.maintenancescheduling.rest;
 
+import java.time.Duration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 
+import org.acme.common.persistence.BestSolutionPersister;
 import org.acme.maintenancescheduling.domain.Job;
 import org.acme.maintenancescheduling.domain.MaintenanceSchedule;
 import org.acme.maintenancescheduling.persistence.CrewRepository;
 import org.acme.maintenancescheduling.persistence.JobRepository;
 import org.acme.maintenancescheduling.persistence.WorkCalendarRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import org.optaplanner.core.api.solver.SolutionManager;
 import org.optaplanner.core.api.solver.SolverManager;
 import org.optaplanner.core.api.solver.SolverStatus;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.quarkus.panache.common.Sort;
 
 @Path("/schedule")
@@ -30,17 +39,36 @@ public class MaintenanceScheduleResource {
     @Inject
     JobRepository jobRepository;
 
+    @ConfigProperty(name = "schedule.save.minimum-interval", defaultValue = "1s")
+    Duration saveMinimumInterval;
+    @Inject
+    MeterRegistry meterRegistry;
+    private BestSolutionPersister<MaintenanceSchedule> bestSolutionPersister;
+
     @Inject
     SolverManager<MaintenanceSchedule, Long> solverManager;
     @Inject
     SolutionManager<MaintenanceSchedule, HardSoftScore> solutionManager;
 
+    @PostConstruct
+    void initBestSolutionPersister() {
+        bestSolutionPersister = new BestSolutionPersister<>("maintenanceSchedule", Tags.empty(), saveMinimumInterval,
+                this::save, meterRegistry);
+    }
+
+    @PreDestroy
+    void closeBestSolutionPersister() {
+        bestSolutionPersister.close();
+    }
+
     // To try, open http://localhost:8080/schedule
     @GET
     public MaintenanceSchedule getSchedule() {
         // Get the solver status before loading the solution
         // to avoid the race condition that the solver terminates between them
         SolverStatus solverStatus = getSolverStatus();
+        // Make sure the best solution found so far is in the database
+        bestSolutionPersister.flush();
         MaintenanceSchedule solution = findById(SINGLETON_SCHEDULE_ID);
         solutionManager.update(solution); // Sets the score
         solution.setSolverStatus(solverStatus);
@@ -56,7 +84,7 @@ public class MaintenanceScheduleResource {
     public void solve() {
         solverManager.solveAndListen(SINGLETON_SCHEDULE_ID,
                 this::findById,
-                this::save);
+                bestSolutionPersister::submit);
     }
 
     @POST
@@ -66,6 +94,7 @@ public class MaintenanceScheduleResource {
     }
 
     @Transactional
+    @Timed(value = "schedule.findById", description = "Time spent loading the schedule from the database")
     protected MaintenanceSchedule findById(Long id) {
         if (!SINGLETON_SCHEDULE_ID.equals(id)) {
             throw new IllegalStateException("There is no schedule with id (" + id + ").");
@@ -77,6 +106,7 @@ public class MaintenanceScheduleResource {
     }
 
     @Transactional
+    @Timed(value = "schedule.save", description = "Time spent saving the schedule to the database")
     protected void save(MaintenanceSchedule schedule) {
         for (Job job : schedule.getJobList()) {
             // TODO this is awfully naive: optimistic locking causes issues if called by the SolverManager
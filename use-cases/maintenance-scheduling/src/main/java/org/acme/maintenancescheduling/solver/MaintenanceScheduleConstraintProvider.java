@@ -9,6 +9,7 @@ import static org.optaplanner.core.api.score.stream.Joiners.equal;
 import static org.optaplanner.core.api.score.stream.Joiners.filtering;
 import static org.optaplanner.core.api.score.stream.Joiners.overlapping;
 
+import org.acme.common.solver.ConstraintProfiler;
 import org.acme.maintenancescheduling.domain.Job;
 import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import org.optaplanner.core.api.score.stream.Constraint;
@@ -17,6 +18,8 @@ import org.optaplanner.core.api.score.stream.ConstraintProvider;
 
 public class MaintenanceScheduleConstraintProvider implements ConstraintProvider {
 
+    private final ConstraintProfiler profiler = ConstraintProfiler.create();
+
     @Override
     public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
         return new Constraint[] {
@@ -41,32 +44,32 @@ public class MaintenanceScheduleConstraintProvider implements ConstraintProvider
                 .forEachUniquePair(Job.class,
                         equal(Job::getCrew),
                         overlapping(Job::getStartDate, Job::getEndDate))
-                .penalizeLong(HardSoftLongScore.ONE_HARD,
+                .penalizeLong(HardSoftLongScore.ONE_HARD, profiler.weighLong("Crew conflict",
                         (job1, job2) -> DAYS.between(
                                 job1.getStartDate().isAfter(job2.getStartDate())
                                         ? job1.getStartDate() : job2.getStartDate(),
                                 job1.getEndDate().isBefore(job2.getEndDate())
-                                        ? job1.getEndDate() : job2.getEndDate()))
+                                        ? job1.getEndDate() : job2.getEndDate())))
                 .asConstraint("Crew conflict");
     }
 
     public Constraint readyDate(ConstraintFactory constraintFactory) {
         // Don't start a maintenance job before its ready to start.
         return constraintFactory.forEach(Job.class)
-                .filter(job -> job.getReadyDate() != null
-                        && job.getStartDate().isBefore(job.getReadyDate()))
+                .filter(profiler.filter("Ready date", job -> job.getReadyDate() != null
+                        && job.getStartDate().isBefore(job.getReadyDate())))
                 .penalizeLong(HardSoftLongScore.ONE_HARD,
-                        job -> DAYS.between(job.getStartDate(), job.getReadyDate()))
+                        profiler.weighLong("Ready date", job -> DAYS.between(job.getStartDate(), job.getReadyDate())))
                 .asConstraint("Ready date");
     }
 
     public Constraint dueDate(ConstraintFactory constraintFactory) {
         // Don't end a maintenance job after its due.
         return constraintFactory.forEach(Job.class)
-                .filter(job -> job.getDueDate() != null
-                        && job.getEndDate().isAfter(job.getDueDate()))
+                .filter(profiler.filter("Due date", job -> job.getDueDate() != null
+                        && job.getEndDate().isAfter(job.getDueDate())))
                 .penalizeLong(HardSoftLongScore.ONE_HARD,
-                        job -> DAYS.between(job.getDueDate(), job.getEndDate()))
+                        profiler.weighLong("Due date", job -> DAYS.between(job.getDueDate(), job.getEndDate())))
                 .asConstraint("Due date");
     }
 
@@ -77,20 +80,20 @@ public class MaintenanceScheduleConstraintProvider implements ConstraintProvider
     public Constraint beforeIdealEndDate(ConstraintFactory constraintFactory) {
         // Early maintenance is expensive because the sooner maintenance is done, the sooner it needs to happen again.
         return constraintFactory.forEach(Job.class)
-                .filter(job -> job.getIdealEndDate() != null
-                        && job.getEndDate().isBefore(job.getIdealEndDate()))
-                .penalizeLong(HardSoftLongScore.ofSoft(1),
-                        job -> DAYS.between(job.getEndDate(), job.getIdealEndDate()))
+                .filter(profiler.filter("Before ideal end date", job -> job.getIdealEndDate() != null
+                        && job.getEndDate().isBefore(job.getIdealEndDate())))
+                .penalizeLong(HardSoftLongScore.ofSoft(1), profiler.weighLong("Before ideal end date",
+                        job -> DAYS.between(job.getEndDate(), job.getIdealEndDate())))
                 .asConstraint("Before ideal end date");
     }
 
     public Constraint afterIdealEndDate(ConstraintFactory constraintFactory) {
         // Late maintenance is risky because delays can push it over the due date.
         return constraintFactory.forEach(Job.class)
-                .filter(job -> job.getIdealEndDate() != null
-                        && job.getEndDate().isAfter(job.getIdealEndDate()))
-                .penalizeLong(HardSoftLongScore.ofSoft(1_000_000),
-                        job -> DAYS.between(job.getIdealEndDate(), job.getEndDate()))
+                .filter(profiler.filter("After ideal end date", job -> job.getIdealEndDate() != null
+                        && job.getEndDate().isAfter(job.getIdealEndDate())))
+                .penalizeLong(HardSoftLongScore.ofSoft(1_000_000), profiler.weighLong("After ideal end date",
+                        job -> DAYS.between(job.getIdealEndDate(), job.getEndDate())))
                 .asConstraint("After ideal end date");
     }
     
@@ -100,9 +103,9 @@ public class MaintenanceScheduleConstraintProvider implements ConstraintProvider
                 .forEachUniquePair(Job.class,
                         overlapping(Job::getStartDate, Job::getEndDate),
                         // TODO Use intersecting() when available https://issues.redhat.com/browse/PLANNER-2558
-                        filtering((job1, job2) -> !Collections.disjoint(
-                                job1.getTagSet(), job2.getTagSet())))
-                .penalizeLong(HardSoftLongScore.ofSoft(1_000),
+                        filtering(profiler.filter("Tag conflict", (job1, job2) -> !Collections.disjoint(
+                                job1.getTagSet(), job2.getTagSet()))))
+                .penalizeLong(HardSoftLongScore.ofSoft(1_000), profiler.weighLong("Tag conflict",
                         (job1, job2) -> {
                             Set<String> intersection = new HashSet<>(job1.getTagSet());
                             intersection.retainAll(job2.getTagSet());
@@ -112,7 +115,7 @@ public class MaintenanceScheduleConstraintProvider implements ConstraintProvider
                                     job1.getEndDate().isBefore(job2.getEndDate())
                                             ? job1.getEndDate() : job2.getEndDate());
                             return intersection.size() * overlap;
-                        })
+                        }))
                 .asConstraint("Tag conflict");
     }
 
@@ -1,5 +1,6 @@
 package org.acme.orderpicking.solver;
 
+import org.acme.common.solver.ConstraintProfiler;
 import org.acme.orderpicking.domain.TrolleyStep;
 import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import org.optaplanner.core.api.score.stream.Constraint;
@@ -19,6 +20,8 @@ import static org.optaplanner.core.api.score.stream.ConstraintCollectors.sum;
  */
 public class OrderPickingConstraintProvider implements ConstraintProvider {
 
+    private final ConstraintProfiler profiler = ConstraintProfiler.create();
+
     @Override
     public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
         return new Constraint[] {
@@ -48,9 +51,10 @@ public class OrderPickingConstraintProvider implements ConstraintProvider {
                 .groupBy((trolley, order, orderTotalBuckets) -> trolley,
                         sum((trolley, order, orderTotalBuckets) -> orderTotalBuckets))
                 //penalization if the trolley don't have enough buckets to hold the orders
-                .filter((trolley, trolleyTotalBuckets) -> trolley.getBucketCount() < trolleyTotalBuckets)
-                .penalize(HardSoftLongScore.ONE_HARD,
-                        (trolley, trolleyTotalBuckets) -> trolleyTotalBuckets - trolley.getBucketCount())
+                .filter(profiler.filter("Required number of buckets",
+                        (trolley, trolleyTotalBuckets) -> trolley.getBucketCount() < trolleyTotalBuckets))
+                .penalize(HardSoftLongScore.ONE_HARD, profiler.weigh("Required number of buckets",
+                        (trolley, trolleyTotalBuckets) -> trolleyTotalBuckets - trolley.getBucketCount()))
                 .asConstraint("Required number of buckets");
     }
 
@@ -61,8 +65,8 @@ public class OrderPickingConstraintProvider implements ConstraintProvider {
         return constraintFactory.forEach(TrolleyStep.class)
                 .groupBy(trolleyStep -> trolleyStep.getOrderItem().getOrder(),
                         countDistinctLong(TrolleyStep::getTrolley))
-                .penalizeLong(HardSoftLongScore.ONE_SOFT,
-                        (order, trolleySpreadCount) -> trolleySpreadCount * 1000)
+                .penalizeLong(HardSoftLongScore.ONE_SOFT, profiler.weighLong("Minimize order split by trolley",
+                        (order, trolleySpreadCount) -> trolleySpreadCount * 1000))
                 .asConstraint("Minimize order split by trolley");
     }
 
@@ -74,8 +78,8 @@ public class OrderPickingConstraintProvider implements ConstraintProvider {
      */
     Constraint minimizeDistanceFromPreviousTrolleyStep(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(TrolleyStep.class)
-                .penalizeLong(HardSoftLongScore.ONE_SOFT,
-                        trolleyStep -> calculateDistance(trolleyStep.getPreviousElement().getLocation(), trolleyStep.getLocation()))
+                .penalizeLong(HardSoftLongScore.ONE_SOFT, profiler.weighLong("Minimize the distance from the previous trolley step",
+                        trolleyStep -> calculateDistance(trolleyStep.getPreviousElement().getLocation(), trolleyStep.getLocation())))
                 .asConstraint("Minimize the distance from the previous trolley step");
     }
 
@@ -87,9 +91,10 @@ public class OrderPickingConstraintProvider implements ConstraintProvider {
      */
     Constraint minimizeDistanceFromLastTrolleyStepToPathOrigin(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(TrolleyStep.class)
-                .filter(TrolleyStep::isLast)
-                .penalizeLong(HardSoftLongScore.ONE_SOFT,
-                        trolleyStep -> calculateDistance(trolleyStep.getLocation(), trolleyStep.getTrolley().getLocation()))
+                .filter(profiler.filter("Minimize the distance from last trolley step to the path origin", TrolleyStep::isLast))
+                .penalizeLong(HardSoftLongScore.ONE_SOFT, profiler.weighLong(
+                        "Minimize the distance from last trolley step to the path origin",
+                        trolleyStep -> calculateDistance(trolleyStep.getLocation(), trolleyStep.getTrolley().getLocation())))
                 .asConstraint("Minimize the distance from last trolley step to the path origin");
     }
 
@@ -12,9 +12,12 @@ import jakarta.transaction.Transactional;
 
 import org.acme.schooltimetabling.domain.Lesson;
 import org.acme.schooltimetabling.domain.Room;
+import org.acme.schooltimetabling.domain.StudentGroupAvailability;
+import org.acme.schooltimetabling.domain.TimeTable;
 import org.acme.schooltimetabling.domain.Timeslot;
 import org.acme.schooltimetabling.persistence.LessonRepository;
 import org.acme.schooltimetabling.persistence.RoomRepository;
+import org.acme.schooltimetabling.persistence.StudentGroupAvailabilityRepository;
 import org.acme.schooltimetabling.persistence.TimeslotRepository;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
@@ -25,12 +28,16 @@ public class DemoDataGenerator {
 
     @ConfigProperty(name = "timeTable.demoData", defaultValue = "SMALL")
     DemoData demoData;
+    @ConfigProperty(name = "timeTable.demoData.large-lesson-count", defaultValue = "200")
+    int largeLessonCount;
 
     @Inject
     TimeslotRepository timeslotRepository;
     @Inject
     RoomRepository roomRepository;
     @Inject
+    StudentGroupAvailabilityRepository studentGroupAvailabilityRepository;
+    @Inject
     LessonRepository lessonRepository;
 
     @Transactional
@@ -38,6 +45,14 @@ public class DemoDataGenerator {
         if (demoData == DemoData.NONE) {
             return;
         }
+        if (demoData == DemoData.LARGE) {
+            TimeTable timeTable = new TimeTableGenerator(false).generate(largeLessonCount);
+            timeslotRepository.persist(timeTable.getTimeslotList());
+            roomRepository.persist(timeTable.getRoomList());
+            studentGroupAvailabilityRepository.persist(timeTable.getStudentGroupAvailabilityList());
+            lessonRepository.persist(timeTable.getLessonList());
+            return;
+        }
 
         List<Timeslot> timeslotList = new ArrayList<>();
         timeslotList.add(new Timeslot(DayOfWeek.MONDAY, LocalTime.of(9, 00), LocalTime.of(12, 00)));
@@ -63,37 +78,54 @@ public class DemoDataGenerator {
         timeslotRepository.persist(timeslotList);
 
         List<Room> roomList = new ArrayList<>();
-        roomList.add(new Room("Room A"));
-        roomList.add(new Room("Room B"));
-        roomList.add(new Room("Room C"));
-        //roomList.add(new Room("Room D"));
+        roomList.add(new Room("Room A", 30));
+        roomList.add(new Room("Room B", 28));
+        roomList.add(new Room("Room C", 24));
+        //roomList.add(new Room("Room D", 30));
 
         roomRepository.persist(roomList);
 
+        List<StudentGroupAvailability> studentGroupAvailabilityList = new ArrayList<>();
+        for (Timeslot timeslot : timeslotList) {
+            LocalTime startTime = timeslot.getStartTime();
+            if (startTime.equals(LocalTime.of(9, 00))) {
+                studentGroupAvailabilityList.add(new StudentGroupAvailability("3A", timeslot));
+            } else if (startTime.equals(LocalTime.of(14, 30))) {
+                studentGroupAvailabilityList.add(new StudentGroupAvailability("3B", timeslot));
+                studentGroupAvailabilityList.add(new StudentGroupAvailability("3C", timeslot));
+            } else if (startTime.equals(LocalTime.of(17, 30))) {
+                studentGroupAvailabilityList.add(new StudentGroupAvailability("3D", timeslot));
+            } else if (startTime.equals(LocalTime.of(19, 00))) {
+                studentGroupAvailabilityList.add(new StudentGroupAvailability("3E", timeslot));
+            }
+        }
+
+        studentGroupAvailabilityRepository.persist(studentGroupAvailabilityList);
+
         List<Lesson> lessonList = new ArrayList<>();
-        lessonList.add(new Lesson("Matematica", "Scalise", "3A"));
-        lessonList.add(new Lesson("Matematica", "Scalise", "3B"));
-        lessonList.add(new Lesson("Matematica", "Scalise", "3C"));
-        lessonList.add(new Lesson("Matematica", "Scalise", "3D"));
-        lessonList.add(new Lesson("Matematica", "Scalise", "3E"));
-
-        lessonList.add(new Lesson("Lettere", "Menegazzi", "3A"));
-        lessonList.add(new Lesson("Lettere", "Menegazzi", "3B"));
-        lessonList.add(new Lesson("Lettere", "Menegazzi", "3C"));
-        lessonList.add(new Lesson("Lettere", "Menegazzi", "3D"));
-        lessonList.add(new Lesson("Lettere", "Menegazzi", "3E"));
-
-        lessonList.add(new Lesson("Lettere", "Capuozzo", "3A"));
-        lessonList.add(new Lesson("Lettere", "Capuozzo", "3B"));
-        lessonList.add(new Lesson("Lettere", "Capuozzo", "3C"));
-        lessonList.add(new Lesson("Lettere", "Capuozzo", "3D"));
-        lessonList.add(new Lesson("Lettere", "Capuozzo", "3E"));
+        lessonList.add(new Lesson("Matematica", "Scalise", "3A", 27));
+        lessonList.add(new Lesson("Matematica", "Scalise", "3B", 25));
+        lessonList.add(new Lesson("Matematica", "Scalise", "3C", 23));
+        lessonList.add(new Lesson("Matematica", "Scalise", "3D", 22));
+        lessonList.add(new Lesson("Matematica", "Scalise", "3E", 20));
+
+        lessonList.add(new Lesson("Lettere", "Menegazzi", "3A", 27));
+        lessonList.add(new Lesson("Lettere", "Menegazzi", "3B", 25));
+        lessonList.add(new Lesson("Lettere", "Menegazzi", "3C", 23));
+        lessonList.add(new Lesson("Lettere", "Menegazzi", "3D", 22));
+        lessonList.add(new Lesson("Lettere", "Menegazzi", "3E", 20));
+
+        lessonList.add(new Lesson("Lettere", "Capuozzo", "3A", 27));
+        lessonList.add(new Lesson("Lettere", "Capuozzo", "3B", 25));
+        lessonList.add(new Lesson("Lettere", "Capuozzo", "3C", 23));
+        lessonList.add(new Lesson("Lettere", "Capuozzo", "3D", 22));
+        lessonList.add(new Lesson("Lettere", "Capuozzo", "3E", 20));
         
-        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3A"));
-        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3B"));
-        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3C"));
-        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3D"));
-        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3E"));
+        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3A", 27));
+        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3B", 25));
+        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3C", 23));
+        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3D", 22));
+        lessonList.add(new Lesson("Lingue e Tecnologia", "Colli-Caruso-Marsero", "3E", 20));
 
         Lesson lesson = lessonList.get(0);
         lesson.setTimeslot(timeslotList.get(0));
@@ -0,0 +1,189 @@
+package org.acme.schooltimetabling.bootstrap;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.Room;
+import org.acme.schooltimetabling.domain.StudentGroupAvailability;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.acme.schooltimetabling.domain.Timeslot;
+
+/**
+ * Generates the time table of a school of any size, such as 200, 2 000 or 20 000 lessons.
+ * <p>
+ * Every student group follows the same weekly curriculum of 30 lessons,
+ * so the number of student groups grows with the number of lessons.
+ * Each teacher teaches a single subject to as many student groups as fit in a weekly load of 18 lessons.
+ * That gives a realistic spread: a teacher of Lettere has a single group, a teacher of Religione has 18.
+ * Every student group has its own classroom, and shares the labs and gyms with the other groups.
+ * Student groups have 18 to 28 students, so the largest groups don't fit in a lab.
+ * One in 10 student groups isn't available on Friday afternoon.
+ * <p>
+ * The generated data is deterministic, so benchmark results are comparable across runs.
+ * <p>
+ * Generate it without ids to persist it, because the database generates the ids,
+ * or with ids to solve it directly, for example in a benchmark.
+ */
+public class TimeTableGenerator {
+
+    private static final DayOfWeek[] DAYS = {
+            DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY };
+    private static final LocalTime FIRST_START_TIME = LocalTime.of(8, 0);
+    private static final int TIMESLOTS_PER_DAY = 8;
+    private static final LocalTime AFTERNOON_START_TIME = LocalTime.of(14, 0);
+
+    private static final String[] SUBJECTS = {
+            "Lettere", "Matematica", "Inglese", "Francese", "Tecnologia",
+            "Arte", "Musica", "Scienze motorie", "Religione" };
+    // Lessons per week of each subject, in the same order as SUBJECTS
+    private static final int[] SUBJECT_LESSON_COUNTS = { 10, 6, 3, 2, 2, 2, 2, 2, 1 };
+    private static final int TEACHER_MAX_LESSON_COUNT = 18;
+
+    private static final String[] TEACHER_NAMES = {
+            "Rossi", "Russo", "Ferrari", "Esposito", "Bianchi", "Romano", "Colombo", "Ricci", "Marino", "Greco",
+            "Bruno", "Gallo", "Conti", "De Luca", "Mancini", "Costa", "Giordano", "Rizzo", "Lombardi", "Moretti",
+            "Barbieri", "Fontana", "Santoro", "Mariani", "Rinaldi", "Caruso", "Ferrara", "Galli", "Martini", "Leone",
+            "Longo", "Gentile", "Martinelli", "Vitale", "Lombardo", "Serra", "Coppola", "De Santis", "D'Angelo",
+            "Marchetti" };
+
+    private static final int MIN_STUDENT_GROUP_SIZE = 18;
+    private static final int STUDENT_GROUP_SIZE_RANGE = 11;
+
+    private static final int GROUPS_PER_LAB = 6;
+    private static final int GROUPS_PER_GYM = 15;
+    private static final int CLASSROOM_CAPACITY = 30;
+    private static final int LAB_CAPACITY = 24;
+    private static final int GYM_CAPACITY = 60;
+    private static final int GROUPS_PER_LIMITED_AVAILABILITY_GROUP = 10;
+
+    private final boolean withIds;
+    private long nextId = 0L;
+
+    /**
+     * @param withIds true to assign an id to every timeslot, room, student group availability and lesson
+     */
+    public TimeTableGenerator(boolean withIds) {
+        this.withIds = withIds;
+    }
+
+    /**
+     * @param lessonCount at least 1
+     * @return never null
+     */
+    public TimeTable generate(int lessonCount) {
+        if (lessonCount < 1) {
+            throw new IllegalArgumentException("The lessonCount (" + lessonCount + ") must be at least 1.");
+        }
+        int curriculumLessonCount = 0;
+        for (int subjectLessonCount : SUBJECT_LESSON_COUNTS) {
+            curriculumLessonCount += subjectLessonCount;
+        }
+        int groupCount = (lessonCount + curriculumLessonCount - 1) / curriculumLessonCount;
+
+        List<Timeslot> timeslotList = generateTimeslotList();
+        List<Room> roomList = generateRoomList(groupCount);
+        List<StudentGroupAvailability> studentGroupAvailabilityList = new ArrayList<>();
+        List<Lesson> lessonList = new ArrayList<>(lessonCount);
+        Map<String, String> subjectToTeacherMap = new HashMap<>(SUBJECTS.length);
+        Map<String, Integer> teacherToLessonCountMap = new HashMap<>();
+        int teacherCount = 0;
+        for (int groupIndex = 0; groupIndex < groupCount; groupIndex++) {
+            String studentGroup = generateStudentGroupName(groupIndex);
+            int studentGroupSize = MIN_STUDENT_GROUP_SIZE + (groupIndex * 7) % STUDENT_GROUP_SIZE_RANGE;
+            if (groupIndex % GROUPS_PER_LIMITED_AVAILABILITY_GROUP == GROUPS_PER_LIMITED_AVAILABILITY_GROUP - 1) {
+                for (Timeslot timeslot : timeslotList) {
+                    if (timeslot.getDayOfWeek() != DayOfWeek.FRIDAY
+                            || timeslot.getStartTime().isBefore(AFTERNOON_START_TIME)) {
+                        studentGroupAvailabilityList.add(createStudentGroupAvailability(studentGroup, timeslot));
+                    }
+                }
+            }
+            for (int subjectIndex = 0; subjectIndex < SUBJECTS.length; subjectIndex++) {
+                String subject = SUBJECTS[subjectIndex];
+                int subjectLessonCount = SUBJECT_LESSON_COUNTS[subjectIndex];
+                String teacher = subjectToTeacherMap.get(subject);
+                if (teacher == null
+                        || teacherToLessonCountMap.get(teacher) + subjectLessonCount > TEACHER_MAX_LESSON_COUNT) {
+                    teacher = generateTeacherName(teacherCount);
+                    teacherCount++;
+                    subjectToTeacherMap.put(subject, teacher);
+                    teacherToLessonCountMap.put(teacher, 0);
+                }
+                teacherToLessonCountMap.merge(teacher, subjectLessonCount, Integer::sum);
+                for (int i = 0; i < subjectLessonCount && lessonList.size() < lessonCount; i++) {
+                    lessonList.add(createLesson(subject, teacher, studentGroup, studentGroupSize));
+                }
+            }
+        }
+        return new TimeTable(TimeTable.DEFAULT_SCHOOL_ID, timeslotList, roomList, studentGroupAvailabilityList,
+                lessonList);
+    }
+
+    private List<Timeslot> generateTimeslotList() {
+        List<Timeslot> timeslotList = new ArrayList<>(DAYS.length * TIMESLOTS_PER_DAY);
+        for (DayOfWeek day : DAYS) {
+            for (int i = 0; i < TIMESLOTS_PER_DAY; i++) {
+                LocalTime startTime = FIRST_START_TIME.plusHours(i);
+                timeslotList.add(createTimeslot(day, startTime, startTime.plusHours(1)));
+            }
+        }
+        return timeslotList;
+    }
+
+    private List<Room> generateRoomList(int groupCount) {
+        List<Room> roomList = new ArrayList<>();
+        for (int i = 0; i < groupCount; i++) {
+            roomList.add(createRoom("Aula " + (i + 1), CLASSROOM_CAPACITY));
+        }
+        for (int i = 0; i < (groupCount + GROUPS_PER_LAB - 1) / GROUPS_PER_LAB; i++) {
+            roomList.add(createRoom("Laboratorio " + (i + 1), LAB_CAPACITY));
+        }
+        for (int i = 0; i < (groupCount + GROUPS_PER_GYM - 1) / GROUPS_PER_GYM; i++) {
+            roomList.add(createRoom("Palestra " + (i + 1), GYM_CAPACITY));
+        }
+        return roomList;
+    }
+
+    private Timeslot createTimeslot(DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        return withIds ? new Timeslot(nextId++, dayOfWeek, startTime, endTime)
+                : new Timeslot(dayOfWeek, startTime, endTime);
+    }
+
+    private Room createRoom(String name, int capacity) {
+        return withIds ? new Room(nextId++, name, capacity) : new Room(name, capacity);
+    }
+
+    private StudentGroupAvailability createStudentGroupAvailability(String studentGroup, Timeslot timeslot) {
+        return withIds ? new StudentGroupAvailability(nextId++, studentGroup, timeslot)
+                : new StudentGroupAvailability(studentGroup, timeslot);
+    }
+
+    private Lesson createLesson(String subject, String teacher, String studentGroup, int studentGroupSize) {
+        return withIds ? new Lesson(nextId++, subject, teacher, studentGroup, studentGroupSize, null, null)
+                : new Lesson(subject, teacher, studentGroup, studentGroupSize);
+    }
+
+    /**
+     * @return for example "1A", "2A", "3A", "1B", ..., "3Z", "1AA", ...
+     */
+    private static String generateStudentGroupName(int groupIndex) {
+        int grade = groupIndex % 3 + 1;
+        StringBuilder section = new StringBuilder();
+        for (int sectionIndex = groupIndex / 3; sectionIndex >= 0; sectionIndex = sectionIndex / 26 - 1) {
+            section.insert(0, (char) ('A' + sectionIndex % 26));
+        }
+        return grade + section.toString();
+    }
+
+    private static String generateTeacherName(int teacherIndex) {
+        String name = TEACHER_NAMES[teacherIndex % TEACHER_NAMES.length];
+        int homonymIndex = teacherIndex / TEACHER_NAMES.length;
+        return homonymIndex == 0 ? name : name + " " + (homonymIndex + 1);
+    }
+
+}
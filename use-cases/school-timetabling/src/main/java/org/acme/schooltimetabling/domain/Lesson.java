@@ -1,20 +1,30 @@
 package org.acme.schooltimetabling.domain;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
+import org.acme.schooltimetabling.persistence.LessonAssignmentInvalidator;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
+import org.optaplanner.core.api.domain.entity.PlanningPin;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.time.Duration;
 
 @PlanningEntity
 @Entity
+@EntityListeners(LessonAssignmentInvalidator.class)
+@Table(indexes = @Index(columnList = "schoolId"))
 public class Lesson {
 
     @PlanningId
@@ -22,9 +32,13 @@ public class Lesson {
     @GeneratedValue
     private Long id;
 
+    private Long schoolId = TimeTable.DEFAULT_SCHOOL_ID;
+
     private String subject;
     private String teacher;
     private String studentGroup;
+    // The number of students in the student group, 0 if unknown, so the lesson fits in any room
+    private int studentGroupSize = 0;
 
     @PlanningVariable
     @ManyToOne
@@ -33,6 +47,11 @@ public class Lesson {
     @ManyToOne
     private Room room;
 
+    // Only pinned while repairing the time table, so the solver doesn't move it
+    @PlanningPin
+    @Transient
+    private boolean pinned = false;
+
     // No-arg constructor required for Hibernate and OptaPlanner
     public Lesson() {
     }
@@ -43,8 +62,18 @@ public class Lesson {
         this.studentGroup = studentGroup;
     }
 
-    public Lesson(long id, String subject, String teacher, String studentGroup, Timeslot timeslot, Room room) {
+    public Lesson(String subject, String teacher, String studentGroup, int studentGroupSize) {
         this(subject, teacher, studentGroup);
+        this.studentGroupSize = studentGroupSize;
+    }
+
+    public Lesson(long id, String subject, String teacher, String studentGroup, Timeslot timeslot, Room room) {
+        this(id, subject, teacher, studentGroup, 0, timeslot, room);
+    }
+
+    public Lesson(long id, String subject, String teacher, String studentGroup, int studentGroupSize,
+            Timeslot timeslot, Room room) {
+        this(subject, teacher, studentGroup, studentGroupSize);
         this.id = id;
         this.timeslot = timeslot;
         this.room = room;
@@ -63,6 +92,14 @@ public class Lesson {
         return id;
     }
 
+    public Long getSchoolId() {
+        return schoolId;
+    }
+
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+
     public String getSubject() {
         return subject;
     }
@@ -75,6 +112,10 @@ public class Lesson {
         return studentGroup;
     }
 
+    public int getStudentGroupSize() {
+        return studentGroupSize;
+    }
+
     public Timeslot getTimeslot() {
         return timeslot;
     }
@@ -91,4 +132,13 @@ public class Lesson {
         this.room = room;
     }
 
+    @JsonIgnore
+    public boolean isPinned() {
+        return pinned;
+    }
+
+    public void setPinned(boolean pinned) {
+        this.pinned = pinned;
+    }
+
 }
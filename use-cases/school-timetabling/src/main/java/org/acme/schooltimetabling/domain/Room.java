@@ -3,18 +3,27 @@ package org.acme.schooltimetabling.domain;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 
 @Entity
+@Table(indexes = @Index(columnList = "schoolId"))
 public class Room {
 
+    public static final int DEFAULT_CAPACITY = 30;
+
     @PlanningId
     @Id
     @GeneratedValue
     private Long id;
 
+    private Long schoolId = TimeTable.DEFAULT_SCHOOL_ID;
+
     private String name;
+    // The maximum number of students
+    private int capacity = DEFAULT_CAPACITY;
 
     // No-arg constructor required for Hibernate
     public Room() {
@@ -24,11 +33,21 @@ public class Room {
         this.name = name;
     }
 
+    public Room(String name, int capacity) {
+        this(name);
+        this.capacity = capacity;
+    }
+
     public Room(long id, String name) {
         this(name);
         this.id = id;
     }
 
+    public Room(long id, String name, int capacity) {
+        this(name, capacity);
+        this.id = id;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -42,8 +61,20 @@ public class Room {
         return id;
     }
 
+    public Long getSchoolId() {
+        return schoolId;
+    }
+
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+
     public String getName() {
         return name;
     }
 
+    public int getCapacity() {
+        return capacity;
+    }
+
 }
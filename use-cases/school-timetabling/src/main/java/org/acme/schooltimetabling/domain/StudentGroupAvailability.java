@@ -0,0 +1,74 @@
+package org.acme.schooltimetabling.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+import org.optaplanner.core.api.domain.lookup.PlanningId;
+
+/**
+ * Allows a student group to attend lessons in a timeslot.
+ * A student group with at least one availability can only attend lessons in its available timeslots.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "schoolId"))
+public class StudentGroupAvailability {
+
+    @PlanningId
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private Long schoolId = TimeTable.DEFAULT_SCHOOL_ID;
+
+    private String studentGroup;
+    @ManyToOne
+    private Timeslot timeslot;
+
+    // No-arg constructor required for Hibernate
+    public StudentGroupAvailability() {
+    }
+
+    public StudentGroupAvailability(String studentGroup, Timeslot timeslot) {
+        this.studentGroup = studentGroup;
+        this.timeslot = timeslot;
+    }
+
+    public StudentGroupAvailability(long id, String studentGroup, Timeslot timeslot) {
+        this(studentGroup, timeslot);
+        this.id = id;
+    }
+
+    @Override
+    public String toString() {
+        return studentGroup + "@" + timeslot;
+    }
+
+    // ************************************************************************
+    // Getters and setters
+    // ************************************************************************
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getSchoolId() {
+        return schoolId;
+    }
+
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+
+    public String getStudentGroup() {
+        return studentGroup;
+    }
+
+    public Timeslot getTimeslot() {
+        return timeslot;
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.acme.schooltimetabling.domain;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.optaplanner.core.api.domain.solution.PlanningEntityCollectionProperty;
@@ -13,12 +14,19 @@ import org.optaplanner.core.api.solver.SolverStatus;
 @PlanningSolution
 public class TimeTable {
 
+    public static final Long DEFAULT_SCHOOL_ID = 1L;
+
+    // Each school has its own time table
+    private Long schoolId;
+
     @ProblemFactCollectionProperty
     @ValueRangeProvider
     private List<Timeslot> timeslotList;
     @ProblemFactCollectionProperty
     @ValueRangeProvider
     private List<Room> roomList;
+    @ProblemFactCollectionProperty
+    private List<StudentGroupAvailability> studentGroupAvailabilityList;
     @PlanningEntityCollectionProperty
     private List<Lesson> lessonList;
 
@@ -33,8 +41,15 @@ public class TimeTable {
     }
 
     public TimeTable(List<Timeslot> timeslotList, List<Room> roomList, List<Lesson> lessonList) {
+        this(DEFAULT_SCHOOL_ID, timeslotList, roomList, new ArrayList<>(), lessonList);
+    }
+
+    public TimeTable(Long schoolId, List<Timeslot> timeslotList, List<Room> roomList,
+            List<StudentGroupAvailability> studentGroupAvailabilityList, List<Lesson> lessonList) {
+        this.schoolId = schoolId;
         this.timeslotList = timeslotList;
         this.roomList = roomList;
+        this.studentGroupAvailabilityList = studentGroupAvailabilityList;
         this.lessonList = lessonList;
     }
 
@@ -42,6 +57,10 @@ public class TimeTable {
     // Getters and setters
     // ************************************************************************
 
+    public Long getSchoolId() {
+        return schoolId;
+    }
+
     public List<Timeslot> getTimeslotList() {
         return timeslotList;
     }
@@ -50,6 +69,10 @@ public class TimeTable {
         return roomList;
     }
 
+    public List<StudentGroupAvailability> getStudentGroupAvailabilityList() {
+        return studentGroupAvailabilityList;
+    }
+
     public List<Lesson> getLessonList() {
         return lessonList;
     }
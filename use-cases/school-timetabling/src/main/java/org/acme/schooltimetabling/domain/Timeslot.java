@@ -2,16 +2,25 @@ package org.acme.schooltimetabling.domain;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
-import java.time.Duration;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
+@Table(indexes = @Index(columnList = "schoolId"))
 public class Timeslot {
 
     @PlanningId
@@ -19,10 +28,22 @@ public class Timeslot {
     @GeneratedValue
     private Long id;
 
+    private Long schoolId = TimeTable.DEFAULT_SCHOOL_ID;
+
+    // Explicitly the default, because LessonJsonStreamer reads the ordinal with plain JDBC
+    @Enumerated(EnumType.ORDINAL)
     private DayOfWeek dayOfWeek;
     private LocalTime startTime;
     private LocalTime endTime;
 
+    // Derived from the fields above to compare timeslots with int arithmetic in the constraints
+    @Transient
+    private int startMinuteOfWeek;
+    @Transient
+    private int endMinuteOfWeek;
+    @Transient
+    private int durationMinutes;
+
     // No-arg constructor required for Hibernate
     public Timeslot() {
     }
@@ -31,13 +52,28 @@ public class Timeslot {
         this.dayOfWeek = dayOfWeek;
         this.startTime = startTime;
         this.endTime = endTime;
+        initMinuteOfWeek();
     }
 
     public Timeslot(long id, DayOfWeek dayOfWeek, LocalTime startTime) {
-        this(dayOfWeek, startTime, startTime.plusMinutes(50));
+        this(id, dayOfWeek, startTime, startTime.plusMinutes(50));
+    }
+
+    public Timeslot(long id, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        this(dayOfWeek, startTime, endTime);
         this.id = id;
     }
 
+    @PostLoad
+    @PrePersist
+    @PreUpdate
+    void initMinuteOfWeek() {
+        int dayStartMinute = (dayOfWeek.getValue() - 1) * 24 * 60;
+        startMinuteOfWeek = dayStartMinute + startTime.getHour() * 60 + startTime.getMinute();
+        endMinuteOfWeek = dayStartMinute + endTime.getHour() * 60 + endTime.getMinute();
+        durationMinutes = endMinuteOfWeek - startMinuteOfWeek;
+    }
+
     @Override
     public String toString() {
         return dayOfWeek + " " + startTime;
@@ -51,6 +87,14 @@ public class Timeslot {
         return id;
     }
 
+    public Long getSchoolId() {
+        return schoolId;
+    }
+
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+
     public DayOfWeek getDayOfWeek() {
         return dayOfWeek;
     }
@@ -63,7 +107,19 @@ public class Timeslot {
         return endTime;
     }
 
-    public Duration getDuration() {
-        return Duration.between(startTime,endTime);
+    @JsonIgnore
+    public int getStartMinuteOfWeek() {
+        return startMinuteOfWeek;
+    }
+
+    @JsonIgnore
+    public int getEndMinuteOfWeek() {
+        return endMinuteOfWeek;
     }
+
+    @JsonIgnore
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
 }
@@ -0,0 +1,26 @@
+package org.acme.schooltimetabling.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.acme.schooltimetabling.domain.Lesson;
+
+/**
+ * Tells the {@link LessonAssignmentWriter} which lessons are changed or deleted through Hibernate,
+ * for example by a PUT or DELETE on {@code /lessons}, because it doesn't see those changes otherwise.
+ */
+@ApplicationScoped
+public class LessonAssignmentInvalidator {
+
+    @Inject
+    LessonAssignmentWriter lessonAssignmentWriter;
+
+    @PostUpdate
+    @PostRemove
+    void invalidate(Lesson lesson) {
+        lessonAssignmentWriter.invalidate(lesson.getSchoolId(), lesson.getId());
+    }
+
+}
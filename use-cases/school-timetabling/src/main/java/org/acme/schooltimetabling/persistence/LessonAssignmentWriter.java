@@ -0,0 +1,168 @@
+package org.acme.schooltimetabling.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.acme.common.persistence.BestSolutionPersister;
+import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Writes the timeslot and room of each lesson of a solved {@link TimeTable} to the database.
+ * <p>
+ * Only lessons that changed since the last write are updated, in JDBC batches.
+ * Use it through a {@link BestSolutionPersister}, so writing doesn't block the solver.
+ * <p>
+ * The saved assignments are remembered per school, from the start of its last solve.
+ * A lesson that is updated or deleted through Hibernate in the meantime, for example by a REST call,
+ * is forgotten by {@link LessonAssignmentInvalidator}, so the next write updates it regardless.
+ */
+@ApplicationScoped
+public class LessonAssignmentWriter {
+
+    private static final String UPDATE_LESSON_SQL = "UPDATE Lesson SET timeslot_id = ?, room_id = ?"
+            + " WHERE id = ? AND schoolId = ?";
+
+    @ConfigProperty(name = "timeTable.save.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    // The saved assignment per lesson id, per school id
+    private final Map<Long, Map<Long, LessonAssignment>> schoolSavedAssignmentMap = new ConcurrentHashMap<>();
+
+    /**
+     * Forgets everything remembered about the school of the time table
+     * and remembers the assignments of that time table instead.
+     * So the next {@link #write(TimeTable)} only updates the lessons that differ from it.
+     * Call it when a solve starts.
+     * @param timeTable never null, as loaded from the database
+     */
+    public void reset(TimeTable timeTable) {
+        Map<Long, LessonAssignment> savedAssignmentMap = new ConcurrentHashMap<>(timeTable.getLessonList().size());
+        for (Lesson lesson : timeTable.getLessonList()) {
+            savedAssignmentMap.put(lesson.getId(), new LessonAssignment(lesson));
+        }
+        schoolSavedAssignmentMap.put(timeTable.getSchoolId(), savedAssignmentMap);
+    }
+
+    /**
+     * Forgets the saved assignment of a lesson, so the next {@link #write(TimeTable)} updates it regardless.
+     * Call it when the lesson is changed or deleted in the database by something else than this writer.
+     * @param schoolId never null
+     * @param lessonId never null
+     */
+    public void invalidate(Long schoolId, Long lessonId) {
+        Map<Long, LessonAssignment> savedAssignmentMap = schoolSavedAssignmentMap.get(schoolId);
+        if (savedAssignmentMap != null) {
+            savedAssignmentMap.remove(lessonId);
+        }
+    }
+
+    /**
+     * Writes the lessons that changed since the last write or {@link #reset(TimeTable)}.
+     * Must not be called concurrently for the same school.
+     * @param timeTable never null
+     */
+    @Timed(value = "timeTable.save", description = "Time spent writing the changed lessons of a time table")
+    public void write(TimeTable timeTable) {
+        try {
+            writeChangedLessons(timeTable);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed writing the time table.", e);
+        }
+    }
+
+    private void writeChangedLessons(TimeTable timeTable) throws SQLException {
+        Map<Long, LessonAssignment> savedAssignmentMap = schoolSavedAssignmentMap.computeIfAbsent(
+                timeTable.getSchoolId(), schoolId -> new ConcurrentHashMap<>());
+        Map<Long, LessonAssignment> changedAssignmentMap = new HashMap<>();
+        for (Lesson lesson : timeTable.getLessonList()) {
+            LessonAssignment assignment = new LessonAssignment(lesson);
+            if (!assignment.equals(savedAssignmentMap.get(lesson.getId()))) {
+                changedAssignmentMap.put(lesson.getId(), assignment);
+            }
+        }
+        if (changedAssignmentMap.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_LESSON_SQL)) {
+                int batchCount = 0;
+                for (Map.Entry<Long, LessonAssignment> entry : changedAssignmentMap.entrySet()) {
+                    setNullableLong(statement, 1, entry.getValue().timeslotId);
+                    setNullableLong(statement, 2, entry.getValue().roomId);
+                    statement.setLong(3, entry.getKey());
+                    statement.setLong(4, timeTable.getSchoolId());
+                    statement.addBatch();
+                    if (++batchCount == batchSize) {
+                        statement.executeBatch();
+                        batchCount = 0;
+                    }
+                }
+                if (batchCount > 0) {
+                    statement.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        savedAssignmentMap.putAll(changedAssignmentMap);
+    }
+
+    private static void setNullableLong(PreparedStatement statement, int parameterIndex, Long value)
+            throws SQLException {
+        if (value == null) {
+            statement.setNull(parameterIndex, Types.BIGINT);
+        } else {
+            statement.setLong(parameterIndex, value);
+        }
+    }
+
+    private static final class LessonAssignment {
+
+        private final Long timeslotId;
+        private final Long roomId;
+
+        private LessonAssignment(Lesson lesson) {
+            this.timeslotId = lesson.getTimeslot() == null ? null : lesson.getTimeslot().getId();
+            this.roomId = lesson.getRoom() == null ? null : lesson.getRoom().getId();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LessonAssignment)) {
+                return false;
+            }
+            LessonAssignment other = (LessonAssignment) o;
+            return Objects.equals(timeslotId, other.timeslotId) && Objects.equals(roomId, other.roomId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(timeslotId, roomId);
+        }
+
+    }
+
+}
@@ -0,0 +1,202 @@
+package org.acme.schooltimetabling.persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.agroal.api.AgroalDataSource;
+
+/**
+ * Writes the lessons of a school as a JSON array, straight from a forward-only JDBC cursor,
+ * without loading the time table into memory.
+ * <p>
+ * The rows are fetched from the database in chunks of {@code timeTable.stream.fetch-size}
+ * and each lesson is written as soon as it's read, so the memory use doesn't depend on the number of lessons.
+ * Each lesson has the same JSON shape as a {@link Lesson} in the time table, limited to the requested fields.
+ */
+@ApplicationScoped
+public class LessonJsonStreamer {
+
+    public enum LessonField {
+        ID("id"),
+        SUBJECT("subject"),
+        TEACHER("teacher"),
+        STUDENT_GROUP("studentGroup"),
+        STUDENT_GROUP_SIZE("studentGroupSize"),
+        TIMESLOT("timeslot"),
+        ROOM("room");
+
+        private final String jsonName;
+
+        LessonField(String jsonName) {
+            this.jsonName = jsonName;
+        }
+
+        /**
+         * @param fields sometimes null, comma separated JSON names, such as "id,timeslot,room"
+         * @return never null, all fields if fields is null or empty
+         */
+        public static Set<LessonField> parse(String fields) {
+            if (fields == null || fields.isBlank()) {
+                return EnumSet.allOf(LessonField.class);
+            }
+            Set<LessonField> fieldSet = EnumSet.noneOf(LessonField.class);
+            for (String jsonName : fields.split(",")) {
+                fieldSet.add(ofJsonName(jsonName.trim()));
+            }
+            return fieldSet;
+        }
+
+        private static LessonField ofJsonName(String jsonName) {
+            for (LessonField field : values()) {
+                if (field.jsonName.equals(jsonName)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("The lesson field (" + jsonName + ") does not exist.");
+        }
+    }
+
+    @ConfigProperty(name = "timeTable.stream.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    @Inject
+    AgroalDataSource dataSource;
+    @Inject
+    ObjectMapper objectMapper;
+
+    /**
+     * @param schoolId never null
+     * @param page at least 0, ignored if pageSize is 0
+     * @param pageSize at least 0, 0 to write all lessons
+     * @param fieldSet never null, the fields to write of each lesson
+     * @param outputStream never null, not closed
+     */
+    public void write(Long schoolId, int page, int pageSize, Set<LessonField> fieldSet, OutputStream outputStream)
+            throws IOException {
+        if (page < 0 || pageSize < 0) {
+            throw new IllegalArgumentException("The page (" + page + ") and pageSize (" + pageSize
+                    + ") must be at least 0.");
+        }
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream);
+                Connection connection = dataSource.getConnection()) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Some drivers, such as PostgreSQL, only fetch rows in chunks inside a transaction
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement(buildSql(fieldSet, pageSize),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, schoolId);
+                if (pageSize > 0) {
+                    statement.setInt(2, pageSize);
+                    statement.setLong(3, (long) page * pageSize);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    generator.writeStartArray();
+                    while (resultSet.next()) {
+                        writeLesson(generator, resultSet, fieldSet);
+                    }
+                    generator.writeEndArray();
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed reading the lessons of school (" + schoolId + ").", e);
+        }
+    }
+
+    private static String buildSql(Set<LessonField> fieldSet, int pageSize) {
+        StringBuilder sql = new StringBuilder("SELECT l.id, l.subject, l.teacher, l.studentGroup, l.studentGroupSize");
+        if (fieldSet.contains(LessonField.TIMESLOT)) {
+            sql.append(", t.id, t.dayOfWeek, t.startTime, t.endTime");
+        }
+        if (fieldSet.contains(LessonField.ROOM)) {
+            sql.append(", r.id, r.name, r.capacity");
+        }
+        sql.append(" FROM Lesson l");
+        // Only join the tables of the requested fields
+        if (fieldSet.contains(LessonField.TIMESLOT)) {
+            sql.append(" LEFT JOIN Timeslot t ON t.id = l.timeslot_id");
+        }
+        if (fieldSet.contains(LessonField.ROOM)) {
+            sql.append(" LEFT JOIN Room r ON r.id = l.room_id");
+        }
+        // Same order as LessonRepository.listAllBySchoolId(), the id makes the pages stable
+        sql.append(" WHERE l.schoolId = ? ORDER BY l.subject, l.teacher, l.studentGroup, l.id");
+        if (pageSize > 0) {
+            sql.append(" LIMIT ? OFFSET ?");
+        }
+        return sql.toString();
+    }
+
+    private void writeLesson(JsonGenerator generator, ResultSet resultSet, Set<LessonField> fieldSet)
+            throws IOException, SQLException {
+        generator.writeStartObject();
+        if (fieldSet.contains(LessonField.ID)) {
+            generator.writeNumberField("id", resultSet.getLong(1));
+        }
+        if (fieldSet.contains(LessonField.SUBJECT)) {
+            generator.writeStringField("subject", resultSet.getString(2));
+        }
+        if (fieldSet.contains(LessonField.TEACHER)) {
+            generator.writeStringField("teacher", resultSet.getString(3));
+        }
+        if (fieldSet.contains(LessonField.STUDENT_GROUP)) {
+            generator.writeStringField("studentGroup", resultSet.getString(4));
+        }
+        if (fieldSet.contains(LessonField.STUDENT_GROUP_SIZE)) {
+            generator.writeNumberField("studentGroupSize", resultSet.getInt(5));
+        }
+        int columnIndex = 6;
+        if (fieldSet.contains(LessonField.TIMESLOT)) {
+            generator.writeFieldName("timeslot");
+            long timeslotId = resultSet.getLong(columnIndex);
+            if (resultSet.wasNull()) {
+                generator.writeNull();
+            } else {
+                generator.writeStartObject();
+                generator.writeNumberField("id", timeslotId);
+                // Stored as the ordinal, see the @Enumerated of Timeslot.dayOfWeek, LessonJsonStreamerTest checks it
+                generator.writeObjectField("dayOfWeek", DayOfWeek.values()[resultSet.getInt(columnIndex + 1)]);
+                // Written by the ObjectMapper, to use the same format as the rest of the REST API
+                generator.writeObjectField("startTime", resultSet.getObject(columnIndex + 2, LocalTime.class));
+                generator.writeObjectField("endTime", resultSet.getObject(columnIndex + 3, LocalTime.class));
+                generator.writeEndObject();
+            }
+            columnIndex += 4;
+        }
+        if (fieldSet.contains(LessonField.ROOM)) {
+            generator.writeFieldName("room");
+            long roomId = resultSet.getLong(columnIndex);
+            if (resultSet.wasNull()) {
+                generator.writeNull();
+            } else {
+                generator.writeStartObject();
+                generator.writeNumberField("id", roomId);
+                generator.writeStringField("name", resultSet.getString(columnIndex + 1));
+                generator.writeNumberField("capacity", resultSet.getInt(columnIndex + 2));
+                generator.writeEndObject();
+            }
+        }
+        generator.writeEndObject();
+    }
+
+}
@@ -1,12 +1,19 @@
 package org.acme.schooltimetabling.persistence;
 
+import java.util.List;
+
 import jakarta.enterprise.context.ApplicationScoped;
 
 import org.acme.schooltimetabling.domain.Lesson;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 
 @ApplicationScoped
 public class LessonRepository implements PanacheRepository<Lesson> {
 
+    public List<Lesson> listAllBySchoolId(long schoolId) {
+        return list("schoolId", Sort.by("subject").and("teacher").and("studentGroup").and("id"), schoolId);
+    }
+
 }
@@ -1,12 +1,19 @@
 package org.acme.schooltimetabling.persistence;
 
+import java.util.List;
+
 import jakarta.enterprise.context.ApplicationScoped;
 
 import org.acme.schooltimetabling.domain.Room;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 
 @ApplicationScoped
 public class RoomRepository implements PanacheRepository<Room> {
 
+    public List<Room> listAllBySchoolId(long schoolId) {
+        return list("schoolId", Sort.by("name").and("id"), schoolId);
+    }
+
 }
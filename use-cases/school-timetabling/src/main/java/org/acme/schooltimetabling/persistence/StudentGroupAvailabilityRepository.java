@@ -0,0 +1,19 @@
+package org.acme.schooltimetabling.persistence;
+
+import java.util.List;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.acme.schooltimetabling.domain.StudentGroupAvailability;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+
+@ApplicationScoped
+public class StudentGroupAvailabilityRepository implements PanacheRepository<StudentGroupAvailability> {
+
+    public List<StudentGroupAvailability> listAllBySchoolId(long schoolId) {
+        return list("schoolId", Sort.by("studentGroup").and("id"), schoolId);
+    }
+
+}
@@ -1,12 +1,19 @@
 package org.acme.schooltimetabling.persistence;
 
+import java.util.List;
+
 import jakarta.enterprise.context.ApplicationScoped;
 
 import org.acme.schooltimetabling.domain.Timeslot;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 
 @ApplicationScoped
 public class TimeslotRepository implements PanacheRepository<Timeslot> {
 
+    public List<Timeslot> listAllBySchoolId(long schoolId) {
+        return list("schoolId", Sort.by("dayOfWeek").and("startTime").and("endTime").and("id"), schoolId);
+    }
+
 }
@@ -0,0 +1,12 @@
+package org.acme.schooltimetabling.rest;
+
+import org.acme.schooltimetabling.domain.StudentGroupAvailability;
+import org.acme.schooltimetabling.persistence.StudentGroupAvailabilityRepository;
+
+import io.quarkus.hibernate.orm.rest.data.panache.PanacheRepositoryResource;
+import io.quarkus.rest.data.panache.ResourceProperties;
+
+@ResourceProperties(path = "studentGroupAvailabilities")
+public interface StudentGroupAvailabilityResource extends PanacheRepositoryResource<StudentGroupAvailabilityRepository, StudentGroupAvailability, Long> {
+
+}
@@ -1,91 +1,337 @@
 package org.acme.schooltimetabling.rest;
 
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
 
-import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.common.persistence.BestSolutionPersister;
 import org.acme.schooltimetabling.domain.TimeTable;
+import org.acme.schooltimetabling.persistence.LessonAssignmentWriter;
+import org.acme.schooltimetabling.persistence.LessonJsonStreamer;
+import org.acme.schooltimetabling.persistence.LessonJsonStreamer.LessonField;
 import org.acme.schooltimetabling.persistence.LessonRepository;
 import org.acme.schooltimetabling.persistence.RoomRepository;
+import org.acme.schooltimetabling.persistence.StudentGroupAvailabilityRepository;
 import org.acme.schooltimetabling.persistence.TimeslotRepository;
+import org.acme.schooltimetabling.solver.MoveThreadCountTuner;
+import org.acme.schooltimetabling.solver.SolverManagerMetrics;
+import org.acme.schooltimetabling.solver.TimeTableRepair;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import org.optaplanner.core.api.solver.SolutionManager;
+import org.optaplanner.core.api.solver.SolverFactory;
 import org.optaplanner.core.api.solver.SolverManager;
 import org.optaplanner.core.api.solver.SolverStatus;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.SolverManagerConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import io.quarkus.panache.common.Sort;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
 
 @Path("timeTable")
 public class TimeTableResource {
 
-    public static final Long SINGLETON_TIME_TABLE_ID = 1L;
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimeTableResource.class);
 
     @Inject
     TimeslotRepository timeslotRepository;
     @Inject
     RoomRepository roomRepository;
     @Inject
+    StudentGroupAvailabilityRepository studentGroupAvailabilityRepository;
+    @Inject
     LessonRepository lessonRepository;
+    @Inject
+    LessonAssignmentWriter lessonAssignmentWriter;
+    @Inject
+    LessonJsonStreamer lessonJsonStreamer;
 
+    @ConfigProperty(name = "timeTable.save.minimum-interval", defaultValue = "1s")
+    Duration saveMinimumInterval;
+    @Inject
+    MeterRegistry meterRegistry;
+    private final ConcurrentMap<Long, BestSolutionPersister<TimeTable>> bestSolutionPersisterMap =
+            new ConcurrentHashMap<>();
+    // Per school id, held while checking that a school isn't solving and submitting a solve or repair,
+    // so 2 concurrent requests can't both start one
+    private final ConcurrentMap<Long, Object> schoolLockMap = new ConcurrentHashMap<>();
+
+    // The SolverManager solves at most parallel-solver-count time tables at the same time
+    // and queues the other solve requests in arrival order.
+    // Each school has at most 1 solve request queued or running, so no school can starve the others.
     @Inject
     SolverManager<TimeTable, Long> solverManager;
     @Inject
     SolutionManager<TimeTable, HardSoftScore> solutionManager;
 
+    // Repairs only run for a short time, so they have their own SolverManager with a shorter termination
+    @Inject
+    SolverConfig solverConfig;
+    @Inject
+    SolverManagerConfig solverManagerConfig;
+    @ConfigProperty(name = "timeTable.repair.spent-limit", defaultValue = "5s")
+    Duration repairSpentLimit;
+    private SolverManager<TimeTable, Long> repairSolverManager;
+    private SolverManagerMetrics<Long> solverManagerMetrics;
+
+    // With move thread count tuning, each time table is solved with the move thread count calibrated for its size,
+    // by a SolverManager per move thread count, instead of the injected SolverManager.
+    @ConfigProperty(name = "timeTable.solver.move-thread-count-tuning", defaultValue = "false")
+    boolean moveThreadCountTuning;
+    @ConfigProperty(name = "timeTable.solver.move-thread-count-tuning.calibration-spent-limit", defaultValue = "2s")
+    Duration calibrationSpentLimit;
+    private MoveThreadCountTuner moveThreadCountTuner;
+    private final ConcurrentMap<Integer, SolverManager<TimeTable, Long>> tunedSolverManagerMap =
+            new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initSolverManagers() {
+        SolverConfig repairSolverConfig = solverConfig.copyConfig()
+                .withTerminationConfig(new TerminationConfig().withSpentLimit(repairSpentLimit));
+        repairSolverManager = SolverManager.create(SolverFactory.create(repairSolverConfig), solverManagerConfig);
+        // Covers all SolverManagers
+        solverManagerMetrics = new SolverManagerMetrics<>("timeTable", this::getSolverStatus, meterRegistry);
+        if (moveThreadCountTuning) {
+            // Calibration solves wait until no school is being solved, so they don't compete for the CPU cores
+            moveThreadCountTuner = new MoveThreadCountTuner(solverConfig, calibrationSpentLimit, this::isSolving);
+        }
+    }
+
+    // After the demo data is generated
+    void calibrateMoveThreadCount(
+            @Observes @Priority(Interceptor.Priority.APPLICATION + 600) StartupEvent startupEvent) {
+        if (moveThreadCountTuner == null) {
+            return;
+        }
+        // Calibrates in the background, so it doesn't delay the startup
+        moveThreadCountTuner.getMoveThreadCount(
+                (int) lessonRepository.count("schoolId", TimeTable.DEFAULT_SCHOOL_ID));
+    }
+
+    @PreDestroy
+    void closeBestSolutionPersisters() {
+        if (moveThreadCountTuner != null) {
+            moveThreadCountTuner.close();
+        }
+        repairSolverManager.close();
+        tunedSolverManagerMap.values().forEach(SolverManager::close);
+        bestSolutionPersisterMap.values().forEach(BestSolutionPersister::close);
+    }
+
     // To try, open http://localhost:8080/timeTable
     @GET
-    public TimeTable getTimeTable() {
+    public TimeTable getTimeTable(@QueryParam("schoolId") @DefaultValue("1") Long schoolId) {
         // Get the solver status before loading the solution
         // to avoid the race condition that the solver terminates between them
-        SolverStatus solverStatus = getSolverStatus();
-        TimeTable solution = findById(SINGLETON_TIME_TABLE_ID);
+        SolverStatus solverStatus = getSolverStatus(schoolId);
+        flushBestSolution(schoolId);
+        TimeTable solution = findById(schoolId);
         solutionManager.update(solution); // Sets the score
         solution.setSolverStatus(solverStatus);
         return solution;
     }
 
+    /**
+     * Streams the lessons of a large time table, optionally a page at a time and only some fields of each lesson,
+     * without loading the time table into memory.
+     * For example {@code GET /timeTable/lessons?page=2&pageSize=1000&fields=id,timeslot,room}.
+     * Unlike {@link #getTimeTable(Long)}, it doesn't include the score or the solver status.
+     */
+    @GET
+    @Path("lessons")
+    @Produces(MediaType.APPLICATION_JSON)
+    public StreamingOutput getLessons(@QueryParam("schoolId") @DefaultValue("1") Long schoolId,
+            @QueryParam("page") @DefaultValue("0") int page,
+            @QueryParam("pageSize") @DefaultValue("0") int pageSize,
+            @QueryParam("fields") String fields) {
+        // Before streaming, because once the first bytes are written the status can't become 400 anymore
+        if (page < 0 || pageSize < 0) {
+            throw new BadRequestException("The page (" + page + ") and pageSize (" + pageSize
+                    + ") must be at least 0.");
+        }
+        Set<LessonField> fieldSet;
+        try {
+            fieldSet = LessonField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+        flushBestSolution(schoolId);
+        return outputStream -> lessonJsonStreamer.write(schoolId, page, pageSize, fieldSet, outputStream);
+    }
+
     @POST
     @Path("solve")
-    public void solve() {
-        solverManager.solveAndListen(SINGLETON_TIME_TABLE_ID,
-                this::findById,
-                this::save);
+    public void solve(@QueryParam("schoolId") @DefaultValue("1") Long schoolId) {
+        synchronized (getSchoolLock(schoolId)) {
+            if (getSolverStatus(schoolId) != SolverStatus.NOT_SOLVING) {
+                throw new IllegalStateException("Cannot solve the time table of school (" + schoolId
+                        + ") while it is being solved or repaired.");
+            }
+            submitSolve(schoolId);
+        }
     }
 
-    public SolverStatus getSolverStatus() {
-        return solverManager.getSolverStatus(SINGLETON_TIME_TABLE_ID);
+    private void submitSolve(Long schoolId) {
+        Tags tags = Tags.of("schoolId", schoolId.toString());
+        Timer.Sample solveSample = Timer.start(meterRegistry);
+        BestSolutionPersister<TimeTable> bestSolutionPersister = getBestSolutionPersister(schoolId);
+        getSolverManager(schoolId).solveAndListen(schoolId,
+                id -> {
+                    solveSample.stop(meterRegistry.timer("timeTable.solve.queue", tags));
+                    TimeTable timeTable = findById(id);
+                    lessonAssignmentWriter.reset(timeTable);
+                    return timeTable;
+                },
+                bestSolutionPersister::submit,
+                finalBestSolution -> {
+                    bestSolutionPersister.submit(finalBestSolution);
+                    solveSample.stop(meterRegistry.timer("timeTable.solve.latency", tags));
+                },
+                (id, throwable) -> LOGGER.error("Solving the time table of school ({}) failed.", id, throwable));
+        solverManagerMetrics.solveSubmitted(schoolId);
+    }
+
+    /**
+     * Reassigns only the lessons that break a hard constraint, their neighbourhood and the unassigned lessons,
+     * for example after editing a few lessons, and keeps all the other lessons where they are.
+     * Much faster than solving the entire time table again.
+     */
+    @POST
+    @Path("repair")
+    public void repair(@QueryParam("schoolId") @DefaultValue("1") Long schoolId) {
+        synchronized (getSchoolLock(schoolId)) {
+            if (getSolverStatus(schoolId) != SolverStatus.NOT_SOLVING) {
+                throw new IllegalStateException("Cannot repair the time table of school (" + schoolId
+                        + ") while it is being solved or repaired.");
+            }
+            submitRepair(schoolId);
+        }
+    }
+
+    private void submitRepair(Long schoolId) {
+        Tags tags = Tags.of("schoolId", schoolId.toString());
+        Timer.Sample repairSample = Timer.start(meterRegistry);
+        BestSolutionPersister<TimeTable> bestSolutionPersister = getBestSolutionPersister(schoolId);
+        repairSolverManager.solveAndListen(schoolId,
+                id -> {
+                    TimeTable timeTable = findById(id);
+                    lessonAssignmentWriter.reset(timeTable);
+                    int unassignedLessonCount = TimeTableRepair.unassignConflictingLessons(timeTable,
+                            TimeTableRepair.findConflictingLessons(solutionManager.explain(timeTable)));
+                    LOGGER.info("Repairing the time table of school ({}) by reassigning {} of {} lessons.",
+                            id, unassignedLessonCount, timeTable.getLessonList().size());
+                    return timeTable;
+                },
+                bestSolutionPersister::submit,
+                finalBestSolution -> {
+                    bestSolutionPersister.submit(finalBestSolution);
+                    repairSample.stop(meterRegistry.timer("timeTable.repair.latency", tags));
+                },
+                (id, throwable) -> LOGGER.error("Repairing the time table of school ({}) failed.", id, throwable));
+        solverManagerMetrics.solveSubmitted(schoolId);
+    }
+
+    public SolverStatus getSolverStatus(Long schoolId) {
+        SolverStatus solverStatus = solverManager.getSolverStatus(schoolId);
+        if (solverStatus != SolverStatus.NOT_SOLVING) {
+            return solverStatus;
+        }
+        for (SolverManager<TimeTable, Long> tunedSolverManager : tunedSolverManagerMap.values()) {
+            solverStatus = tunedSolverManager.getSolverStatus(schoolId);
+            if (solverStatus != SolverStatus.NOT_SOLVING) {
+                return solverStatus;
+            }
+        }
+        return repairSolverManager.getSolverStatus(schoolId);
     }
 
     @POST
     @Path("stopSolving")
-    public void stopSolving() {
-        solverManager.terminateEarly(SINGLETON_TIME_TABLE_ID);
+    public void stopSolving(@QueryParam("schoolId") @DefaultValue("1") Long schoolId) {
+        solverManager.terminateEarly(schoolId);
+        tunedSolverManagerMap.values().forEach(tunedSolverManager -> tunedSolverManager.terminateEarly(schoolId));
+        repairSolverManager.terminateEarly(schoolId);
     }
 
-    @Transactional
-    protected TimeTable findById(Long id) {
-        if (!SINGLETON_TIME_TABLE_ID.equals(id)) {
-            throw new IllegalStateException("There is no timeTable with id (" + id + ").");
+    private SolverManager<TimeTable, Long> getSolverManager(Long schoolId) {
+        if (moveThreadCountTuner == null) {
+            return solverManager;
         }
-        // Occurs in a single transaction, so each initialized lesson references the same timeslot/room instance
-        // that is contained by the timeTable's timeslotList/roomList.
-        return new TimeTable(
-                timeslotRepository.listAll(Sort.by("dayOfWeek").and("startTime").and("endTime").and("id")),
-                roomRepository.listAll(Sort.by("name").and("id")),
-                lessonRepository.listAll(Sort.by("subject").and("teacher").and("studentGroup").and("id")));
+        // Doesn't wait for the calibration of the time table's size,
+        // but solves with the configured move thread count until it's done
+        OptionalInt moveThreadCount = moveThreadCountTuner.getMoveThreadCount(
+                (int) lessonRepository.count("schoolId", schoolId));
+        if (moveThreadCount.isEmpty()) {
+            return solverManager;
+        }
+        return tunedSolverManagerMap.computeIfAbsent(moveThreadCount.getAsInt(), count -> SolverManager.create(
+                SolverFactory.create(solverConfig.copyConfig()
+                        .withMoveThreadCount(MoveThreadCountTuner.toMoveThreadCountConfig(count))),
+                solverManagerConfig));
     }
 
-    @Transactional
-    protected void save(TimeTable timeTable) {
-        for (Lesson lesson : timeTable.getLessonList()) {
-            // TODO this is awfully naive: optimistic locking causes issues if called by the SolverManager
-            Lesson attachedLesson = lessonRepository.findById(lesson.getId());
-            attachedLesson.setTimeslot(lesson.getTimeslot());
-            attachedLesson.setRoom(lesson.getRoom());
+    private boolean isSolving() {
+        // Every school that has ever been solved or repaired has a lock
+        return schoolLockMap.keySet().stream()
+                .anyMatch(schoolId -> getSolverStatus(schoolId) != SolverStatus.NOT_SOLVING);
+    }
+
+    private Object getSchoolLock(Long schoolId) {
+        return schoolLockMap.computeIfAbsent(schoolId, id -> new Object());
+    }
+
+    /**
+     * Makes sure the best solution found so far is in the database.
+     */
+    private void flushBestSolution(Long schoolId) {
+        // Only solve and repair create a persister, so reading any school id doesn't create meters for it
+        BestSolutionPersister<TimeTable> bestSolutionPersister = bestSolutionPersisterMap.get(schoolId);
+        if (bestSolutionPersister != null) {
+            bestSolutionPersister.flush();
         }
     }
 
+    private BestSolutionPersister<TimeTable> getBestSolutionPersister(Long schoolId) {
+        return bestSolutionPersisterMap.computeIfAbsent(schoolId,
+                id -> new BestSolutionPersister<>("timeTable", Tags.of("schoolId", id.toString()),
+                        saveMinimumInterval, lessonAssignmentWriter::write, meterRegistry));
+    }
+
+    @Transactional
+    @Timed(value = "timeTable.findById", description = "Time spent loading a time table from the database")
+    protected TimeTable findById(Long schoolId) {
+        // Occurs in a single transaction, so each initialized lesson references the same timeslot/room instance
+        // that is contained by the timeTable's timeslotList/roomList.
+        return new TimeTable(schoolId,
+                timeslotRepository.listAllBySchoolId(schoolId),
+                roomRepository.listAllBySchoolId(schoolId),
+                studentGroupAvailabilityRepository.listAllBySchoolId(schoolId),
+                lessonRepository.listAllBySchoolId(schoolId));
+    }
+
 }
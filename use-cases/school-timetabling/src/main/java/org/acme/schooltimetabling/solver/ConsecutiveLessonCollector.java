@@ -0,0 +1,99 @@
+package org.acme.schooltimetabling.solver;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.Timeslot;
+import org.optaplanner.core.api.score.stream.uni.UniConstraintCollector;
+
+/**
+ * Counts the pairs of lessons in a group where the second lesson starts
+ * at most {@code maxGapMinutes} after the first lesson ends.
+ * <p>
+ * It gives the same result as joining every lesson with every other lesson of the group,
+ * but each lesson is added and removed incrementally
+ * by looking up the lessons that end just before it or start just after it,
+ * using the precomputed {@link Timeslot#getStartMinuteOfWeek()} and {@link Timeslot#getEndMinuteOfWeek()}.
+ */
+public class ConsecutiveLessonCollector
+        implements UniConstraintCollector<Lesson, ConsecutiveLessonCollector.ConsecutivePairCounter, Integer> {
+
+    private final int maxGapMinutes;
+
+    /**
+     * @param maxGapMinutes at least 0, the maximum number of minutes between 2 consecutive lessons
+     */
+    public ConsecutiveLessonCollector(int maxGapMinutes) {
+        this.maxGapMinutes = maxGapMinutes;
+    }
+
+    @Override
+    public Supplier<ConsecutivePairCounter> supplier() {
+        return () -> new ConsecutivePairCounter(maxGapMinutes);
+    }
+
+    @Override
+    public BiFunction<ConsecutivePairCounter, Lesson, Runnable> accumulator() {
+        return (counter, lesson) -> {
+            Timeslot timeslot = lesson.getTimeslot();
+            return counter.add(timeslot.getStartMinuteOfWeek(), timeslot.getEndMinuteOfWeek());
+        };
+    }
+
+    @Override
+    public Function<ConsecutivePairCounter, Integer> finisher() {
+        return ConsecutivePairCounter::getPairCount;
+    }
+
+    public static final class ConsecutivePairCounter {
+
+        private final int maxGapMinutes;
+        // Number of lessons per start minute and per end minute
+        private final NavigableMap<Integer, Integer> startMinuteCountMap = new TreeMap<>();
+        private final NavigableMap<Integer, Integer> endMinuteCountMap = new TreeMap<>();
+        private int pairCount = 0;
+
+        private ConsecutivePairCounter(int maxGapMinutes) {
+            this.maxGapMinutes = maxGapMinutes;
+        }
+
+        private Runnable add(int startMinute, int endMinute) {
+            pairCount += countConsecutive(startMinute, endMinute);
+            startMinuteCountMap.merge(startMinute, 1, Integer::sum);
+            endMinuteCountMap.merge(endMinute, 1, Integer::sum);
+            return () -> {
+                decrement(startMinuteCountMap, startMinute);
+                decrement(endMinuteCountMap, endMinute);
+                pairCount -= countConsecutive(startMinute, endMinute);
+            };
+        }
+
+        private int countConsecutive(int startMinute, int endMinute) {
+            // A lesson can't be consecutive to itself, because it ends after it starts
+            return sum(endMinuteCountMap.subMap(startMinute - maxGapMinutes, true, startMinute, true))
+                    + sum(startMinuteCountMap.subMap(endMinute, true, endMinute + maxGapMinutes, true));
+        }
+
+        private static int sum(NavigableMap<Integer, Integer> countMap) {
+            int sum = 0;
+            for (int count : countMap.values()) {
+                sum += count;
+            }
+            return sum;
+        }
+
+        private static void decrement(NavigableMap<Integer, Integer> countMap, int minute) {
+            countMap.computeIfPresent(minute, (key, count) -> count == 1 ? null : count - 1);
+        }
+
+        public int getPairCount() {
+            return pairCount;
+        }
+
+    }
+
+}
@@ -0,0 +1,244 @@
+package org.acme.schooltimetabling.solver;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import org.acme.schooltimetabling.bootstrap.TimeTableGenerator;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.SolverJob;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.monitoring.SolverMetric;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Picks the move thread count that gives the highest score calculation speed for a time table of a given size.
+ * <p>
+ * Whether extra move threads pay off depends on the number of CPU cores and on the size of the time table:
+ * on a small time table, the threads spend more time synchronizing than calculating scores.
+ * So the tuner runs a short calibration solve with 1, 2, 4 and 8 move threads,
+ * as far as there are CPU cores for them, after a warm up solve, and keeps the fastest one.
+ * It only picks more threads if they are at least 10% faster than fewer threads.
+ * <p>
+ * Time tables are bucketed by lesson count, rounded up to the next power of 2.
+ * Each bucket is calibrated once, on a generated time table with the lesson count of the first request for it,
+ * and cached.
+ * Calibrating runs in the background, one solve at a time, and waits while the solvers are busy,
+ * so it doesn't slow down the solves that are measured or that requested it.
+ * Until a bucket is calibrated, {@link #getMoveThreadCount(int)} returns nothing,
+ * so the caller uses its configured move thread count instead.
+ * <p>
+ * The score calculation count is read from the {@code optaplanner.solver.score.calculation.count} meter
+ * that the solver registers on the Micrometer global registry while solving.
+ */
+public class MoveThreadCountTuner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MoveThreadCountTuner.class);
+
+    private static final int[] CANDIDATE_MOVE_THREAD_COUNTS = { 1, 2, 4, 8 };
+    private static final double MINIMUM_SPEED_GAIN = 1.10;
+    private static final String CALIBRATION_PROBLEM_ID_PREFIX = "moveThreadCountCalibration-";
+    private static final Duration BUSY_POLL_INTERVAL = Duration.ofSeconds(1);
+
+    private final SolverConfig solverConfig;
+    private final Duration calibrationSpentLimit;
+    private final int availableProcessorCount;
+    private final BooleanSupplier busySupplier;
+    private final ExecutorService calibrationExecutor;
+    // The calibrated move thread count per size bucket, a calibration in progress is shared by concurrent callers
+    private final ConcurrentMap<Integer, CompletableFuture<Integer>> sizeBucketToMoveThreadCountMap =
+            new ConcurrentHashMap<>();
+
+    private final SimpleMeterRegistry calibrationMeterRegistry = new SimpleMeterRegistry();
+    // Completed by the solver thread of each calibration solve when it removes its meters
+    private final ConcurrentMap<String, CompletableFuture<Long>> problemIdToScoreCalculationCountMap =
+            new ConcurrentHashMap<>();
+    // Only used by the calibration thread
+    private long calibrationSolveCount = 0L;
+
+    /**
+     * @param solverConfig never null, the config to calibrate, its termination and move thread count are ignored
+     * @param calibrationSpentLimit never null, how long each calibration solve runs
+     * @param busySupplier never null, true while the solvers are busy, calibrating waits until it's false
+     */
+    public MoveThreadCountTuner(SolverConfig solverConfig, Duration calibrationSpentLimit,
+            BooleanSupplier busySupplier) {
+        this(solverConfig, calibrationSpentLimit, busySupplier, Runtime.getRuntime().availableProcessors());
+    }
+
+    MoveThreadCountTuner(SolverConfig solverConfig, Duration calibrationSpentLimit, BooleanSupplier busySupplier,
+            int availableProcessorCount) {
+        this.solverConfig = solverConfig;
+        this.calibrationSpentLimit = calibrationSpentLimit;
+        this.busySupplier = busySupplier;
+        this.availableProcessorCount = availableProcessorCount;
+        calibrationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "move-thread-count-calibration");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        // The solver removes its score calculation count gauge after solving, when the count is final
+        calibrationMeterRegistry.config().onMeterRemoved(this::scoreCalculationCountRemoved);
+        if (availableProcessorCount <= 2) {
+            // The solver thread needs a core too, so there's nothing to calibrate
+            LOGGER.info("Time tables are solved without move threads on {} CPU cores.", availableProcessorCount);
+        }
+    }
+
+    /**
+     * Starts calibrating the size bucket of the lesson count in the background,
+     * unless it's already calibrated or being calibrated. Does not block.
+     * @param lessonCount at least 0
+     * @return the calibrated move thread count, at least 1, 1 means no move threads,
+     *         or empty while the size bucket isn't calibrated yet
+     */
+    public OptionalInt getMoveThreadCount(int lessonCount) {
+        CompletableFuture<Integer> calibration = getCalibration(lessonCount);
+        if (!calibration.isDone() || calibration.isCompletedExceptionally()) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(calibration.join());
+    }
+
+    CompletableFuture<Integer> getCalibration(int lessonCount) {
+        if (availableProcessorCount <= 2) {
+            return CompletableFuture.completedFuture(1);
+        }
+        int sizeBucket = getSizeBucket(lessonCount);
+        CompletableFuture<Integer> newCalibration = new CompletableFuture<>();
+        CompletableFuture<Integer> calibration = sizeBucketToMoveThreadCountMap.putIfAbsent(sizeBucket,
+                newCalibration);
+        if (calibration != null) {
+            return calibration;
+        }
+        try {
+            calibrationExecutor.execute(() -> {
+                try {
+                    newCalibration.complete(calibrate(lessonCount));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    newCalibration.completeExceptionally(e);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Calibrating the move thread count for {} lessons failed.", lessonCount, e);
+                    // Don't cache a failure, the next caller tries again
+                    sizeBucketToMoveThreadCountMap.remove(sizeBucket, newCalibration);
+                    newCalibration.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Closed
+            newCalibration.completeExceptionally(e);
+        }
+        return newCalibration;
+    }
+
+    /**
+     * Stops calibrating. Later calls of {@link #getMoveThreadCount(int)} return nothing for uncalibrated sizes.
+     */
+    public void close() {
+        calibrationExecutor.shutdownNow();
+    }
+
+    /**
+     * @param moveThreadCount at least 1
+     * @return never null, {@link SolverConfig#MOVE_THREAD_COUNT_NONE} for 1
+     */
+    public static String toMoveThreadCountConfig(int moveThreadCount) {
+        return moveThreadCount == 1 ? SolverConfig.MOVE_THREAD_COUNT_NONE : Integer.toString(moveThreadCount);
+    }
+
+    /**
+     * @param lessonCount at least 0
+     * @return the base 2 logarithm of the lesson count, rounded up
+     */
+    static int getSizeBucket(int lessonCount) {
+        return lessonCount <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(lessonCount - 1);
+    }
+
+    private int calibrate(int lessonCount) throws InterruptedException {
+        TimeTable problem = new TimeTableGenerator(true).generate(Math.max(1, lessonCount));
+        // Warm up the JVM first, otherwise the first measurement is far too low
+        measureScoreCalculationSpeed(problem, 1);
+        int bestMoveThreadCount = 1;
+        long bestScoreCalculationSpeed = -1L;
+        for (int moveThreadCount : CANDIDATE_MOVE_THREAD_COUNTS) {
+            if (moveThreadCount >= availableProcessorCount) {
+                break;
+            }
+            long scoreCalculationSpeed = measureScoreCalculationSpeed(problem, moveThreadCount);
+            LOGGER.debug("Calibrating {} lessons with {} move threads: score calculation speed ({}/sec).",
+                    lessonCount, moveThreadCount, scoreCalculationSpeed);
+            if (scoreCalculationSpeed > bestScoreCalculationSpeed * MINIMUM_SPEED_GAIN) {
+                bestMoveThreadCount = moveThreadCount;
+                bestScoreCalculationSpeed = scoreCalculationSpeed;
+            }
+        }
+        LOGGER.info("Time tables of up to {} lessons are solved with {} move threads.",
+                1 << getSizeBucket(lessonCount), bestMoveThreadCount);
+        return bestMoveThreadCount;
+    }
+
+    private long measureScoreCalculationSpeed(TimeTable problem, int moveThreadCount) throws InterruptedException {
+        while (busySupplier.getAsBoolean()) {
+            TimeUnit.MILLISECONDS.sleep(BUSY_POLL_INTERVAL.toMillis());
+        }
+        SolverConfig calibrationSolverConfig = solverConfig.copyConfig()
+                .withMoveThreadCount(toMoveThreadCountConfig(moveThreadCount))
+                .withTerminationConfig(new TerminationConfig().withSpentLimit(calibrationSpentLimit));
+        String problemId = CALIBRATION_PROBLEM_ID_PREFIX + (++calibrationSolveCount);
+        CompletableFuture<Long> scoreCalculationCount = new CompletableFuture<>();
+        problemIdToScoreCalculationCountMap.put(problemId, scoreCalculationCount);
+        // Only mirror the global registry while calibrating, so other meters aren't slowed down the rest of the time
+        Metrics.addRegistry(calibrationMeterRegistry);
+        try (SolverManager<TimeTable, String> solverManager = SolverManager.create(
+                SolverFactory.create(calibrationSolverConfig))) {
+            // The input problem isn't changed, the solver works on a clone of it
+            SolverJob<TimeTable, String> solverJob = solverManager.solve(problemId, problem);
+            solverJob.getFinalBestSolution();
+            // Includes the scores calculated by the move threads
+            return scoreCalculationCount.get(1L, TimeUnit.MINUTES) * 1000L
+                    / Math.max(1L, solverJob.getSolvingDuration().toMillis());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The calibration solve (" + problemId + ") failed.", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("The calibration solve (" + problemId
+                    + ") didn't report its score calculation count.", e);
+        } finally {
+            Metrics.removeRegistry(calibrationMeterRegistry);
+            calibrationMeterRegistry.clear();
+            problemIdToScoreCalculationCountMap.remove(problemId);
+        }
+    }
+
+    private void scoreCalculationCountRemoved(Meter meter) {
+        Meter.Id id = meter.getId();
+        if (!(meter instanceof Gauge) || !id.getName().equals(SolverMetric.SCORE_CALCULATION_COUNT.getMeterId())) {
+            return;
+        }
+        String problemId = id.getTag("problem.id");
+        CompletableFuture<Long> scoreCalculationCount = problemId == null ? null
+                : problemIdToScoreCalculationCountMap.get(problemId);
+        if (scoreCalculationCount != null) {
+            scoreCalculationCount.complete((long) ((Gauge) meter).value());
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.acme.schooltimetabling.solver;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.api.solver.SolverStatus;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Reports the solve request queue depth of a {@link SolverManager} as a Micrometer gauge.
+ * <p>
+ * The solver itself reports the best score, the score calculation count and the other solver metrics
+ * listed in the {@code <monitoring>} element of {@code solverConfig.xml}, tagged by problem id,
+ * but the SolverManager doesn't report the solves that wait for a free solver thread.
+ * It doesn't expose its queue either, so the queue depth is the number of submitted problems
+ * that are still {@link SolverStatus#SOLVING_SCHEDULED}.
+ * @param <ProblemId_> the problem id type
+ */
+public class SolverManagerMetrics<ProblemId_> {
+
+    private final Function<ProblemId_, SolverStatus> solverStatusFunction;
+    // The problems that haven't been seen NOT_SOLVING since they were submitted
+    private final Set<ProblemId_> submittedProblemIdSet = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param name never null, used as the metrics tag
+     * @param solverStatusFunction never null, usually {@link SolverManager#getSolverStatus(Object)}
+     * @param meterRegistry never null
+     */
+    public SolverManagerMetrics(String name, Function<ProblemId_, SolverStatus> solverStatusFunction,
+            MeterRegistry meterRegistry) {
+        this.solverStatusFunction = solverStatusFunction;
+        Gauge.builder("optaplanner.solver.queue.depth", this, SolverManagerMetrics::getQueueDepth)
+                .description("Solve requests waiting for a free solver thread")
+                .tag("solution", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Call after the problem is submitted to the {@link SolverManager}, not before,
+     * otherwise it could be seen as already solved.
+     * @param problemId never null
+     */
+    public void solveSubmitted(ProblemId_ problemId) {
+        submittedProblemIdSet.add(problemId);
+    }
+
+    public int getQueueDepth() {
+        int queueDepth = 0;
+        for (Iterator<ProblemId_> it = submittedProblemIdSet.iterator(); it.hasNext();) {
+            SolverStatus solverStatus = solverStatusFunction.apply(it.next());
+            if (solverStatus == SolverStatus.NOT_SOLVING) {
+                it.remove();
+            } else if (solverStatus == SolverStatus.SOLVING_SCHEDULED) {
+                queueDepth++;
+            }
+        }
+        return queueDepth;
+    }
+
+}
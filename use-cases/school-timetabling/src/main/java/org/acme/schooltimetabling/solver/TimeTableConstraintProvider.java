@@ -1,28 +1,28 @@
 package org.acme.schooltimetabling.solver;
 
-import java.time.Duration;
-
+import org.acme.common.solver.ConstraintProfiler;
 import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.StudentGroupAvailability;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintCollectors;
 import org.optaplanner.core.api.score.stream.ConstraintFactory;
 import org.optaplanner.core.api.score.stream.ConstraintProvider;
 import org.optaplanner.core.api.score.stream.Joiners;
 
-import java.time.DayOfWeek;
-import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
-import org.acme.schooltimetabling.domain.Timeslot;
-import org.acme.schooltimetabling.domain.TimeTable;
-import java.util.stream.Collectors;
-import org.optaplanner.core.api.score.stream.ConstraintCollectors;
+public class TimeTableConstraintProvider implements ConstraintProvider {
 
+    private static final int MAX_MINUTES_BETWEEN_SEQUENTIAL_LESSONS = 30;
 
+    private final ConstraintProfiler profiler;
 
-public class TimeTableConstraintProvider implements ConstraintProvider {
+    public TimeTableConstraintProvider() {
+        this(ConstraintProfiler.create());
+    }
+
+    TimeTableConstraintProvider(ConstraintProfiler profiler) {
+        this.profiler = profiler;
+    }
 
     @Override
     public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
@@ -31,13 +31,14 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 roomConflict(constraintFactory),
                 teacherConflict(constraintFactory),
                 studentGroupConflict(constraintFactory),
+                roomCapacity(constraintFactory),
                 studentGroupSpecificTimeSlots(constraintFactory),
                 teacherOverlappingTimeslots(constraintFactory),
                 teacherMaxHours(constraintFactory),
                 // Soft constraints
-                // teacherRoomStability(constraintFactory),
-                // teacherTimeEfficiency(constraintFactory),
-                // studentGroupSubjectVariety(constraintFactory),
+                teacherRoomStability(constraintFactory),
+                teacherTimeEfficiency(constraintFactory),
+                studentGroupSubjectVariety(constraintFactory),
                 studentGroupRoomStability(constraintFactory)
         };
     }
@@ -76,40 +77,48 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .asConstraint("Student group conflict");
     }
 
+    Constraint roomCapacity(ConstraintFactory constraintFactory) {
+        // A room can accommodate at most its capacity of students.
+        return constraintFactory
+                .forEach(Lesson.class)
+                // The student group size is on the lesson, so no join is needed
+                .filter(profiler.filter("Room capacity",
+                        lesson -> lesson.getStudentGroupSize() > lesson.getRoom().getCapacity()))
+                .penalize(HardSoftScore.ONE_HARD, profiler.weigh("Room capacity",
+                        lesson -> lesson.getStudentGroupSize() - lesson.getRoom().getCapacity()))
+                .asConstraint("Room capacity");
+    }
+
     Constraint studentGroupRoomStability(ConstraintFactory constraintFactory) {
         // A student group should always stay in the same room.
         return constraintFactory
-                .forEachUniquePair(Lesson.class,
-                        Joiners.equal(Lesson::getStudentGroup))
-                .filter((lesson1, lesson2) -> lesson1.getRoom() != lesson2.getRoom())
-                .penalize(HardSoftScore.ONE_SOFT)
+                .forEach(Lesson.class)
+                .groupBy(Lesson::getStudentGroup, ConstraintCollectors.countDistinct(Lesson::getRoom))
+                .filter(profiler.filter("Student room stability", (studentGroup, roomCount) -> roomCount > 1))
+                .penalize(HardSoftScore.ONE_SOFT,
+                        profiler.weigh("Student room stability", (studentGroup, roomCount) -> roomCount - 1))
                 .asConstraint("Student room stability");
-    }   
-    
-    
+    }
+
     Constraint teacherRoomStability(ConstraintFactory constraintFactory) {
         // A teacher prefers to teach in a single room.
         return constraintFactory
-                .forEachUniquePair(Lesson.class,
-                        Joiners.equal(Lesson::getTeacher))
-                .filter((lesson1, lesson2) -> lesson1.getRoom() != lesson2.getRoom())
-                .penalize(HardSoftScore.ONE_SOFT)
+                .forEach(Lesson.class)
+                .groupBy(Lesson::getTeacher, ConstraintCollectors.countDistinct(Lesson::getRoom))
+                .filter(profiler.filter("Teacher room stability", (teacher, roomCount) -> roomCount > 1))
+                .penalize(HardSoftScore.ONE_SOFT,
+                        profiler.weigh("Teacher room stability", (teacher, roomCount) -> roomCount - 1))
                 .asConstraint("Teacher room stability");
     }
 
-
     Constraint teacherTimeEfficiency(ConstraintFactory constraintFactory) {
         // A teacher prefers to teach sequential lessons and dislikes gaps between lessons.
         return constraintFactory
                 .forEach(Lesson.class)
-                .join(Lesson.class, Joiners.equal(Lesson::getTeacher),
-                        Joiners.equal((lesson) -> lesson.getTimeslot().getDayOfWeek()))
-                .filter((lesson1, lesson2) -> {
-                    Duration between = Duration.between(lesson1.getTimeslot().getEndTime(),
-                            lesson2.getTimeslot().getStartTime());
-                    return !between.isNegative() && between.compareTo(Duration.ofMinutes(30)) <= 0;
-                })
-                .reward(HardSoftScore.ONE_SOFT)
+                .groupBy(Lesson::getTeacher, new ConsecutiveLessonCollector(MAX_MINUTES_BETWEEN_SEQUENTIAL_LESSONS))
+                .filter(profiler.filter("Teacher time efficiency", (teacher, sequentialPairCount) -> sequentialPairCount > 0))
+                .reward(HardSoftScore.ONE_SOFT, profiler.weigh("Teacher time efficiency",
+                        (teacher, sequentialPairCount) -> sequentialPairCount))
                 .asConstraint("Teacher time efficiency");
     }
 
@@ -117,124 +126,51 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
         // A student group dislikes sequential lessons on the same subject.
         return constraintFactory
                 .forEach(Lesson.class)
-                .join(Lesson.class,
-                        Joiners.equal(Lesson::getSubject),
-                        Joiners.equal(Lesson::getStudentGroup),
-                        Joiners.equal((lesson) -> lesson.getTimeslot().getDayOfWeek()))
-                .filter((lesson1, lesson2) -> {
-                    Duration between = Duration.between(lesson1.getTimeslot().getEndTime(),
-                            lesson2.getTimeslot().getStartTime());
-                    return !between.isNegative() && between.compareTo(Duration.ofMinutes(30)) <= 0;
-                })
-                .penalize(HardSoftScore.ONE_SOFT)
+                .groupBy(Lesson::getStudentGroup, Lesson::getSubject,
+                        new ConsecutiveLessonCollector(MAX_MINUTES_BETWEEN_SEQUENTIAL_LESSONS))
+                .filter(profiler.filter("Student group subject variety",
+                        (studentGroup, subject, sequentialPairCount) -> sequentialPairCount > 0))
+                .penalize(HardSoftScore.ONE_SOFT, profiler.weigh("Student group subject variety",
+                        (studentGroup, subject, sequentialPairCount) -> sequentialPairCount))
                 .asConstraint("Student group subject variety");
     }
 
     // custom constraints
     
-    // bound student groups to specific timeslots
     Constraint studentGroupSpecificTimeSlots(ConstraintFactory constraintFactory) {
-    return constraintFactory.forEach(Lesson.class)
-        .filter(lesson -> !isStudentGroupInAllowedTimeSlot(lesson))
-        .penalize("Student group specific time slots", HardSoftScore.ONE_HARD);
-        }
-        
-        boolean isStudentGroupInAllowedTimeSlot(Lesson lesson) {
-                // Get the allowed time slots for the student group
-                Set<String> allowedTimeSlots = getAllowedTimeSlotsForStudentGroup(lesson.getStudentGroup()).stream().map(Timeslot::toString).collect(Collectors.toSet());
-
-                return allowedTimeSlots.contains(lesson.getTimeslot().toString());
-        }
-
-        Set<Timeslot> getAllowedTimeSlotsForStudentGroup(String studentGroup) {
-                Set<Timeslot> allowedTimeSlots = new HashSet<>();
-                int startHour = 0;
-                int startMinute = 0;
-                int endHour = 0;
-                int endMinute = 0;
-
-                if (studentGroup.equals("3A")) {
-                        startHour = 9;
-                        startMinute = 0;
-                        endHour = 12;
-                        endMinute = 0;
-                } else if (studentGroup.equals("3B"))
-                {
-                       startHour = 14;
-                        startMinute = 30;
-                        endHour = 17;
-                        endMinute = 30; 
-                } else if (studentGroup.equals("3C"))
-                {
-                       startHour = 14;
-                        startMinute = 30;
-                        endHour = 17;
-                        endMinute = 30; 
-                } else if (studentGroup.equals("3D"))
-                {
-                       startHour = 17;
-                        startMinute = 30;
-                        endHour = 20;
-                        endMinute = 30; 
-                } else if (studentGroup.equals("3E"))
-                {
-                       startHour = 19;
-                        startMinute = 0;
-                        endHour = 22;
-                        endMinute = 0; 
-                }
-
-                allowedTimeSlots.add(new Timeslot(DayOfWeek.MONDAY, LocalTime.of(startHour, startMinute), LocalTime.of(endHour, endMinute)));
-                allowedTimeSlots.add(new Timeslot(DayOfWeek.TUESDAY, LocalTime.of(startHour, startMinute), LocalTime.of(endHour, endMinute)));
-                allowedTimeSlots.add(new Timeslot(DayOfWeek.WEDNESDAY, LocalTime.of(startHour, startMinute), LocalTime.of(endHour, endMinute)));
-                allowedTimeSlots.add(new Timeslot(DayOfWeek.THURSDAY, LocalTime.of(startHour, startMinute), LocalTime.of(endHour, endMinute)));
-
-                return allowedTimeSlots;
-        }
-
-        Constraint teacherOverlappingTimeslots(ConstraintFactory constraintFactory) {
-                // A teacher cannot have lessons in overlapping timeslots 
-                return constraintFactory
-                        .forEach(Lesson.class)
-                        .join(Lesson.class, Joiners.equal(Lesson::getTeacher),
-                                Joiners.equal((lesson) -> lesson.getTimeslot().getDayOfWeek()))
-                        .filter((lesson1, lesson2) -> {
-                                
-                                if (lesson1 == lesson2) {
-                                        return false;
-                                }
-
-                                Duration between = Duration.between(lesson1.getTimeslot().getStartTime(),
-                                        lesson2.getTimeslot().getStartTime());
-
-                                // swap lesson1 with lesson2 if necessary
-                                if (between.isNegative()) {
-                                        Lesson lesson1_copy = lesson1;
-                                        lesson1 = lesson2;
-                                        lesson2 = lesson1_copy;
-                                        lesson1_copy = null;
-                                }
-                                Duration timeBreak = Duration.between(lesson1.getTimeslot().getEndTime(),
-                                        lesson2.getTimeslot().getStartTime());
-                                return timeBreak.isNegative();
-                        })
-                        .penalize(HardSoftScore.ONE_HARD)
-                        .asConstraint("Teacher overlapping timeslots");
-                }
-
-                Constraint teacherMaxHours(ConstraintFactory constraintFactory) {
-                // A teacher cannot have lessons in overlapping timeslots 
-                return constraintFactory
-                        .forEach(Lesson.class)
-                        .groupBy(
-                                Lesson::getTeacher,
-                                lesson -> lesson.getTimeslot().getDayOfWeek(),
-                                ConstraintCollectors.sumDuration(lesson -> lesson.getTimeslot().getDuration())
-                        )
-               .filter((teacher, dayOfWeek, totalDuration) -> totalDuration.toHours() > 6 ) 
-                        .penalize(HardSoftScore.ONE_HARD)
-                        .asConstraint("Teacher max hours");
-                }
-        
+        // A student group with availabilities can only attend lessons in its available timeslots.
+        return constraintFactory
+                .forEach(Lesson.class)
+                .ifExists(StudentGroupAvailability.class,
+                        Joiners.equal(Lesson::getStudentGroup, StudentGroupAvailability::getStudentGroup))
+                .ifNotExists(StudentGroupAvailability.class,
+                        Joiners.equal(Lesson::getStudentGroup, StudentGroupAvailability::getStudentGroup),
+                        Joiners.equal(Lesson::getTimeslot, StudentGroupAvailability::getTimeslot))
+                .penalize(HardSoftScore.ONE_HARD)
+                .asConstraint("Student group specific time slots");
+    }
+
+    Constraint teacherOverlappingTimeslots(ConstraintFactory constraintFactory) {
+        // A teacher cannot have lessons in overlapping timeslots.
+        return constraintFactory
+                .forEachUniquePair(Lesson.class,
+                        Joiners.equal(Lesson::getTeacher),
+                        Joiners.overlapping(lesson -> lesson.getTimeslot().getStartMinuteOfWeek(),
+                                lesson -> lesson.getTimeslot().getEndMinuteOfWeek()))
+                .penalize(HardSoftScore.ONE_HARD)
+                .asConstraint("Teacher overlapping timeslots");
+    }
+
+    Constraint teacherMaxHours(ConstraintFactory constraintFactory) {
+        // A teacher cannot teach more than 6 hours a day.
+        return constraintFactory
+                .forEach(Lesson.class)
+                .groupBy(Lesson::getTeacher,
+                        lesson -> lesson.getTimeslot().getDayOfWeek(),
+                        ConstraintCollectors.sum(lesson -> lesson.getTimeslot().getDurationMinutes()))
+                .filter(profiler.filter("Teacher max hours", (teacher, dayOfWeek, totalMinutes) -> totalMinutes / 60 > 6))
+                .penalize(HardSoftScore.ONE_HARD)
+                .asConstraint("Teacher max hours");
+    }
 
 }
@@ -0,0 +1,91 @@
+package org.acme.schooltimetabling.solver;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.optaplanner.core.api.score.ScoreExplanation;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.score.constraint.Indictment;
+
+/**
+ * Prepares a time table that was changed by hand for a short repair run,
+ * instead of solving it again from scratch.
+ * <p>
+ * The lessons that break a hard constraint are unassigned, together with their neighbourhood:
+ * the lessons on the same day with the same teacher, student group or room.
+ * Lessons that aren't assigned yet, such as new lessons, are unassigned together with
+ * all the lessons with the same teacher or student group, because any day could fit them.
+ * All the other lessons are pinned, so the solver only has to reassign a small part of the time table.
+ */
+public final class TimeTableRepair {
+
+    private TimeTableRepair() {
+    }
+
+    /**
+     * @param scoreExplanation never null, of the time table to repair
+     * @return never null, the lessons that break at least 1 hard constraint
+     */
+    public static Set<Lesson> findConflictingLessons(ScoreExplanation<TimeTable, HardSoftScore> scoreExplanation) {
+        Set<Lesson> conflictingLessonSet = new HashSet<>();
+        for (Indictment<HardSoftScore> indictment : scoreExplanation.getIndictmentMap().values()) {
+            if (indictment.getIndictedObject() instanceof Lesson && indictment.getScore().hardScore() < 0) {
+                conflictingLessonSet.add((Lesson) indictment.getIndictedObject());
+            }
+        }
+        return conflictingLessonSet;
+    }
+
+    /**
+     * Unassigns the conflicting and unassigned lessons with their neighbourhood and pins all the other lessons.
+     * @param timeTable never null, changed in place
+     * @param conflictingLessons never null
+     * @return the number of lessons to reassign
+     */
+    public static int unassignConflictingLessons(TimeTable timeTable, Collection<Lesson> conflictingLessons) {
+        Set<Lesson> unassignedLessonSet = new HashSet<>();
+        for (Lesson lesson : timeTable.getLessonList()) {
+            if (lesson.getTimeslot() == null || lesson.getRoom() == null || conflictingLessons.contains(lesson)) {
+                unassignedLessonSet.add(lesson);
+            }
+        }
+        Set<Lesson> neighbourLessonSet = new HashSet<>();
+        for (Lesson lesson : timeTable.getLessonList()) {
+            if (lesson.getTimeslot() == null || unassignedLessonSet.contains(lesson)) {
+                continue;
+            }
+            for (Lesson unassignedLesson : unassignedLessonSet) {
+                if (isNeighbour(unassignedLesson, lesson)) {
+                    neighbourLessonSet.add(lesson);
+                    break;
+                }
+            }
+        }
+        unassignedLessonSet.addAll(neighbourLessonSet);
+        for (Lesson lesson : timeTable.getLessonList()) {
+            if (unassignedLessonSet.contains(lesson)) {
+                lesson.setTimeslot(null);
+                lesson.setRoom(null);
+                lesson.setPinned(false);
+            } else {
+                lesson.setPinned(true);
+            }
+        }
+        return unassignedLessonSet.size();
+    }
+
+    private static boolean isNeighbour(Lesson unassignedLesson, Lesson lesson) {
+        boolean sameTeacherOrStudentGroup = Objects.equals(unassignedLesson.getTeacher(), lesson.getTeacher())
+                || Objects.equals(unassignedLesson.getStudentGroup(), lesson.getStudentGroup());
+        if (unassignedLesson.getTimeslot() == null) {
+            return sameTeacherOrStudentGroup;
+        }
+        return unassignedLesson.getTimeslot().getDayOfWeek() == lesson.getTimeslot().getDayOfWeek()
+                && (sameTeacherOrStudentGroup || unassignedLesson.getRoom() == lesson.getRoom());
+    }
+
+}
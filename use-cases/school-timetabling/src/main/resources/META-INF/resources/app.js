@@ -69,6 +69,7 @@ function refreshTimeTable() {
       headerRowByRoom
         .append($("<th/>")
           .append($("<span/>").text(room.name))
+          .append($(`<small class="ml-1 text-muted"/>`).text(`(${room.capacity})`))
           .append($(`<button type="button" class="ml-2 mb-1 btn btn-light btn-sm p-1"/>`)
             .append($(`<small class="fas fa-trash"/>`)
             ).click(() => deleteRoom(room))));
@@ -150,7 +151,7 @@ function refreshTimeTable() {
           .append($(`<p class="card-text ml-2 mb-1"/>`)
             .append($(`<em/>`).text(`by ${lesson.teacher}`)))
           .append($(`<small class="ml-2 mt-1 card-text text-muted align-bottom float-right"/>`).text(lesson.id))
-          .append($(`<p class="card-text ml-2"/>`).text(lesson.studentGroup)));
+          .append($(`<p class="card-text ml-2"/>`).text(`${lesson.studentGroup} (${lesson.studentGroupSize})`)));
       const lessonElement = lessonElementWithoutDelete.clone();
       lessonElement.find(".card-body").prepend(
         $(`<button type="button" class="ml-2 btn btn-light btn-sm p-1 float-right"/>`)
@@ -212,7 +213,8 @@ function addLesson() {
   $.post("/lessons", JSON.stringify({
     "subject": subject,
     "teacher": $("#lesson_teacher").val().trim(),
-    "studentGroup": $("#lesson_studentGroup").val().trim()
+    "studentGroup": $("#lesson_studentGroup").val().trim(),
+    "studentGroupSize": parseInt($("#lesson_studentGroupSize").val())
   }), function () {
     refreshTimeTable();
   }).fail(function (xhr, ajaxOptions, thrownError) {
@@ -253,7 +255,8 @@ function deleteTimeslot(timeslot) {
 function addRoom() {
   var name = $("#room_name").val().trim();
   $.post("/rooms", JSON.stringify({
-    "name": name
+    "name": name,
+    "capacity": parseInt($("#room_capacity").val())
   }), function () {
     refreshTimeTable();
   }).fail(function (xhr, ajaxOptions, thrownError) {
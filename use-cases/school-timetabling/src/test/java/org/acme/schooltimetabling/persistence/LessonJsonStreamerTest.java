@@ -0,0 +1,76 @@
+package org.acme.schooltimetabling.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import jakarta.inject.Inject;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.Timeslot;
+import org.acme.schooltimetabling.persistence.LessonJsonStreamer.LessonField;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class LessonJsonStreamerTest {
+
+    private static final long SCHOOL_ID = 4L;
+
+    @Inject
+    LessonJsonStreamer lessonJsonStreamer;
+    @Inject
+    LessonRepository lessonRepository;
+    @Inject
+    TimeslotRepository timeslotRepository;
+    @Inject
+    ObjectMapper objectMapper;
+
+    @AfterEach
+    void deleteSchool() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            lessonRepository.delete("schoolId", SCHOOL_ID);
+            timeslotRepository.delete("schoolId", SCHOOL_ID);
+        });
+    }
+
+    @Test
+    void writeTheDayOfWeekThatHibernateStored() throws IOException {
+        // The streamer reads the stored ordinal with plain JDBC, so every day must come back as the same day
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                Timeslot timeslot = new Timeslot(dayOfWeek, LocalTime.of(8, 30), LocalTime.of(9, 30));
+                timeslot.setSchoolId(SCHOOL_ID);
+                timeslotRepository.persist(timeslot);
+                // The subject sorts the lessons by day
+                Lesson lesson = new Lesson("Subject " + dayOfWeek.getValue(), "Teacher", "Group");
+                lesson.setSchoolId(SCHOOL_ID);
+                lesson.setTimeslot(timeslot);
+                lessonRepository.persist(lesson);
+            }
+        });
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        lessonJsonStreamer.write(SCHOOL_ID, 0, 0, EnumSet.of(LessonField.TIMESLOT), outputStream);
+        JsonNode lessonArray = objectMapper.readTree(outputStream.toByteArray());
+        List<String> dayOfWeekList = StreamSupport.stream(lessonArray.spliterator(), false)
+                .map(lesson -> lesson.path("timeslot").path("dayOfWeek").asText())
+                .collect(Collectors.toList());
+        assertEquals(EnumSet.allOf(DayOfWeek.class).stream().map(DayOfWeek::name).collect(Collectors.toList()),
+                dayOfWeekList);
+    }
+
+}
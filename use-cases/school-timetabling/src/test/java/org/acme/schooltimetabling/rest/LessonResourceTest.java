@@ -3,18 +3,37 @@ package org.acme.schooltimetabling.rest;
 import static io.restassured.RestAssured.given;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 
+import jakarta.inject.Inject;
+
 import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.acme.schooltimetabling.domain.Timeslot;
+import org.acme.schooltimetabling.persistence.LessonAssignmentWriter;
+import org.acme.schooltimetabling.persistence.LessonRepository;
+import org.acme.schooltimetabling.persistence.TimeslotRepository;
 import org.junit.jupiter.api.Test;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 
 @QuarkusTest
 public class LessonResourceTest {
 
+    @Inject
+    LessonAssignmentWriter lessonAssignmentWriter;
+    @Inject
+    TimeslotRepository timeslotRepository;
+    @Inject
+    LessonRepository lessonRepository;
+
     @Test
     public void getAll() {
         List<Lesson> lessonList = given()
@@ -47,4 +66,36 @@ public class LessonResourceTest {
                 .statusCode(204);
     }
 
+    @Test
+    void updateIsOverwrittenByTheNextSave() {
+        // A school of its own, so no solve of the demo data interferes
+        long schoolId = 1001L;
+        Timeslot timeslot = new Timeslot(DayOfWeek.MONDAY, LocalTime.of(8, 30), LocalTime.of(9, 30));
+        timeslot.setSchoolId(schoolId);
+        Lesson lesson = new Lesson("Test subject", "Test teacher", "test studentGroup");
+        lesson.setSchoolId(schoolId);
+        QuarkusTransaction.requiringNew().run(() -> {
+            timeslotRepository.persist(timeslot);
+            lessonRepository.persist(lesson);
+        });
+        TimeTable timeTable = new TimeTable(schoolId, List.of(timeslot), new ArrayList<>(), new ArrayList<>(),
+                List.of(lesson));
+        lessonAssignmentWriter.reset(timeTable);
+
+        // The user assigns the lesson while the solver keeps it unassigned
+        lesson.setTimeslot(timeslot);
+        given()
+                .when()
+                .contentType(ContentType.JSON)
+                .body(lesson)
+                .put("/lessons/{id}", lesson.getId())
+                .then()
+                .statusCode(204);
+        lesson.setTimeslot(null);
+        lessonAssignmentWriter.write(timeTable);
+
+        assertNull(QuarkusTransaction.requiringNew().call(
+                () -> lessonRepository.findById(lesson.getId()).getTimeslot()));
+    }
+
 }
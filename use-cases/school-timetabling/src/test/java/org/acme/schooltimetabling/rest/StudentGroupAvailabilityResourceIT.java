@@ -0,0 +1,8 @@
+package org.acme.schooltimetabling.rest;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+@QuarkusIntegrationTest
+public class StudentGroupAvailabilityResourceIT extends StudentGroupAvailabilityResourceTest {
+
+}
@@ -0,0 +1,31 @@
+package org.acme.schooltimetabling.rest;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.List;
+
+import org.acme.schooltimetabling.domain.StudentGroupAvailability;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class StudentGroupAvailabilityResourceTest {
+
+    @Test
+    public void getAll() {
+        List<StudentGroupAvailability> studentGroupAvailabilityList = given()
+                .when().get("/studentGroupAvailabilities")
+                .then()
+                .statusCode(200)
+                .extract().body().jsonPath().getList(".", StudentGroupAvailability.class);
+        assertFalse(studentGroupAvailabilityList.isEmpty());
+        StudentGroupAvailability firstStudentGroupAvailability = studentGroupAvailabilityList.get(0);
+        assertEquals("3A", firstStudentGroupAvailability.getStudentGroup());
+        assertNotNull(firstStudentGroupAvailability.getTimeslot());
+    }
+
+}
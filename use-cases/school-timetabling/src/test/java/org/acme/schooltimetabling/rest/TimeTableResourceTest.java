@@ -3,10 +3,15 @@ package org.acme.schooltimetabling.rest;
 import static io.restassured.RestAssured.get;
 import static io.restassured.RestAssured.given;
 import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 
 import java.time.Duration;
@@ -42,4 +47,92 @@ public class TimeTableResourceTest {
                 .body("lessonList.timeslot", not(nullValue()))
                 .body("lessonList.room", not(nullValue()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void repairDemoData() {
+        given()
+                .contentType(ContentType.JSON)
+                .when().post("/timeTable/repair")
+                .then()
+                .statusCode(204);
+
+        await()
+                .atMost(Duration.ofMinutes(1))
+                .pollDelay(Duration.ofSeconds(1))
+                .pollInterval(Duration.ofSeconds(1))
+                .until(() -> SolverStatus.NOT_SOLVING.name().equals(get("/timeTable").body().path("solverStatus")));
+
+        get("/timeTable").then().assertThat()
+                .body("lessonList", is(not(empty())))
+                .body("lessonList.timeslot", everyItem(notNullValue()))
+                .body("lessonList.room", everyItem(notNullValue()));
+    }
+
+    @Test
+    public void metrics() {
+        given()
+                .contentType(ContentType.JSON)
+                .when().post("/timeTable/repair")
+                .then()
+                .statusCode(204);
+
+        await()
+                .atMost(Duration.ofMinutes(1))
+                .pollDelay(Duration.ofSeconds(1))
+                .pollInterval(Duration.ofSeconds(1))
+                .until(() -> SolverStatus.NOT_SOLVING.name().equals(get("/timeTable").body().path("solverStatus")));
+
+        // The solver metrics that are only registered while solving, such as the best score, are gone by now
+        get("/q/metrics").then().assertThat()
+                .statusCode(200)
+                .body(containsString("optaplanner_solver_errors_total"))
+                .body(containsString("optaplanner_solver_queue_depth{solution=\"timeTable\"}"))
+                .body(containsString("optaplanner_best_solution_received_total{schoolId=\"1\",solution=\"timeTable\"}"))
+                .body(containsString("timeTable_findById_seconds_count"))
+                .body(containsString("timeTable_save_seconds_count"));
+    }
+
+    @Test
+    public void getLessons() {
+        int lessonCount = get("/timeTable").body().path("lessonList.size()");
+        Object firstLessonSubject = get("/timeTable").body().path("lessonList[0].subject");
+
+        get("/timeTable/lessons").then().assertThat()
+                .body("", hasSize(lessonCount))
+                .body("[0].subject", equalTo(firstLessonSubject));
+        get("/timeTable/lessons?page=1&pageSize=5&fields=id,room").then().assertThat()
+                .body("", hasSize(5))
+                .body("", everyItem(hasKey("room")))
+                .body("", everyItem(not(hasKey("subject"))));
+    }
+
+    @Test
+    public void getLessonsWithBadParameters() {
+        get("/timeTable/lessons?page=-1&pageSize=5").then().assertThat()
+                .statusCode(400);
+        get("/timeTable/lessons?fields=id,colour").then().assertThat()
+                .statusCode(400);
+    }
+
+    @Test
+    public void getTimeTableOfOtherSchool() {
+        given()
+                .queryParam("schoolId", 2L)
+                .when().get("/timeTable")
+                .then().assertThat()
+                .body("schoolId", equalTo(2))
+                .body("timeslotList", is(empty()))
+                .body("roomList", is(empty()))
+                .body("lessonList", is(empty()));
+        given()
+                .queryParam("schoolId", 3L)
+                .when().get("/timeTable/lessons")
+                .then().assertThat()
+                .body("", is(empty()));
+
+        // Reading a school doesn't register meters for it, only solving or repairing it does
+        get("/q/metrics").then().assertThat()
+                .body(not(containsString("schoolId=\"2\"")))
+                .body(not(containsString("schoolId=\"3\"")));
+    }
+}
@@ -0,0 +1,26 @@
+package org.acme.schooltimetabling.solver;
+
+import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintFactory;
+
+/**
+ * The constraints without the teacher room stability, teacher time efficiency
+ * and student group subject variety soft constraints. Only used to benchmark against.
+ */
+public class BaselineTimeTableConstraintProvider extends TimeTableConstraintProvider {
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
+        return new Constraint[] {
+                roomConflict(constraintFactory),
+                teacherConflict(constraintFactory),
+                studentGroupConflict(constraintFactory),
+                roomCapacity(constraintFactory),
+                studentGroupSpecificTimeSlots(constraintFactory),
+                teacherOverlappingTimeslots(constraintFactory),
+                teacherMaxHours(constraintFactory),
+                studentGroupRoomStability(constraintFactory)
+        };
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.acme.schooltimetabling.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.acme.common.solver.ConstraintProfiler;
+import org.acme.common.solver.ConstraintProfiler.ConstraintProfile;
+import org.acme.schooltimetabling.bootstrap.TimeTableGenerator;
+import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.Room;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.acme.schooltimetabling.domain.Timeslot;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.stream.ConstraintProvider;
+import org.optaplanner.core.api.solver.SolutionManager;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+
+class ConstraintProfilerTest {
+
+    @Test
+    void profileEveryConstraintWithoutChangingTheScore() {
+        TimeTable solution = new TimeTableGenerator(true).generate(60);
+        // Any assignment will do, unassigned lessons aren't matched by any constraint
+        List<Timeslot> timeslotList = solution.getTimeslotList();
+        List<Room> roomList = solution.getRoomList();
+        for (int i = 0; i < solution.getLessonList().size(); i++) {
+            Lesson lesson = solution.getLessonList().get(i);
+            lesson.setTimeslot(timeslotList.get(i % timeslotList.size()));
+            lesson.setRoom(roomList.get(i % roomList.size()));
+        }
+        ConstraintProfiler.reset();
+
+        SolverFactory<TimeTable> profiledSolverFactory =
+                SolverFactory.create(createSolverConfig(ProfiledTimeTableConstraintProvider.class));
+        SolverFactory<TimeTable> solverFactory =
+                SolverFactory.create(createSolverConfig(TimeTableConstraintProvider.class));
+        assertEquals(SolutionManager.create(solverFactory).update(solution),
+                SolutionManager.create(profiledSolverFactory).update(solution));
+
+        Map<String, ConstraintProfile> profileMap = ConstraintProfiler.getProfiles().stream()
+                .collect(Collectors.toMap(ConstraintProfile::getConstraintName, Function.identity()));
+        // A filter on each lesson
+        assertTrue(profileMap.get("Room capacity").getCallCount() >= solution.getLessonList().size());
+        // Only joiners, no lambdas
+        assertFalse(profileMap.containsKey("Room conflict"));
+    }
+
+    private static SolverConfig createSolverConfig(Class<? extends ConstraintProvider> constraintProviderClass) {
+        return new SolverConfig()
+                .withSolutionClass(TimeTable.class)
+                .withEntityClasses(Lesson.class)
+                .withConstraintProviderClass(constraintProviderClass);
+    }
+
+    public static class ProfiledTimeTableConstraintProvider extends TimeTableConstraintProvider {
+
+        public ProfiledTimeTableConstraintProvider() {
+            super(ConstraintProfiler.create(true));
+        }
+
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.acme.schooltimetabling.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.config.solver.SolverConfig;
+
+class MoveThreadCountTunerTest {
+
+    private static final SolverConfig SOLVER_CONFIG = new SolverConfig()
+            .withSolutionClass(TimeTable.class)
+            .withEntityClasses(Lesson.class)
+            .withConstraintProviderClass(TimeTableConstraintProvider.class);
+
+    @Test
+    void sizeBucket() {
+        assertEquals(0, MoveThreadCountTuner.getSizeBucket(0));
+        assertEquals(0, MoveThreadCountTuner.getSizeBucket(1));
+        assertEquals(1, MoveThreadCountTuner.getSizeBucket(2));
+        assertEquals(7, MoveThreadCountTuner.getSizeBucket(100));
+        assertEquals(7, MoveThreadCountTuner.getSizeBucket(128));
+        assertEquals(8, MoveThreadCountTuner.getSizeBucket(129));
+        assertEquals(11, MoveThreadCountTuner.getSizeBucket(2000));
+    }
+
+    @Test
+    void noMoveThreadsWithoutSpareCores() {
+        MoveThreadCountTuner tuner = new MoveThreadCountTuner(SOLVER_CONFIG, Duration.ofHours(1), () -> false, 2);
+        // Returns without calibrating, or the 1 hour calibration would time out the test
+        assertEquals(OptionalInt.of(1), tuner.getMoveThreadCount(2000));
+        tuner.close();
+    }
+
+    @Test
+    void calibrateOncePerSizeBucketInTheBackground() {
+        MoveThreadCountTuner tuner = new MoveThreadCountTuner(SOLVER_CONFIG, Duration.ofMillis(500), () -> false, 4);
+        // Doesn't wait for the calibration
+        assertEquals(OptionalInt.empty(), tuner.getMoveThreadCount(50));
+        int moveThreadCount = tuner.getCalibration(50).join();
+        assertTrue(moveThreadCount == 1 || moveThreadCount == 2, "Unexpected moveThreadCount " + moveThreadCount);
+        // Same size bucket as 50 lessons
+        assertEquals(OptionalInt.of(moveThreadCount), tuner.getMoveThreadCount(40));
+        tuner.close();
+    }
+
+    @Test
+    void waitWhileBusy() throws InterruptedException {
+        AtomicBoolean busy = new AtomicBoolean(true);
+        MoveThreadCountTuner tuner = new MoveThreadCountTuner(SOLVER_CONFIG, Duration.ofMillis(100), busy::get, 4);
+        CompletableFuture<Integer> calibration = tuner.getCalibration(20);
+        Thread.sleep(1500L);
+        assertFalse(calibration.isDone());
+        busy.set(false);
+        assertTrue(calibration.join() >= 1);
+        tuner.close();
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.acme.schooltimetabling.solver;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintFactory;
+import org.optaplanner.core.api.score.stream.Joiners;
+
+/**
+ * The teacher and student group soft constraints as they were formulated before,
+ * by matching every pair of lessons. Only used to benchmark against.
+ */
+public class PairwiseTimeTableConstraintProvider extends TimeTableConstraintProvider {
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
+        return new Constraint[] {
+                roomConflict(constraintFactory),
+                teacherConflict(constraintFactory),
+                studentGroupConflict(constraintFactory),
+                roomCapacity(constraintFactory),
+                studentGroupSpecificTimeSlots(constraintFactory),
+                teacherOverlappingTimeslots(constraintFactory),
+                teacherMaxHours(constraintFactory),
+                pairwiseTeacherRoomStability(constraintFactory),
+                pairwiseTeacherTimeEfficiency(constraintFactory),
+                pairwiseStudentGroupSubjectVariety(constraintFactory),
+                studentGroupRoomStability(constraintFactory)
+        };
+    }
+
+    Constraint pairwiseTeacherRoomStability(ConstraintFactory constraintFactory) {
+        return constraintFactory
+                .forEachUniquePair(Lesson.class,
+                        Joiners.equal(Lesson::getTeacher))
+                .filter((lesson1, lesson2) -> lesson1.getRoom() != lesson2.getRoom())
+                .penalize(HardSoftScore.ONE_SOFT)
+                .asConstraint("Teacher room stability");
+    }
+
+    Constraint pairwiseTeacherTimeEfficiency(ConstraintFactory constraintFactory) {
+        return constraintFactory
+                .forEach(Lesson.class)
+                .join(Lesson.class, Joiners.equal(Lesson::getTeacher),
+                        Joiners.equal((lesson) -> lesson.getTimeslot().getDayOfWeek()))
+                .filter((lesson1, lesson2) -> {
+                    int minutesBetween = lesson2.getTimeslot().getStartMinuteOfWeek()
+                            - lesson1.getTimeslot().getEndMinuteOfWeek();
+                    return minutesBetween >= 0 && minutesBetween <= 30;
+                })
+                .reward(HardSoftScore.ONE_SOFT)
+                .asConstraint("Teacher time efficiency");
+    }
+
+    Constraint pairwiseStudentGroupSubjectVariety(ConstraintFactory constraintFactory) {
+        return constraintFactory
+                .forEach(Lesson.class)
+                .join(Lesson.class,
+                        Joiners.equal(Lesson::getSubject),
+                        Joiners.equal(Lesson::getStudentGroup),
+                        Joiners.equal((lesson) -> lesson.getTimeslot().getDayOfWeek()))
+                .filter((lesson1, lesson2) -> {
+                    int minutesBetween = lesson2.getTimeslot().getStartMinuteOfWeek()
+                            - lesson1.getTimeslot().getEndMinuteOfWeek();
+                    return minutesBetween >= 0 && minutesBetween <= 30;
+                })
+                .penalize(HardSoftScore.ONE_SOFT)
+                .asConstraint("Student group subject variety");
+    }
+
+}
@@ -2,6 +2,7 @@ package org.acme.schooltimetabling.solver;
 
 import jakarta.inject.Inject;
 
+import org.acme.schooltimetabling.domain.TimeTable;
 import org.acme.schooltimetabling.rest.TimeTableResource;
 import org.junit.jupiter.api.Test;
 import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
@@ -19,7 +20,7 @@ public class TimeTableBenchmarkTest {
 
     @Test
     public void benchmark() {
-        benchmarkFactory.buildPlannerBenchmark(timeTableResource.getTimeTable())
+        benchmarkFactory.buildPlannerBenchmark(timeTableResource.getTimeTable(TimeTable.DEFAULT_SCHOOL_ID))
                 .benchmark();
     }
 }
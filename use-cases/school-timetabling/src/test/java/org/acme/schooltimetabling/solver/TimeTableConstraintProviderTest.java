@@ -7,6 +7,7 @@ import jakarta.inject.Inject;
 
 import org.acme.schooltimetabling.domain.Lesson;
 import org.acme.schooltimetabling.domain.Room;
+import org.acme.schooltimetabling.domain.StudentGroupAvailability;
 import org.acme.schooltimetabling.domain.TimeTable;
 import org.acme.schooltimetabling.domain.Timeslot;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,7 @@ class TimeTableConstraintProviderTest {
     private static final Timeslot TIMESLOT2 = new Timeslot(2, DayOfWeek.TUESDAY, LocalTime.NOON);
     private static final Timeslot TIMESLOT3 = new Timeslot(3, DayOfWeek.TUESDAY, LocalTime.NOON.plusHours(1));
     private static final Timeslot TIMESLOT4 = new Timeslot(4, DayOfWeek.TUESDAY, LocalTime.NOON.plusHours(3));
+    private static final Timeslot TIMESLOT5 = new Timeslot(5, DayOfWeek.TUESDAY, LocalTime.NOON.plusMinutes(30));
 
     @Inject
     ConstraintVerifier<TimeTableConstraintProvider, TimeTable> constraintVerifier;
@@ -59,6 +61,29 @@ class TimeTableConstraintProviderTest {
                 .penalizesBy(1);
     }
 
+    @Test
+    void roomCapacity() {
+        Room smallRoom = new Room(3, "Small room", 20);
+        Lesson lessonThatFits = new Lesson(1, "Subject1", "Teacher1", "Group1", 20, TIMESLOT1, smallRoom);
+        Lesson lessonTooLarge = new Lesson(2, "Subject2", "Teacher2", "Group2", 23, TIMESLOT2, smallRoom);
+        Lesson lessonInLargeRoom = new Lesson(3, "Subject3", "Teacher3", "Group2", 23, TIMESLOT3, ROOM1);
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::roomCapacity)
+                .given(lessonThatFits, lessonTooLarge, lessonInLargeRoom)
+                .penalizesBy(3); // 3 students too many.
+    }
+
+    @Test
+    void studentGroupRoomStability() {
+        String studentGroup = "Group1";
+        Lesson lessonInFirstRoom = new Lesson(1, "Subject1", "Teacher1", studentGroup, TIMESLOT1, ROOM1);
+        Lesson lessonInSameRoom = new Lesson(2, "Subject2", "Teacher2", studentGroup, TIMESLOT2, ROOM1);
+        Lesson lessonInDifferentRoom = new Lesson(3, "Subject3", "Teacher3", studentGroup, TIMESLOT3, ROOM2);
+        Lesson lessonOfAnotherGroup = new Lesson(4, "Subject4", "Teacher4", "Group2", TIMESLOT1, ROOM2);
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::studentGroupRoomStability)
+                .given(lessonInFirstRoom, lessonInSameRoom, lessonInDifferentRoom, lessonOfAnotherGroup)
+                .penalizesBy(1); // The student group uses 1 room too many.
+    }
+
     @Test
     void teacherRoomStability() {
         String teacher = "Teacher1";
@@ -67,7 +92,7 @@ class TimeTableConstraintProviderTest {
         Lesson lessonInDifferentRoom = new Lesson(3, "Subject3", teacher, "Group3", TIMESLOT1, ROOM2);
         constraintVerifier.verifyThat(TimeTableConstraintProvider::teacherRoomStability)
                 .given(lessonInFirstRoom, lessonInDifferentRoom, lessonInSameRoom)
-                .penalizesBy(2);
+                .penalizesBy(1); // The teacher teaches in 1 room too many.
     }
 
     @Test
@@ -82,6 +107,18 @@ class TimeTableConstraintProviderTest {
                 .rewardsWith(1); // Second tuesday lesson immediately follows the first.
     }
 
+    @Test
+    void teacherTimeEfficiencyWithOverlappingTimeslot() {
+        String teacher = "Teacher1";
+        Lesson firstTuesdayLesson = new Lesson(1, "Subject1", teacher, "Group1", TIMESLOT2, ROOM1);
+        Lesson secondTuesdayLesson = new Lesson(2, "Subject2", teacher, "Group2", TIMESLOT3, ROOM1);
+        Lesson secondTuesdayLessonInOtherRoom = new Lesson(3, "Subject3", teacher, "Group3", TIMESLOT3, ROOM2);
+        Lesson overlappingLesson = new Lesson(4, "Subject4", teacher, "Group4", TIMESLOT5, ROOM1);
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::teacherTimeEfficiency)
+                .given(firstTuesdayLesson, secondTuesdayLesson, secondTuesdayLessonInOtherRoom, overlappingLesson)
+                .rewardsWith(2); // Both second tuesday lessons immediately follow the first.
+    }
+
     @Test
     void studentGroupSubjectVariety() {
         String studentGroup = "Group1";
@@ -97,4 +134,29 @@ class TimeTableConstraintProviderTest {
                 .penalizesBy(1); // Second tuesday lesson immediately follows the first.
     }
 
+    @Test
+    void studentGroupSpecificTimeSlots() {
+        StudentGroupAvailability availability1 = new StudentGroupAvailability(1, "Group1", TIMESLOT1);
+        StudentGroupAvailability availability2 = new StudentGroupAvailability(2, "Group1", TIMESLOT2);
+        Lesson availableLesson = new Lesson(1, "Subject1", "Teacher1", "Group1", TIMESLOT1, ROOM1);
+        Lesson unavailableLesson = new Lesson(2, "Subject2", "Teacher2", "Group1", TIMESLOT3, ROOM1);
+        Lesson lessonInUnrestrictedGroup = new Lesson(3, "Subject3", "Teacher3", "Group2", TIMESLOT3, ROOM1);
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::studentGroupSpecificTimeSlots)
+                .given(availability1, availability2, availableLesson, unavailableLesson, lessonInUnrestrictedGroup)
+                .penalizesBy(1);
+    }
+
+    @Test
+    void teacherOverlappingTimeslots() {
+        String teacher = "Teacher1";
+        Lesson firstTuesdayLesson = new Lesson(1, "Subject1", teacher, "Group1", TIMESLOT2, ROOM1);
+        Lesson secondTuesdayLesson = new Lesson(2, "Subject2", teacher, "Group2", TIMESLOT3, ROOM1);
+        Lesson overlappingLesson = new Lesson(3, "Subject3", teacher, "Group3", TIMESLOT5, ROOM1);
+        Lesson mondayLesson = new Lesson(4, "Subject4", teacher, "Group4", TIMESLOT1, ROOM1);
+        Lesson lessonOfAnotherTeacher = new Lesson(5, "Subject5", "Teacher2", "Group5", TIMESLOT5, ROOM1);
+        constraintVerifier.verifyThat(TimeTableConstraintProvider::teacherOverlappingTimeslots)
+                .given(firstTuesdayLesson, secondTuesdayLesson, overlappingLesson, mondayLesson, lessonOfAnotherTeacher)
+                .penalizesBy(2); // The overlapping lesson overlaps both the first and the second tuesday lesson.
+    }
+
 }
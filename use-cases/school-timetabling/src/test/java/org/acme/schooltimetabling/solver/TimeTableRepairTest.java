@@ -0,0 +1,80 @@
+package org.acme.schooltimetabling.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.Room;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.acme.schooltimetabling.domain.Timeslot;
+import org.junit.jupiter.api.Test;
+
+class TimeTableRepairTest {
+
+    private static final Room ROOM1 = new Room(1, "Room1");
+    private static final Room ROOM2 = new Room(2, "Room2");
+    private static final Timeslot MONDAY1 = new Timeslot(1, DayOfWeek.MONDAY, LocalTime.of(9, 0));
+    private static final Timeslot MONDAY2 = new Timeslot(2, DayOfWeek.MONDAY, LocalTime.of(10, 0));
+    private static final Timeslot TUESDAY1 = new Timeslot(3, DayOfWeek.TUESDAY, LocalTime.of(9, 0));
+
+    @Test
+    void unassignConflictingLessonsAndTheirNeighbourhood() {
+        Lesson conflictingLesson = new Lesson(1, "Subject1", "Teacher1", "Group1", MONDAY1, ROOM1);
+        Lesson sameTeacherSameDay = new Lesson(2, "Subject2", "Teacher1", "Group2", MONDAY2, ROOM2);
+        Lesson sameRoomSameDay = new Lesson(3, "Subject3", "Teacher3", "Group3", MONDAY2, ROOM1);
+        Lesson sameTeacherOtherDay = new Lesson(4, "Subject4", "Teacher1", "Group4", TUESDAY1, ROOM2);
+        Lesson unrelatedSameDay = new Lesson(5, "Subject5", "Teacher5", "Group5", MONDAY1, ROOM2);
+        TimeTable timeTable = createTimeTable(List.of(conflictingLesson, sameTeacherSameDay, sameRoomSameDay,
+                sameTeacherOtherDay, unrelatedSameDay));
+
+        int unassignedLessonCount = TimeTableRepair.unassignConflictingLessons(timeTable, List.of(conflictingLesson));
+
+        assertEquals(3, unassignedLessonCount);
+        assertUnassigned(conflictingLesson);
+        assertUnassigned(sameTeacherSameDay);
+        assertUnassigned(sameRoomSameDay);
+        assertPinned(sameTeacherOtherDay, TUESDAY1);
+        assertPinned(unrelatedSameDay, MONDAY1);
+    }
+
+    @Test
+    void unassignNewLessonsWithTheLessonsOfTheirTeacherAndStudentGroup() {
+        Lesson newLesson = new Lesson(1, "Subject1", "Teacher1", "Group1", null, null);
+        Lesson sameTeacher = new Lesson(2, "Subject2", "Teacher1", "Group2", TUESDAY1, ROOM2);
+        Lesson sameStudentGroup = new Lesson(3, "Subject3", "Teacher3", "Group1", MONDAY2, ROOM1);
+        Lesson unrelated = new Lesson(4, "Subject4", "Teacher4", "Group4", MONDAY1, ROOM1);
+        TimeTable timeTable = createTimeTable(List.of(newLesson, sameTeacher, sameStudentGroup, unrelated));
+
+        int unassignedLessonCount = TimeTableRepair.unassignConflictingLessons(timeTable, Collections.emptyList());
+
+        assertEquals(3, unassignedLessonCount);
+        assertUnassigned(newLesson);
+        assertUnassigned(sameTeacher);
+        assertUnassigned(sameStudentGroup);
+        assertPinned(unrelated, MONDAY1);
+    }
+
+    private static TimeTable createTimeTable(List<Lesson> lessonList) {
+        return new TimeTable(List.of(MONDAY1, MONDAY2, TUESDAY1), List.of(ROOM1, ROOM2), lessonList);
+    }
+
+    private static void assertUnassigned(Lesson lesson) {
+        assertNull(lesson.getTimeslot());
+        assertNull(lesson.getRoom());
+        assertFalse(lesson.isPinned());
+    }
+
+    private static void assertPinned(Lesson lesson, Timeslot timeslot) {
+        assertSame(timeslot, lesson.getTimeslot());
+        assertTrue(lesson.isPinned());
+    }
+
+}
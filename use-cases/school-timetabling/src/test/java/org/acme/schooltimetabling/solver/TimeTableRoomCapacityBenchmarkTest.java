@@ -0,0 +1,30 @@
+package org.acme.schooltimetabling.solver;
+
+import java.util.Arrays;
+
+import org.acme.schooltimetabling.bootstrap.TimeTableGenerator;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+
+/**
+ * Takes about 5 minutes, so it only runs on demand:
+ * {@code mvn test -Dtest=TimeTableRoomCapacityBenchmarkTest -Dbenchmark.roomCapacity=true}.
+ * The HTML report is written to {@code target/benchmarks/roomCapacity}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.roomCapacity", matches = "true")
+public class TimeTableRoomCapacityBenchmarkTest {
+
+    @Test
+    public void benchmark() {
+        TimeTableGenerator generator = new TimeTableGenerator(true);
+        TimeTable[] timeTables = Arrays.stream(System.getProperty("benchmark.roomCapacity.lessonCounts", "2000")
+                .split(","))
+                .map(lessonCount -> generator.generate(Integer.parseInt(lessonCount.trim())))
+                .toArray(TimeTable[]::new);
+        PlannerBenchmarkFactory.createFromXmlResource("timeTableRoomCapacityBenchmarkConfig.xml")
+                .buildPlannerBenchmark(timeTables)
+                .benchmark();
+    }
+}
@@ -0,0 +1,30 @@
+package org.acme.schooltimetabling.solver;
+
+import java.util.Arrays;
+
+import org.acme.schooltimetabling.bootstrap.TimeTableGenerator;
+import org.acme.schooltimetabling.domain.TimeTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+
+/**
+ * Takes about 15 minutes, so it only runs on demand:
+ * {@code mvn test -Dtest=TimeTableSoftConstraintBenchmarkTest -Dbenchmark.softConstraints=true}.
+ * The HTML report is written to {@code target/benchmarks/softConstraints}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.softConstraints", matches = "true")
+public class TimeTableSoftConstraintBenchmarkTest {
+
+    @Test
+    public void benchmark() {
+        TimeTableGenerator generator = new TimeTableGenerator(true);
+        TimeTable[] timeTables = Arrays.stream(System.getProperty("benchmark.softConstraints.lessonCounts", "200,2000")
+                .split(","))
+                .map(lessonCount -> generator.generate(Integer.parseInt(lessonCount.trim())))
+                .toArray(TimeTable[]::new);
+        PlannerBenchmarkFactory.createFromXmlResource("timeTableSoftConstraintBenchmarkConfig.xml")
+                .buildPlannerBenchmark(timeTables)
+                .benchmark();
+    }
+}
@@ -0,0 +1,40 @@
+package org.acme.schooltimetabling.solver;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintFactory;
+import org.optaplanner.core.api.score.stream.Joiners;
+
+/**
+ * The constraints as they were before room capacities: without the room capacity constraint
+ * and with the student room stability formulated by matching every pair of lessons. Only used to benchmark against.
+ */
+public class WithoutRoomCapacityTimeTableConstraintProvider extends TimeTableConstraintProvider {
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
+        return new Constraint[] {
+                roomConflict(constraintFactory),
+                teacherConflict(constraintFactory),
+                studentGroupConflict(constraintFactory),
+                studentGroupSpecificTimeSlots(constraintFactory),
+                teacherOverlappingTimeslots(constraintFactory),
+                teacherMaxHours(constraintFactory),
+                teacherRoomStability(constraintFactory),
+                teacherTimeEfficiency(constraintFactory),
+                studentGroupSubjectVariety(constraintFactory),
+                pairwiseStudentGroupRoomStability(constraintFactory)
+        };
+    }
+
+    Constraint pairwiseStudentGroupRoomStability(ConstraintFactory constraintFactory) {
+        return constraintFactory
+                .forEachUniquePair(Lesson.class,
+                        Joiners.equal(Lesson::getStudentGroup))
+                .filter((lesson1, lesson2) -> lesson1.getRoom() != lesson2.getRoom())
+                .penalize(HardSoftScore.ONE_SOFT)
+                .asConstraint("Student room stability");
+    }
+
+}
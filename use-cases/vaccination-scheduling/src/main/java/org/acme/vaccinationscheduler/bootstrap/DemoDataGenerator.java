@@ -4,6 +4,8 @@ import static java.time.temporal.ChronoUnit.DAYS;
 import static java.time.temporal.ChronoUnit.HOURS;
 import static java.time.temporal.ChronoUnit.YEARS;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -14,6 +16,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 import java.util.stream.Collectors;
 
@@ -27,6 +30,7 @@ import org.acme.vaccinationscheduler.domain.Person;
 import org.acme.vaccinationscheduler.domain.VaccinationCenter;
 import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
 import org.acme.vaccinationscheduler.domain.VaccineType;
+import org.acme.vaccinationscheduler.persistence.VaccinationScheduleCsvIO;
 import org.acme.vaccinationscheduler.persistence.VaccinationScheduleRepository;
 import org.acme.vaccinationscheduler.solver.geo.DistanceCalculator;
 import org.acme.vaccinationscheduler.solver.geo.EuclideanDistanceCalculator;
@@ -58,6 +62,9 @@ public class DemoDataGenerator {
     int vaccinationCenterCount;
     @ConfigProperty(name = "demo-data.total-booth-count", defaultValue = "5")
     int totalBoothCount;
+    // Imports the CSV files in this directory instead of generating a dataset
+    @ConfigProperty(name = "vaccination-schedule.import-directory")
+    Optional<String> importDirectory;
 
     // Default latitude and longitude window: city of Atlanta, US.
     @ConfigProperty(name = "demo-data.map.minimum-latitude", defaultValue = "33.40")
@@ -83,9 +90,26 @@ public class DemoDataGenerator {
     VaccinationScheduleRepository vaccinationScheduleRepository;
 
     public void startup(@Observes StartupEvent startupEvent) {
+        if (importDirectory.isPresent()) {
+            vaccinationScheduleRepository.save(importSchedule(Path.of(importDirectory.get())));
+            return;
+        }
         vaccinationScheduleRepository.save(generate(vaccinationCenterCount, totalBoothCount, 0.0));
     }
 
+    private VaccinationSchedule importSchedule(Path directory) {
+        VaccinationSchedule schedule;
+        try {
+            schedule = new VaccinationScheduleCsvIO().read(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed importing the CSV files of directory (" + directory + ").", e);
+        }
+        logger.info("Imported dataset with {} appointments and {} persons.",
+                schedule.getAppointmentList().size(),
+                schedule.getPersonList().size());
+        return schedule;
+    }
+
     public VaccinationSchedule generate(int vaccinationCenterCount, int totalBoothCount, double pinnedAppointmentRatio) {
         Random random = new Random(17);
         LocalDate windowStartDate = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
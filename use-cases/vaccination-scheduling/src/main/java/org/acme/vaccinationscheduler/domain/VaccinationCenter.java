@@ -1,6 +1,7 @@
 package org.acme.vaccinationscheduler.domain;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class,
@@ -12,6 +13,14 @@ public class VaccinationCenter {
     private String name;
     private Location location;
 
+    /**
+     * Only used by OptaPlanner: the index in the vaccination center list of the solution,
+     * to look up distances in an array instead of a map.
+     * Set by {@link org.acme.vaccinationscheduler.domain.solver.VaccinationSolution}.
+     */
+    @JsonIgnore
+    private int index = -1;
+
     // No-arg constructor required for Jackson
     public VaccinationCenter() {}
 
@@ -21,6 +30,12 @@ public class VaccinationCenter {
         this.location = location;
     }
 
+    /** For testing purposes only */
+    public VaccinationCenter(String id, String name, Location location, int index) {
+        this(id, name, location);
+        this.index = index;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -42,4 +57,12 @@ public class VaccinationCenter {
         return location;
     }
 
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
 }
@@ -1,9 +1,7 @@
 package org.acme.vaccinationscheduler.domain.solver;
 
-import static java.time.temporal.ChronoUnit.YEARS;
-
 import java.time.LocalDate;
-import java.util.Map;
+import java.util.List;
 
 import org.acme.vaccinationscheduler.domain.Appointment;
 import org.acme.vaccinationscheduler.domain.Location;
@@ -15,15 +13,28 @@ import org.acme.vaccinationscheduler.solver.PersonAssignmentDifficultyComparator
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
 import org.optaplanner.core.api.domain.entity.PlanningPin;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
+import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 
 @PlanningEntity(difficultyComparatorClass = PersonAssignmentDifficultyComparator.class)
 public class PersonAssignment {
 
+    // No LocalDate has this year, so it marks a person without a birthdate
+    private static final int UNKNOWN_BIRTH_YEAR = Integer.MIN_VALUE;
+
     private Person person;
 
-    private Map<VaccinationCenter, Long> distanceMap;
-    private Long nearestVaccinationCenterDistance;
+    // Shared by all persons, see VaccinationSolution#VaccinationSolution(VaccinationSchedule, DistanceCalculator)
+    private long[] distanceMatrix;
+    // The index in distanceMatrix of the distance to the vaccination center with index 0
+    private int distanceOffset;
+    private int vaccinationCenterCount;
+    private long nearestVaccinationCenterDistance;
+    // The birthdate as integers, so the age on a date doesn't need calendar arithmetic
+    private int birthYear = UNKNOWN_BIRTH_YEAR;
+    private int birthMonthDay;
+    // Starts as Person.pinned, but a partial solve can pin more persons without changing the Person
+    private boolean pinned;
 
     /**
      * Following the bucket design pattern, a {@link VaccinationSlot} is a bucket of {@link Appointment} instances.
@@ -33,48 +44,84 @@ public class PersonAssignment {
      */
     private VaccinationSlot vaccinationSlot = null;
 
+    // Shared by all persons with the same restrictions, see VaccinationSlotRangeBuilder
+    private VaccinationSlotRange vaccinationSlotRange;
+
     // No-arg constructor required for OptaPlanner
     public PersonAssignment() {
     }
 
-    public PersonAssignment(Person person, Map<VaccinationCenter, Long> distanceMap) {
+    /**
+     * @param person never null
+     * @param distanceMatrix sometimes null, shared by all persons
+     * @param distanceOffset the index in distanceMatrix of this person's distance to the vaccination center with index 0
+     * @param vaccinationCenterCount at least 0
+     */
+    public PersonAssignment(Person person, long[] distanceMatrix, int distanceOffset, int vaccinationCenterCount) {
         this.person = person;
-        this.distanceMap = distanceMap;
-        if (distanceMap != null) {
-            nearestVaccinationCenterDistance = distanceMap.values().stream().mapToLong(Long::valueOf).min().orElse(0);
+        this.distanceMatrix = distanceMatrix;
+        this.distanceOffset = distanceOffset;
+        this.vaccinationCenterCount = vaccinationCenterCount;
+        pinned = person.isPinned();
+        LocalDate birthdate = person.getBirthdate();
+        if (birthdate != null) {
+            birthYear = birthdate.getYear();
+            birthMonthDay = VaccinationSlot.toMonthDay(birthdate);
+        }
+        if (distanceMatrix != null && vaccinationCenterCount > 0) {
+            long nearestDistance = Long.MAX_VALUE;
+            for (int i = distanceOffset; i < distanceOffset + vaccinationCenterCount; i++) {
+                nearestDistance = Math.min(nearestDistance, distanceMatrix[i]);
+            }
+            nearestVaccinationCenterDistance = nearestDistance;
         }
     }
 
     public PersonAssignment(PersonAssignment original) {
         this.person = original.person;
-        this.distanceMap = original.distanceMap;
+        this.distanceMatrix = original.distanceMatrix;
+        this.distanceOffset = original.distanceOffset;
+        this.vaccinationCenterCount = original.vaccinationCenterCount;
         this.nearestVaccinationCenterDistance = original.nearestVaccinationCenterDistance;
+        this.birthYear = original.birthYear;
+        this.birthMonthDay = original.birthMonthDay;
+        this.pinned = original.pinned;
         this.vaccinationSlot = original.vaccinationSlot;
+        this.vaccinationSlotRange = original.vaccinationSlotRange;
     }
 
-    public PersonAssignment(String id, String name, Location homeLocation, Map<VaccinationCenter, Long> distanceMap, LocalDate birthdate, long priorityRating, VaccinationSlot vaccinationSlot) {
-        this(new Person(id, name, homeLocation, birthdate, priorityRating), distanceMap);
+    /**
+     * For testing purposes only
+     * @param distances sometimes null, the distance to each vaccination center, by vaccination center index
+     */
+    public PersonAssignment(String id, String name, Location homeLocation, long[] distances, LocalDate birthdate, long priorityRating, VaccinationSlot vaccinationSlot) {
+        this(new Person(id, name, homeLocation, birthdate, priorityRating), distances, 0,
+                distances == null ? 0 : distances.length);
         this.vaccinationSlot = vaccinationSlot;
     }
 
-    public PersonAssignment(String id, String name, Location homeLocation, Map<VaccinationCenter, Long> distanceMap, LocalDate birthdate, long priorityRating,
+    /**
+     * For testing purposes only
+     * @param distances sometimes null, the distance to each vaccination center, by vaccination center index
+     */
+    public PersonAssignment(String id, String name, Location homeLocation, long[] distances, LocalDate birthdate, long priorityRating,
             int doseNumber, VaccineType requiredVaccineType, VaccineType preferredVaccineType,
             VaccinationCenter requiredVaccinationCenter, VaccinationCenter preferredVaccinationCenter,
             LocalDate readyDate, LocalDate idealDate, LocalDate dueDate,
             VaccinationSlot vaccinationSlot) {
         this(new Person(id, name, homeLocation, birthdate, priorityRating, doseNumber,
                 requiredVaccineType, preferredVaccineType, requiredVaccinationCenter, preferredVaccinationCenter,
-                readyDate, idealDate, dueDate), distanceMap);
+                readyDate, idealDate, dueDate), distances, 0, distances == null ? 0 : distances.length);
         this.vaccinationSlot = vaccinationSlot;
     }
 
     public long getDistanceTo(VaccinationCenter vaccinationCenter) {
-        Long distance = distanceMap.get(vaccinationCenter);
-        if (distance == null) {
+        int vaccinationCenterIndex = vaccinationCenter.getIndex();
+        if (vaccinationCenterIndex < 0 || vaccinationCenterIndex >= vaccinationCenterCount) {
             throw new IllegalStateException("The person (" + person
                     + ") is lacking a distance to vaccination center (" + vaccinationCenter + ").");
         }
-        return distance;
+        return distanceMatrix[distanceOffset + vaccinationCenterIndex];
     }
 
     public long getRegretDistanceTo(VaccinationCenter vaccinationCenter) {
@@ -90,11 +137,32 @@ public class PersonAssignment {
         return distance - nearestVaccinationCenterDistance;
     }
 
+    /**
+     * Same as {@code YEARS.between(getBirthdate(), getVaccinationSlot().getDate())},
+     * but only compares integers, because the age constraints call it for every move.
+     * @return -1 if unassigned
+     */
     public long getAgeOnVaccinationDate() {
         if (vaccinationSlot == null) {
             return -1;
         }
-        return YEARS.between(person.getBirthdate(), vaccinationSlot.getDate());
+        return getAgeOn(vaccinationSlot.getYear(), vaccinationSlot.getMonthDay());
+    }
+
+    /**
+     * @param year the year of the date
+     * @param monthDay the month and day of the date, see {@link VaccinationSlot#toMonthDay(LocalDate)}
+     * @return the age on the date
+     * @throws IllegalStateException if the person has no birthdate
+     */
+    public long getAgeOn(int year, int monthDay) {
+        if (birthYear == UNKNOWN_BIRTH_YEAR) {
+            throw new IllegalStateException("The person (" + person
+                    + ") has no birthdate, so their age is unknown.");
+        }
+        int age = year - birthYear;
+        // Not yet had their birthday that year
+        return monthDay < birthMonthDay ? age - 1 : age;
     }
 
     @Override
@@ -165,10 +233,17 @@ public class PersonAssignment {
 
     @PlanningPin
     public boolean isPinned() {
-        return person.isPinned();
+        return pinned;
+    }
+
+    /**
+     * Only pins the person for this solution, {@link Person#isPinned()} stays unchanged.
+     */
+    public void setPinned(boolean pinned) {
+        this.pinned = pinned;
     }
 
-    @PlanningVariable(nullable = true)
+    @PlanningVariable(valueRangeProviderRefs = "vaccinationSlotRange", nullable = true)
     public VaccinationSlot getVaccinationSlot() {
         return vaccinationSlot;
     }
@@ -177,4 +252,18 @@ public class PersonAssignment {
         this.vaccinationSlot = vaccinationSlot;
     }
 
+    /**
+     * @return never null after {@link VaccinationSolution#VaccinationSolution(VaccinationSchedule)},
+     * the vaccination slots that don't break the required vaccine type, required vaccination center,
+     * age, ready date and due date hard constraints for this person
+     */
+    @ValueRangeProvider(id = "vaccinationSlotRange")
+    public List<VaccinationSlot> getVaccinationSlotRange() {
+        return vaccinationSlotRange;
+    }
+
+    public void setVaccinationSlotRange(VaccinationSlotRange vaccinationSlotRange) {
+        this.vaccinationSlotRange = vaccinationSlotRange;
+    }
+
 }
@@ -8,12 +8,19 @@ import java.util.List;
 import org.acme.vaccinationscheduler.domain.Appointment;
 import org.acme.vaccinationscheduler.domain.VaccinationCenter;
 import org.acme.vaccinationscheduler.domain.VaccineType;
+import org.acme.vaccinationscheduler.solver.AssignedCountUpdatingVariableListener;
+import org.optaplanner.core.api.domain.entity.PlanningEntity;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
+import org.optaplanner.core.api.domain.variable.ShadowVariable;
 
 /**
  * Only used by OptaPlanner, not part of the input or output model.
  * Follows the bucket design pattern, this is a bucket of {@link Appointment} instances.
+ * <p>
+ * A planning entity only to keep track of the number of persons assigned to it,
+ * so the capacity constraint doesn't need to group all persons by slot.
  */
+@PlanningEntity
 public class VaccinationSlot {
 
     @PlanningId
@@ -22,22 +29,52 @@ public class VaccinationSlot {
     private VaccinationCenter vaccinationCenter;
     private LocalDate date;
     private LocalTime startTime;
+    // The date as integers, see PersonAssignment.getAgeOnVaccinationDate()
+    private int year;
+    private int monthDay;
     private VaccineType vaccineType;
 
     private List<Appointment> unscheduledAppointmentList;
     private int capacity;
 
+    @ShadowVariable(variableListenerClass = AssignedCountUpdatingVariableListener.class,
+            sourceEntityClass = PersonAssignment.class, sourceVariableName = "vaccinationSlot")
+    private Integer assignedCount = 0;
+
+    // No-arg constructor required for OptaPlanner
+    public VaccinationSlot() {
+    }
+
     public VaccinationSlot(Long id, VaccinationCenter vaccinationCenter,
             LocalDateTime startDateTime, VaccineType vaccineType, List<Appointment> unscheduledAppointmentList, int capacity) {
         this.id = id;
         this.vaccinationCenter = vaccinationCenter;
         this.date = startDateTime.toLocalDate();
         this.startTime = startDateTime.toLocalTime();
+        this.year = date.getYear();
+        this.monthDay = toMonthDay(date);
         this.vaccineType = vaccineType;
         this.unscheduledAppointmentList = unscheduledAppointmentList;
         this.capacity = capacity;
     }
 
+    /**
+     * Shares all the problem facts with the original, only the shadow variables are copied.
+     * @param original never null
+     */
+    public VaccinationSlot(VaccinationSlot original) {
+        this.id = original.id;
+        this.vaccinationCenter = original.vaccinationCenter;
+        this.date = original.date;
+        this.startTime = original.startTime;
+        this.year = original.year;
+        this.monthDay = original.monthDay;
+        this.vaccineType = original.vaccineType;
+        this.unscheduledAppointmentList = original.unscheduledAppointmentList;
+        this.capacity = original.capacity;
+        this.assignedCount = original.assignedCount;
+    }
+
     /** For testing purposes only */
     public VaccinationSlot(Long id, VaccinationCenter vaccinationCenter,
             LocalDateTime startDateTime, VaccineType vaccineType, int capacity) {
@@ -45,12 +82,22 @@ public class VaccinationSlot {
         this.vaccinationCenter = vaccinationCenter;
         this.date = startDateTime == null ? null : startDateTime.toLocalDate();
         this.startTime = startDateTime == null ? null : startDateTime.toLocalTime();
+        this.year = date == null ? 0 : date.getYear();
+        this.monthDay = date == null ? 0 : toMonthDay(date);
         this.vaccineType = vaccineType;
         unscheduledAppointmentList = null;
         this.capacity = capacity;
     }
 
 
+    /**
+     * @param date never null
+     * @return the month and the day of the month, in the same order as the dates in a year
+     */
+    public static int toMonthDay(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
     public LocalDateTime getStartDateTime() {
         return LocalDateTime.of(date, startTime);
     }
@@ -80,6 +127,14 @@ public class VaccinationSlot {
         return startTime;
     }
 
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonthDay() {
+        return monthDay;
+    }
+
     public VaccineType getVaccineType() {
         return vaccineType;
     }
@@ -92,4 +147,12 @@ public class VaccinationSlot {
         return capacity;
     }
 
+    public Integer getAssignedCount() {
+        return assignedCount;
+    }
+
+    public void setAssignedCount(Integer assignedCount) {
+        this.assignedCount = assignedCount;
+    }
+
 }
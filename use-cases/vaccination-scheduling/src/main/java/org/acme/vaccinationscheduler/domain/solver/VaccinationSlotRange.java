@@ -0,0 +1,70 @@
+package org.acme.vaccinationscheduler.domain.solver;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The vaccination slots a person can be assigned to, see {@link VaccinationSlotRangeBuilder}.
+ * <p>
+ * A view on the vaccination slot list of a solution, that only holds the indexes of the slots in that list.
+ * A solution clone has its own vaccination slots, so {@link VaccinationSolutionCloner}
+ * only needs to create a new view with the same indexes, instead of copying the slots of every range.
+ */
+public class VaccinationSlotRange extends AbstractList<VaccinationSlot> implements RandomAccess {
+
+    private final List<VaccinationSlot> vaccinationSlotList;
+    // The index in VaccinationSolution.vaccinationSlotRangeList
+    private final int index;
+    // Ascending
+    private final int[] slotIndexes;
+
+    /**
+     * @param vaccinationSlotList never null, the vaccination slot list of the solution
+     * @param index the index of this range in the vaccination slot range list of the solution
+     * @param slotIndexes never null, ascending indexes in the vaccinationSlotList
+     */
+    public VaccinationSlotRange(List<VaccinationSlot> vaccinationSlotList, int index, int[] slotIndexes) {
+        this.vaccinationSlotList = vaccinationSlotList;
+        this.index = index;
+        this.slotIndexes = slotIndexes;
+    }
+
+    /**
+     * @param vaccinationSlotList never null, the vaccination slot list of a clone of the solution
+     * @return never null, the same slots, but from the other list
+     */
+    public VaccinationSlotRange withVaccinationSlotList(List<VaccinationSlot> vaccinationSlotList) {
+        return new VaccinationSlotRange(vaccinationSlotList, index, slotIndexes);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public VaccinationSlot get(int index) {
+        return vaccinationSlotList.get(slotIndexes[index]);
+    }
+
+    @Override
+    public int size() {
+        return slotIndexes.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        // Called for every swap move, so avoid a linear search.
+        // The id of a slot is its index in the vaccination slot list, see VaccinationSolution.
+        if (o instanceof VaccinationSlot && ((VaccinationSlot) o).getId() != null) {
+            long slotIndex = ((VaccinationSlot) o).getId();
+            if (slotIndex >= 0 && slotIndex < vaccinationSlotList.size()
+                    && vaccinationSlotList.get((int) slotIndex) == o) {
+                return Arrays.binarySearch(slotIndexes, (int) slotIndex) >= 0;
+            }
+        }
+        return super.contains(o);
+    }
+
+}
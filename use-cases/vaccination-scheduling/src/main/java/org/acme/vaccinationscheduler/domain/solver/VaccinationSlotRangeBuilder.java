@@ -0,0 +1,149 @@
+package org.acme.vaccinationscheduler.domain.solver;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.acme.vaccinationscheduler.domain.VaccinationCenter;
+import org.acme.vaccinationscheduler.domain.VaccineType;
+
+/**
+ * Builds the {@link PersonAssignment#getVaccinationSlotRange()} of every person,
+ * so the solver never tries the slots that break a hard constraint for that person anyway:
+ * the wrong required vaccine type or vaccination center, an age outside the vaccine type's limits,
+ * or a date before the ready date or after the due date.
+ * <p>
+ * Except for the required vaccination center, those constraints only depend on the vaccine type and the date of a slot,
+ * so each person gets a bit set of the allowed vaccine type and date combinations.
+ * That's a handful of bits, built in parallel, and persons with the same bits and required vaccination center
+ * share the same {@link VaccinationSlotRange}, to keep the memory use low with 100k+ persons.
+ */
+public class VaccinationSlotRangeBuilder {
+
+    private final List<VaccinationSlot> vaccinationSlotList;
+    private final List<VaccineType> vaccineTypeList;
+    private final List<LocalDate> dateList;
+    // The index of each slot's vaccine type and date combination, by slot index
+    private final int[] slotTypeDateIndexes;
+
+    private final ConcurrentMap<RangeKey, VaccinationSlotRange> rangeMap = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRangeIndex = new AtomicInteger();
+
+    /**
+     * @param vaccinationSlotList never null
+     */
+    public VaccinationSlotRangeBuilder(List<VaccinationSlot> vaccinationSlotList) {
+        this.vaccinationSlotList = vaccinationSlotList;
+        Map<VaccineType, Integer> vaccineTypeIndexMap = new IdentityHashMap<>();
+        Map<LocalDate, Integer> dateIndexMap = new HashMap<>();
+        for (VaccinationSlot vaccinationSlot : vaccinationSlotList) {
+            vaccineTypeIndexMap.putIfAbsent(vaccinationSlot.getVaccineType(), vaccineTypeIndexMap.size());
+            dateIndexMap.putIfAbsent(vaccinationSlot.getDate(), dateIndexMap.size());
+        }
+        vaccineTypeList = new ArrayList<>(Collections.nCopies(vaccineTypeIndexMap.size(), null));
+        vaccineTypeIndexMap.forEach((vaccineType, index) -> vaccineTypeList.set(index, vaccineType));
+        dateList = new ArrayList<>(Collections.nCopies(dateIndexMap.size(), null));
+        dateIndexMap.forEach((date, index) -> dateList.set(index, date));
+        slotTypeDateIndexes = new int[vaccinationSlotList.size()];
+        for (int i = 0; i < vaccinationSlotList.size(); i++) {
+            VaccinationSlot vaccinationSlot = vaccinationSlotList.get(i);
+            slotTypeDateIndexes[i] = vaccineTypeIndexMap.get(vaccinationSlot.getVaccineType()) * dateList.size()
+                    + dateIndexMap.get(vaccinationSlot.getDate());
+        }
+    }
+
+    /**
+     * @param personAssignmentList never null, each person gets its vaccination slot range
+     * @return never null, every distinct vaccination slot range, in the order of {@link VaccinationSlotRange#getIndex()}
+     */
+    public List<VaccinationSlotRange> assignVaccinationSlotRanges(List<PersonAssignment> personAssignmentList) {
+        personAssignmentList.parallelStream().forEach(personAssignment -> {
+            RangeKey rangeKey = new RangeKey(personAssignment.getRequiredVaccinationCenter(),
+                    buildAllowedTypeDateSet(personAssignment));
+            personAssignment.setVaccinationSlotRange(rangeMap.computeIfAbsent(rangeKey, this::buildRange));
+        });
+        List<VaccinationSlotRange> vaccinationSlotRangeList = new ArrayList<>(Collections.nCopies(rangeMap.size(), null));
+        rangeMap.values().forEach(range -> vaccinationSlotRangeList.set(range.getIndex(), range));
+        return vaccinationSlotRangeList;
+    }
+
+    private BitSet buildAllowedTypeDateSet(PersonAssignment personAssignment) {
+        BitSet allowedTypeDateSet = new BitSet(vaccineTypeList.size() * dateList.size());
+        VaccineType requiredVaccineType = personAssignment.getRequiredVaccineType();
+        LocalDate readyDate = personAssignment.getReadyDate();
+        LocalDate dueDate = personAssignment.getDueDate();
+        for (int vaccineTypeIndex = 0; vaccineTypeIndex < vaccineTypeList.size(); vaccineTypeIndex++) {
+            VaccineType vaccineType = vaccineTypeList.get(vaccineTypeIndex);
+            if (requiredVaccineType != null && vaccineType != requiredVaccineType) {
+                continue;
+            }
+            for (int dateIndex = 0; dateIndex < dateList.size(); dateIndex++) {
+                LocalDate date = dateList.get(dateIndex);
+                if ((readyDate != null && date.isBefore(readyDate)) || (dueDate != null && date.isAfter(dueDate))) {
+                    continue;
+                }
+                // Like the age constraints, a person with a required vaccine type ignores its age limits
+                if (requiredVaccineType == null
+                        && (vaccineType.getMinimumAge() != null || vaccineType.getMaximumAge() != null)) {
+                    long age = personAssignment.getAgeOn(date.getYear(), VaccinationSlot.toMonthDay(date));
+                    if ((vaccineType.getMinimumAge() != null && age < vaccineType.getMinimumAge())
+                            || (vaccineType.getMaximumAge() != null && age > vaccineType.getMaximumAge())) {
+                        continue;
+                    }
+                }
+                allowedTypeDateSet.set(vaccineTypeIndex * dateList.size() + dateIndex);
+            }
+        }
+        return allowedTypeDateSet;
+    }
+
+    private VaccinationSlotRange buildRange(RangeKey rangeKey) {
+        int[] slotIndexes = IntStream.range(0, vaccinationSlotList.size())
+                .filter(i -> (rangeKey.requiredVaccinationCenter == null
+                        || vaccinationSlotList.get(i).getVaccinationCenter() == rangeKey.requiredVaccinationCenter)
+                        && rangeKey.allowedTypeDateSet.get(slotTypeDateIndexes[i]))
+                .toArray();
+        return new VaccinationSlotRange(vaccinationSlotList, nextRangeIndex.getAndIncrement(), slotIndexes);
+    }
+
+    private static final class RangeKey {
+
+        private final VaccinationCenter requiredVaccinationCenter;
+        private final BitSet allowedTypeDateSet;
+
+        private RangeKey(VaccinationCenter requiredVaccinationCenter, BitSet allowedTypeDateSet) {
+            this.requiredVaccinationCenter = requiredVaccinationCenter;
+            this.allowedTypeDateSet = allowedTypeDateSet;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RangeKey)) {
+                return false;
+            }
+            RangeKey other = (RangeKey) o;
+            return requiredVaccinationCenter == other.requiredVaccinationCenter
+                    && allowedTypeDateSet.equals(other.allowedTypeDateSet);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(requiredVaccinationCenter), allowedTypeDateSet);
+        }
+
+    }
+
+}
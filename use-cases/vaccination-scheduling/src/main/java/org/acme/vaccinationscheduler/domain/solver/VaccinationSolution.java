@@ -1,11 +1,11 @@
 package org.acme.vaccinationscheduler.domain.solver;
 
 import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.toMap;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -30,13 +30,11 @@ import org.optaplanner.core.api.domain.solution.PlanningEntityCollectionProperty
 import org.optaplanner.core.api.domain.solution.PlanningScore;
 import org.optaplanner.core.api.domain.solution.PlanningSolution;
 import org.optaplanner.core.api.domain.solution.ProblemFactCollectionProperty;
-import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.score.buildin.bendablelong.BendableLongScore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-// TODO the default solution cloner doesn't scale to 100k+ appointments https://issues.redhat.com/browse/PLANNER-2398
-@PlanningSolution
+@PlanningSolution(solutionCloner = VaccinationSolutionCloner.class)
 public class VaccinationSolution {
 
     protected static final Logger logger = LoggerFactory.getLogger(VaccinationSolution.class);
@@ -54,11 +52,18 @@ public class VaccinationSolution {
      * <p>
      * Translated from {@link VaccinationSchedule#getAppointmentList()} before solving and back again after solving.
      * See {@link #VaccinationSolution(VaccinationSchedule)} and {@link #toSchedule()}.
+     * <p>
+     * Each person only gets the slots of its {@link PersonAssignment#getVaccinationSlotRange()}.
      */
-    @ProblemFactCollectionProperty
-    @ValueRangeProvider
+    @PlanningEntityCollectionProperty
     private List<VaccinationSlot> vaccinationSlotList;
 
+    /**
+     * Every distinct {@link PersonAssignment#getVaccinationSlotRange()}, by {@link VaccinationSlotRange#getIndex()},
+     * so {@link VaccinationSolutionCloner} can map them to their clones without a hash lookup per person.
+     */
+    private List<VaccinationSlotRange> vaccinationSlotRangeList;
+
     @PlanningEntityCollectionProperty
     private List<PersonAssignment> personAssignmentList;
 
@@ -73,10 +78,19 @@ public class VaccinationSolution {
     public VaccinationSolution(List<VaccineType> vaccineTypeList, List<VaccinationCenter> vaccinationCenterList,
             List<Appointment> appointmentList, List<VaccinationSlot> vaccinationSlotList,
             List<PersonAssignment> personAssignmentList, BendableLongScore score) {
+        this(vaccineTypeList, vaccinationCenterList, appointmentList, vaccinationSlotList, Collections.emptyList(),
+                personAssignmentList, score);
+    }
+
+    public VaccinationSolution(List<VaccineType> vaccineTypeList, List<VaccinationCenter> vaccinationCenterList,
+            List<Appointment> appointmentList, List<VaccinationSlot> vaccinationSlotList,
+            List<VaccinationSlotRange> vaccinationSlotRangeList, List<PersonAssignment> personAssignmentList,
+            BendableLongScore score) {
         this.vaccineTypeList = vaccineTypeList;
         this.vaccinationCenterList = vaccinationCenterList;
         this.appointmentList = appointmentList;
         this.vaccinationSlotList = vaccinationSlotList;
+        this.vaccinationSlotRangeList = vaccinationSlotRangeList;
         this.personAssignmentList = personAssignmentList;
         this.score = score;
     }
@@ -101,7 +115,10 @@ public class VaccinationSolution {
                         appointment.getVaccinationCenter(),
                         appointment.getDateTime().truncatedTo(ChronoUnit.HOURS),
                         appointment.getVaccineType());
+        // Only the appointments of pinned persons are taken for good,
+        // because toSchedule() hands out an unscheduled appointment to every non-pinned person, even in a warm start
         Set<Appointment> scheduledAppointmentSet = schedule.getPersonList().stream()
+                .filter(Person::isPinned)
                 .map(Person::getAppointment)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
@@ -135,17 +152,16 @@ public class VaccinationSolution {
 
         Location[] fromLocations = personList.stream().map(Person::getHomeLocation).toArray(Location[]::new);
         Location[] toLocations = vaccinationCenterList.stream().map(VaccinationCenter::getLocation).toArray(Location[]::new);
-        // One single call to enable bulk mapping optimizations
-        long[][] distanceMatrix = distanceCalculator.calculateBulkDistance(fromLocations, toLocations);
+        for (int vaccinationCenterIndex = 0; vaccinationCenterIndex < vaccinationCenterList.size(); vaccinationCenterIndex++) {
+            vaccinationCenterList.get(vaccinationCenterIndex).setIndex(vaccinationCenterIndex);
+        }
+        // One single call to enable bulk mapping optimizations.
+        // The distances of all persons are kept in that single flat array, so a distance lookup is an array read.
+        long[] distanceMatrix = distanceCalculator.calculateBulkDistance(fromLocations, toLocations);
         for (int personIndex = 0; personIndex < personList.size(); personIndex++) {
             Person person = personList.get(personIndex);
-            Map<VaccinationCenter, Long> distanceMap = new HashMap<>(vaccinationCenterList.size());
-            for (int vaccinationCenterIndex = 0; vaccinationCenterIndex < vaccinationCenterList.size(); vaccinationCenterIndex++) {
-                VaccinationCenter vaccinationCenter = vaccinationCenterList.get(vaccinationCenterIndex);
-                long distance = distanceMatrix[personIndex][vaccinationCenterIndex];
-                distanceMap.put(vaccinationCenter, distance);
-            }
-            PersonAssignment personAssignment = new PersonAssignment(person, distanceMap);
+            PersonAssignment personAssignment = new PersonAssignment(person, distanceMatrix,
+                    personIndex * vaccinationCenterList.size(), vaccinationCenterList.size());
             Appointment appointment = person.getAppointment();
             // Person.appointment is non-null with pinned persons but maybe also with non-pinned persons from draft runs
             if (appointment != null) {
@@ -160,6 +176,8 @@ public class VaccinationSolution {
             }
             personAssignmentList.add(personAssignment);
         }
+        vaccinationSlotRangeList = new VaccinationSlotRangeBuilder(vaccinationSlotList)
+                .assignVaccinationSlotRanges(personAssignmentList);
         this.score = schedule.getScore();
     }
 
@@ -167,10 +185,9 @@ public class VaccinationSolution {
      * Translates {@link #vaccinationSlotList} back into {@link VaccinationSchedule#getAppointmentList()}.
      */
     public VaccinationSchedule toSchedule() {
-        Map<VaccinationSlot, List<Appointment>> appointmentListMap =
-                vaccinationSlotList.stream().collect(toMap(vaccinationSlot -> vaccinationSlot,
-                        // Shallow clone the appointmentList so the best solution event consumer doesn't corrupt the working solution
-                        vaccinationSlot -> new ArrayList<>(vaccinationSlot.getUnscheduledAppointmentList())));
+        // The index of the next unscheduled appointment of each slot, by slot index.
+        // The unscheduled appointments are never copied, so the best solution event consumer can't corrupt them.
+        int[] appointmentCursors = new int[vaccinationSlotList.size()];
         List<Person> personList = new ArrayList<>(personAssignmentList.size());
         for (PersonAssignment personAssignment : personAssignmentList) {
             Person person = personAssignment.getPerson();
@@ -180,8 +197,15 @@ public class VaccinationSolution {
                 if (vaccinationSlot == null) {
                     appointment = null;
                 } else {
-                    List<Appointment> appointmentList = appointmentListMap.get(vaccinationSlot);
-                    if (appointmentList.isEmpty()) {
+                    int vaccinationSlotIndex = indexOf(vaccinationSlotList, vaccinationSlot);
+                    if (vaccinationSlotIndex < 0) {
+                        throw new IllegalStateException("The person (" + personAssignment
+                                + ") has a vaccinationSlot (" + vaccinationSlot
+                                + ") that is not part of the solution's vaccinationSlotList.");
+                    }
+                    List<Appointment> unscheduledAppointmentList = vaccinationSlot.getUnscheduledAppointmentList();
+                    int appointmentCursor = appointmentCursors[vaccinationSlotIndex];
+                    if (appointmentCursor >= unscheduledAppointmentList.size()) {
                         logger.error("The solution is infeasible: the person (" + personAssignment
                                 + ") is assigned to vaccinationSlot (" + vaccinationSlot
                                 + ") but all the appointments are already taken, so leaving that person unassigned.\n"
@@ -190,7 +214,8 @@ public class VaccinationSolution {
                                 + " because the planning variable has nullable=true.");
                         appointment = null;
                     } else {
-                        appointment = appointmentList.remove(0);
+                        appointment = unscheduledAppointmentList.get(appointmentCursor);
+                        appointmentCursors[vaccinationSlotIndex] = appointmentCursor + 1;
                     }
                 }
                 // No need to clone Person because during solving, the constraints ignore Person.appointment
@@ -203,6 +228,25 @@ public class VaccinationSolution {
         return schedule;
     }
 
+    /**
+     * @return -1 if the vaccinationSlot isn't part of the vaccinationSlotList
+     */
+    static int indexOf(List<VaccinationSlot> vaccinationSlotList, VaccinationSlot vaccinationSlot) {
+        // The id of a slot is its index in the vaccination slot list, see VaccinationSolution(VaccinationSchedule),
+        // which avoids a hash lookup per person
+        Long id = vaccinationSlot.getId();
+        if (id != null && id >= 0 && id < vaccinationSlotList.size()
+                && vaccinationSlotList.get(id.intValue()) == vaccinationSlot) {
+            return id.intValue();
+        }
+        for (int i = 0; i < vaccinationSlotList.size(); i++) {
+            if (vaccinationSlotList.get(i) == vaccinationSlot) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     // ************************************************************************
     // Getters and setters
     // ************************************************************************
@@ -227,6 +271,10 @@ public class VaccinationSolution {
         this.vaccinationSlotList = vaccinationSlotList;
     }
 
+    public List<VaccinationSlotRange> getVaccinationSlotRangeList() {
+        return vaccinationSlotRangeList;
+    }
+
     public List<PersonAssignment> getPersonAssignmentList() {
         return personAssignmentList;
     }
@@ -0,0 +1,67 @@
+package org.acme.vaccinationscheduler.domain.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.optaplanner.core.api.domain.solution.cloner.SolutionCloner;
+
+/**
+ * Clones a {@link VaccinationSolution} much faster than the default solution cloner,
+ * which reflectively deep clones every entity, even though most of their state never changes.
+ * <p>
+ * Only the planning entities are cloned, and only shallowly:
+ * each {@link PersonAssignment} clone shares the person and the distances with the original,
+ * each {@link VaccinationSlot} clone shares the problem facts with the original.
+ * The {@link VaccinationSlotRange}s only get a new view on the cloned slots.
+ * Slots and ranges are mapped to their clones by index, instead of by a hash lookup per person.
+ * Every other problem fact is shared between the original and the clone.
+ */
+public class VaccinationSolutionCloner implements SolutionCloner<VaccinationSolution> {
+
+    @Override
+    public VaccinationSolution cloneSolution(VaccinationSolution original) {
+        List<VaccinationSlot> originalVaccinationSlotList = original.getVaccinationSlotList();
+        List<VaccinationSlot> vaccinationSlotList = new ArrayList<>(originalVaccinationSlotList.size());
+        for (VaccinationSlot originalVaccinationSlot : originalVaccinationSlotList) {
+            vaccinationSlotList.add(new VaccinationSlot(originalVaccinationSlot));
+        }
+        // Many persons share the same range, so their clones share the same range clone
+        List<VaccinationSlotRange> originalVaccinationSlotRangeList = original.getVaccinationSlotRangeList();
+        List<VaccinationSlotRange> vaccinationSlotRangeList = new ArrayList<>(originalVaccinationSlotRangeList.size());
+        for (VaccinationSlotRange originalVaccinationSlotRange : originalVaccinationSlotRangeList) {
+            vaccinationSlotRangeList.add(originalVaccinationSlotRange.withVaccinationSlotList(vaccinationSlotList));
+        }
+        List<PersonAssignment> originalPersonAssignmentList = original.getPersonAssignmentList();
+        List<PersonAssignment> personAssignmentList = new ArrayList<>(originalPersonAssignmentList.size());
+        for (PersonAssignment originalPersonAssignment : originalPersonAssignmentList) {
+            PersonAssignment personAssignment = new PersonAssignment(originalPersonAssignment);
+            VaccinationSlotRange originalVaccinationSlotRange =
+                    (VaccinationSlotRange) originalPersonAssignment.getVaccinationSlotRange();
+            if (originalVaccinationSlotRange != null) {
+                int rangeIndex = originalVaccinationSlotRange.getIndex();
+                if (rangeIndex < 0 || rangeIndex >= originalVaccinationSlotRangeList.size()
+                        || originalVaccinationSlotRangeList.get(rangeIndex) != originalVaccinationSlotRange) {
+                    throw new IllegalStateException("The person (" + originalPersonAssignment
+                            + ") has a vaccinationSlotRange with index (" + rangeIndex
+                            + ") that is not part of the solution's vaccinationSlotRangeList.");
+                }
+                personAssignment.setVaccinationSlotRange(vaccinationSlotRangeList.get(rangeIndex));
+            }
+            VaccinationSlot originalVaccinationSlot = originalPersonAssignment.getVaccinationSlot();
+            if (originalVaccinationSlot != null) {
+                int slotIndex = VaccinationSolution.indexOf(originalVaccinationSlotList, originalVaccinationSlot);
+                if (slotIndex < 0) {
+                    throw new IllegalStateException("The person (" + originalPersonAssignment
+                            + ") has a vaccinationSlot (" + originalVaccinationSlot
+                            + ") that is not part of the solution's vaccinationSlotList.");
+                }
+                personAssignment.setVaccinationSlot(vaccinationSlotList.get(slotIndex));
+            }
+            personAssignmentList.add(personAssignment);
+        }
+        return new VaccinationSolution(original.getVaccineTypeList(), original.getVaccinationCenterList(),
+                original.getAppointmentList(), vaccinationSlotList, vaccinationSlotRangeList, personAssignmentList,
+                original.getScore());
+    }
+
+}
@@ -0,0 +1,450 @@
+package org.acme.vaccinationscheduler.persistence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.acme.vaccinationscheduler.domain.Appointment;
+import org.acme.vaccinationscheduler.domain.Location;
+import org.acme.vaccinationscheduler.domain.Person;
+import org.acme.vaccinationscheduler.domain.VaccinationCenter;
+import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+import org.acme.vaccinationscheduler.domain.VaccineType;
+
+/**
+ * Imports and exports a {@link VaccinationSchedule} as a directory of CSV files,
+ * one file per list of the schedule, each with a header line.
+ * <p>
+ * The persons and appointments files are memory mapped and split into chunks at line boundaries,
+ * which are parsed in parallel straight into the array behind the imported list.
+ * The export writes each line as soon as it's formatted, so it doesn't build a copy of the schedule.
+ * <p>
+ * Fields are separated by a comma and can't contain a comma or a line break.
+ * An empty field is null, except for an id, such as the name of a vaccine type or a booth id, which can't be empty.
+ * A boolean field is either true or false.
+ * A person refers to its appointment by vaccination center id, booth id and date time.
+ */
+public class VaccinationScheduleCsvIO {
+
+    public static final String VACCINE_TYPES_FILE_NAME = "vaccineTypes.csv";
+    public static final String VACCINATION_CENTERS_FILE_NAME = "vaccinationCenters.csv";
+    public static final String APPOINTMENTS_FILE_NAME = "appointments.csv";
+    public static final String PERSONS_FILE_NAME = "persons.csv";
+
+    private static final String VACCINE_TYPES_HEADER = "name,minimumAge,maximumAge";
+    private static final String VACCINATION_CENTERS_HEADER = "id,name,latitude,longitude";
+    private static final String APPOINTMENTS_HEADER = "vaccinationCenter,boothId,dateTime,vaccineType";
+    private static final String PERSONS_HEADER = "id,name,latitude,longitude,birthdate,priorityRating,doseNumber,"
+            + "requiredVaccineType,preferredVaccineType,requiredVaccinationCenter,preferredVaccinationCenter,"
+            + "readyDate,idealDate,dueDate,pinned,appointmentVaccinationCenter,appointmentBoothId,appointmentDateTime";
+
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final int chunkSize;
+
+    public VaccinationScheduleCsvIO() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize at least 1, the number of bytes per chunk that is parsed by one thread
+     */
+    VaccinationScheduleCsvIO(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunkSize (" + chunkSize + ") must be at least 1.");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    // ************************************************************************
+    // Import
+    // ************************************************************************
+
+    /**
+     * @param directory never null, contains the 4 CSV files
+     * @return never null, without a score
+     */
+    public VaccinationSchedule read(Path directory) throws IOException {
+        List<VaccineType> vaccineTypeList = readLines(directory.resolve(VACCINE_TYPES_FILE_NAME),
+                VACCINE_TYPES_HEADER, VaccineType[]::new,
+                fields -> new VaccineType(parseId(fields[0], "vaccine type name"), parseInteger(fields[1]),
+                        parseInteger(fields[2])));
+        Map<String, VaccineType> vaccineTypeMap = toMap(vaccineTypeList, VaccineType::getName, "vaccine type");
+        List<VaccinationCenter> vaccinationCenterList = readLines(directory.resolve(VACCINATION_CENTERS_FILE_NAME),
+                VACCINATION_CENTERS_HEADER, VaccinationCenter[]::new,
+                fields -> new VaccinationCenter(parseId(fields[0], "vaccination center id"), parseString(fields[1]),
+                        new Location(Double.parseDouble(fields[2]), Double.parseDouble(fields[3]))));
+        Map<String, VaccinationCenter> vaccinationCenterMap = toMap(vaccinationCenterList, VaccinationCenter::getId,
+                "vaccination center");
+        List<Appointment> appointmentList = readLines(directory.resolve(APPOINTMENTS_FILE_NAME),
+                APPOINTMENTS_HEADER, Appointment[]::new,
+                fields -> new Appointment(lookUp(vaccinationCenterMap, fields[0], "vaccination center"),
+                        parseId(fields[1], "booth id"), parseDateTime(fields[2]),
+                        lookUp(vaccineTypeMap, fields[3], "vaccine type")));
+        // Throws an IllegalStateException on a duplicate appointment
+        Map<AppointmentKey, Appointment> appointmentMap = appointmentList.parallelStream()
+                .collect(Collectors.toConcurrentMap(AppointmentKey::new, Function.identity()));
+        List<Person> personList = readLines(directory.resolve(PERSONS_FILE_NAME),
+                PERSONS_HEADER, Person[]::new, fields -> {
+                    Person person = new Person(parseId(fields[0], "person id"), parseString(fields[1]),
+                            new Location(Double.parseDouble(fields[2]), Double.parseDouble(fields[3])),
+                            parseDate(fields[4]), Long.parseLong(fields[5]), Integer.parseInt(fields[6]),
+                            lookUp(vaccineTypeMap, fields[7], "vaccine type"),
+                            lookUp(vaccineTypeMap, fields[8], "vaccine type"),
+                            lookUp(vaccinationCenterMap, fields[9], "vaccination center"),
+                            lookUp(vaccinationCenterMap, fields[10], "vaccination center"),
+                            parseDate(fields[11]), parseDate(fields[12]), parseDate(fields[13]));
+                    person.setPinned(parseBoolean(fields[14]));
+                    if (!fields[15].isEmpty()) {
+                        AppointmentKey appointmentKey = new AppointmentKey(
+                                lookUp(vaccinationCenterMap, fields[15], "vaccination center"),
+                                parseId(fields[16], "booth id"), parseDateTime(fields[17]));
+                        person.setAppointment(lookUp(appointmentMap, appointmentKey, "appointment"));
+                    }
+                    return person;
+                });
+        return new VaccinationSchedule(vaccineTypeList, vaccinationCenterList, appointmentList, personList);
+    }
+
+    private <T> List<T> readLines(Path file, String header, IntFunction<T[]> arrayFactory,
+            Function<String[], T> lineParser) throws IOException {
+        int fieldCount = header.split(",").length;
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The file (" + file + ") with size (" + channel.size()
+                        + ") is too big to import.");
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        }
+        int size = buffer.limit();
+        int headerEnd = findLineEnd(buffer, 0, size);
+        String actualHeader = decodeLine(buffer, 0, headerEnd);
+        if (!actualHeader.equals(header)) {
+            throw new IllegalStateException("The file (" + file + ") has a header (" + actualHeader
+                    + ") that differs from the expected header (" + header + ").");
+        }
+        // Each chunk starts at the beginning of a line
+        List<Integer> chunkStartList = new ArrayList<>();
+        int chunkStart = Math.min(size, headerEnd + 1);
+        while (chunkStart < size) {
+            chunkStartList.add(chunkStart);
+            chunkStart = Math.min(size, findLineEnd(buffer, Math.min(size, chunkStart + chunkSize), size) + 1);
+        }
+        int chunkCount = chunkStartList.size();
+        int[] chunkStarts = new int[chunkCount + 1];
+        for (int i = 0; i < chunkCount; i++) {
+            chunkStarts[i] = chunkStartList.get(i);
+        }
+        chunkStarts[chunkCount] = size;
+        // First count the lines of each chunk, so each chunk knows where to put its items in the array
+        int[] chunkLineCounts = IntStream.range(0, chunkCount).parallel()
+                .map(i -> countLines(buffer, chunkStarts[i], chunkStarts[i + 1]))
+                .toArray();
+        int[] chunkOffsets = new int[chunkCount + 1];
+        for (int i = 0; i < chunkCount; i++) {
+            chunkOffsets[i + 1] = chunkOffsets[i] + chunkLineCounts[i];
+        }
+        T[] items = arrayFactory.apply(chunkOffsets[chunkCount]);
+        IntStream.range(0, chunkCount).parallel().forEach(i -> {
+            int offset = chunkOffsets[i];
+            int lineStart = chunkStarts[i];
+            int chunkEnd = chunkStarts[i + 1];
+            while (lineStart < chunkEnd) {
+                int lineEnd = findLineEnd(buffer, lineStart, chunkEnd);
+                String line = decodeLine(buffer, lineStart, lineEnd);
+                if (!line.isEmpty()) {
+                    String[] fields = line.split(",", -1);
+                    if (fields.length != fieldCount) {
+                        throw new IllegalStateException("The file (" + file + ") has a line (" + line
+                                + ") with (" + fields.length + ") fields instead of (" + fieldCount + ").");
+                    }
+                    try {
+                        items[offset++] = lineParser.apply(fields);
+                    } catch (RuntimeException e) {
+                        throw new IllegalStateException("The file (" + file + ") has an invalid line (" + line + ").",
+                                e);
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+        });
+        return Arrays.asList(items);
+    }
+
+    private static int findLineEnd(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int countLines(ByteBuffer buffer, int start, int end) {
+        int lineCount = 0;
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = findLineEnd(buffer, lineStart, end);
+            if (trimCarriageReturn(buffer, lineStart, lineEnd) > lineStart) {
+                lineCount++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return lineCount;
+    }
+
+    private static String decodeLine(ByteBuffer buffer, int start, int end) {
+        int trimmedEnd = trimCarriageReturn(buffer, start, end);
+        byte[] bytes = new byte[trimmedEnd - start];
+        // An absolute bulk get would need Java 13, so get through a duplicate to keep this thread safe
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(start);
+        duplicate.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static int trimCarriageReturn(ByteBuffer buffer, int start, int end) {
+        return end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    private static <K, V> Map<K, V> toMap(List<V> list, Function<V, K> keyFunction, String description) {
+        Map<K, V> map = new HashMap<>(list.size() * 2);
+        for (V value : list) {
+            if (map.put(keyFunction.apply(value), value) != null) {
+                throw new IllegalStateException("The " + description + " (" + keyFunction.apply(value)
+                        + ") is not unique.");
+            }
+        }
+        return map;
+    }
+
+    private static <K, V> V lookUp(Map<K, V> map, K key, String description) {
+        if (key == null || "".equals(key)) {
+            return null;
+        }
+        V value = map.get(key);
+        if (value == null) {
+            throw new IllegalStateException("The " + description + " (" + key + ") does not exist.");
+        }
+        return value;
+    }
+
+    private static String parseId(String field, String description) {
+        if (field.isEmpty()) {
+            throw new IllegalArgumentException("The " + description + " can't be empty.");
+        }
+        return field;
+    }
+
+    private static String parseString(String field) {
+        return field.isEmpty() ? null : field;
+    }
+
+    private static boolean parseBoolean(String field) {
+        // Unlike Boolean.parseBoolean(), which reads anything other than true as false
+        if (field.equals("true")) {
+            return true;
+        } else if (field.equals("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("The boolean (" + field + ") must be true or false.");
+    }
+
+    private static Integer parseInteger(String field) {
+        return field.isEmpty() ? null : Integer.valueOf(field);
+    }
+
+    private static LocalDate parseDate(String field) {
+        if (field.isEmpty()) {
+            return null;
+        }
+        // Much faster than LocalDate.parse(), which builds a map of the parsed fields on every call
+        if (field.length() == 10 && field.charAt(4) == '-' && field.charAt(7) == '-') {
+            int year = parseDigits(field, 0, 4);
+            int month = parseDigits(field, 5, 7);
+            int day = parseDigits(field, 8, 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(field);
+    }
+
+    private static LocalDateTime parseDateTime(String field) {
+        // Such as 2021-02-01T09:00 or 2021-02-01T09:00:30, as written by LocalDateTime.toString()
+        if ((field.length() == 16 || (field.length() == 19 && field.charAt(16) == ':'))
+                && field.charAt(10) == 'T' && field.charAt(13) == ':') {
+            LocalDate date = parseDate(field.substring(0, 10));
+            int hour = parseDigits(field, 11, 13);
+            int minute = parseDigits(field, 14, 16);
+            int second = field.length() == 19 ? parseDigits(field, 17, 19) : 0;
+            if (hour >= 0 && minute >= 0 && second >= 0) {
+                return LocalDateTime.of(date, LocalTime.of(hour, minute, second));
+            }
+        }
+        return LocalDateTime.parse(field);
+    }
+
+    /**
+     * @return -1 if a character isn't a digit
+     */
+    private static int parseDigits(String field, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = field.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static final class AppointmentKey {
+
+        private final VaccinationCenter vaccinationCenter;
+        private final String boothId;
+        private final LocalDateTime dateTime;
+
+        private AppointmentKey(Appointment appointment) {
+            this(appointment.getVaccinationCenter(), appointment.getBoothId(), appointment.getDateTime());
+        }
+
+        private AppointmentKey(VaccinationCenter vaccinationCenter, String boothId, LocalDateTime dateTime) {
+            this.vaccinationCenter = vaccinationCenter;
+            this.boothId = boothId;
+            this.dateTime = dateTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AppointmentKey)) {
+                return false;
+            }
+            AppointmentKey other = (AppointmentKey) o;
+            return vaccinationCenter == other.vaccinationCenter
+                    && boothId.equals(other.boothId)
+                    && dateTime.equals(other.dateTime);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(vaccinationCenter), boothId, dateTime);
+        }
+
+        @Override
+        public String toString() {
+            return vaccinationCenter + "-" + boothId + "@" + dateTime;
+        }
+
+    }
+
+    // ************************************************************************
+    // Export
+    // ************************************************************************
+
+    /**
+     * @param schedule never null
+     * @param directory never null, must exist, existing CSV files are overwritten
+     */
+    public void write(VaccinationSchedule schedule, Path directory) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(directory.resolve(VACCINE_TYPES_FILE_NAME), UTF_8)) {
+            writer.write(VACCINE_TYPES_HEADER);
+            writer.write('\n');
+            for (VaccineType vaccineType : schedule.getVaccineTypeList()) {
+                writeFields(writer, vaccineType.getName(), vaccineType.getMinimumAge(), vaccineType.getMaximumAge());
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(directory.resolve(VACCINATION_CENTERS_FILE_NAME), UTF_8)) {
+            writer.write(VACCINATION_CENTERS_HEADER);
+            writer.write('\n');
+            for (VaccinationCenter vaccinationCenter : schedule.getVaccinationCenterList()) {
+                writeFields(writer, vaccinationCenter.getId(), vaccinationCenter.getName(),
+                        vaccinationCenter.getLocation().latitude, vaccinationCenter.getLocation().longitude);
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(directory.resolve(APPOINTMENTS_FILE_NAME), UTF_8)) {
+            writer.write(APPOINTMENTS_HEADER);
+            writer.write('\n');
+            for (Appointment appointment : schedule.getAppointmentList()) {
+                writeFields(writer, appointment.getVaccinationCenter().getId(), appointment.getBoothId(),
+                        appointment.getDateTime(), appointment.getVaccineType().getName());
+            }
+        }
+        try (OutputStream outputStream = Files.newOutputStream(directory.resolve(PERSONS_FILE_NAME))) {
+            writePersons(schedule, outputStream);
+        }
+    }
+
+    /**
+     * Writes the persons with their appointments, the same as {@value #PERSONS_FILE_NAME}.
+     * @param schedule never null
+     * @param outputStream never null, not closed
+     */
+    public void writePersons(VaccinationSchedule schedule, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+        writer.write(PERSONS_HEADER);
+        writer.write('\n');
+        for (Person person : schedule.getPersonList()) {
+            Appointment appointment = person.getAppointment();
+            writeFields(writer, person.getId(), person.getName(),
+                    person.getHomeLocation().latitude, person.getHomeLocation().longitude,
+                    person.getBirthdate(), person.getPriorityRating(), person.getDoseNumber(),
+                    person.getRequiredVaccineType() == null ? null : person.getRequiredVaccineType().getName(),
+                    person.getPreferredVaccineType() == null ? null : person.getPreferredVaccineType().getName(),
+                    person.getRequiredVaccinationCenter() == null ? null : person.getRequiredVaccinationCenter().getId(),
+                    person.getPreferredVaccinationCenter() == null ? null : person.getPreferredVaccinationCenter().getId(),
+                    person.getReadyDate(), person.getIdealDate(), person.getDueDate(), person.isPinned(),
+                    appointment == null ? null : appointment.getVaccinationCenter().getId(),
+                    appointment == null ? null : appointment.getBoothId(),
+                    appointment == null ? null : appointment.getDateTime());
+        }
+        writer.flush();
+    }
+
+    private static void writeFields(Writer writer, Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (fields[i] != null) {
+                String field = fields[i].toString();
+                if (field.indexOf(',') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                    throw new IllegalStateException("The field (" + field
+                            + ") contains a comma or a line break, which isn't supported in CSV export.");
+                }
+                writer.write(field);
+            }
+        }
+        writer.write('\n');
+    }
+
+}
@@ -0,0 +1,215 @@
+package org.acme.vaccinationscheduler.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.vaccinationscheduler.domain.Appointment;
+import org.acme.vaccinationscheduler.domain.Person;
+import org.acme.vaccinationscheduler.domain.VaccinationCenter;
+import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+
+/**
+ * Splits a {@link VaccinationSchedule} into pages, because the UI can't handle huge datasets.
+ * <p>
+ * Each page has a share of the booths of every vaccination center, with their appointments
+ * and the persons assigned to those appointments, and a share of the unassigned persons.
+ * The appointments and persons are sorted by page once, so getting a page only copies that page.
+ * <p>
+ * The translation of a newer best solution changes {@link Person#getAppointment()} in place,
+ * so the index reads the appointments of the persons from a snapshot, see {@link #snapshotPersonAppointments}.
+ * Take it while holding the lock that the translations hold, see {@link VaccinationScheduleRepository#getLock()}.
+ */
+public class VaccinationSchedulePageIndex {
+
+    public static final int DEFAULT_APPOINTMENT_PAGE_LIMIT = 5_000;
+
+    private final VaccinationSchedule schedule;
+    private final int pageCount;
+    private final List<Appointment> appointmentList;
+    private final int[] appointmentPageStarts;
+    private final List<Person> assignedPersonList;
+    private final int[] assignedPersonPageStarts;
+    private final List<Person> unassignedPersonList;
+    private final int unassignedPersonPageLength;
+
+    /**
+     * @param schedule never null, must not change while this constructor runs
+     */
+    public VaccinationSchedulePageIndex(VaccinationSchedule schedule) {
+        this(schedule, DEFAULT_APPOINTMENT_PAGE_LIMIT);
+    }
+
+    /**
+     * @param schedule never null, must not change while this constructor runs
+     * @param appointmentPageLimit at least 1, a schedule with no more appointments than this is not paged
+     */
+    public VaccinationSchedulePageIndex(VaccinationSchedule schedule, int appointmentPageLimit) {
+        this(schedule, snapshotPersonAppointments(schedule), appointmentPageLimit);
+    }
+
+    /**
+     * @param schedule never null, its persons' appointments can change while this constructor runs
+     * @param personAppointments never null, see {@link #snapshotPersonAppointments(VaccinationSchedule)}
+     * @param appointmentPageLimit at least 1, a schedule with no more appointments than this is not paged
+     */
+    public VaccinationSchedulePageIndex(VaccinationSchedule schedule, Appointment[] personAppointments,
+            int appointmentPageLimit) {
+        if (appointmentPageLimit < 1) {
+            throw new IllegalArgumentException("The appointmentPageLimit (" + appointmentPageLimit
+                    + ") must be at least 1.");
+        }
+        this.schedule = schedule;
+        int appointmentListSize = schedule.getAppointmentList().size();
+        if (appointmentListSize <= appointmentPageLimit) {
+            pageCount = 1;
+            appointmentList = null;
+            appointmentPageStarts = null;
+            assignedPersonList = null;
+            assignedPersonPageStarts = null;
+            unassignedPersonList = null;
+            unassignedPersonPageLength = 0;
+            return;
+        }
+        // For each vaccination center, the page of each booth, in the order the booths first appear
+        Map<VaccinationCenter, Map<String, Integer>> boothPageMap = new IdentityHashMap<>();
+        for (Appointment appointment : schedule.getAppointmentList()) {
+            Map<String, Integer> boothIndexMap = boothPageMap.computeIfAbsent(appointment.getVaccinationCenter(),
+                    vaccinationCenter -> new HashMap<>());
+            boothIndexMap.putIfAbsent(appointment.getBoothId(), boothIndexMap.size());
+        }
+        int maximumPage = 0;
+        for (Map<String, Integer> boothIndexMap : boothPageMap.values()) {
+            // Each page has the same share of the booths of each vaccination center
+            int pageLength = Math.max(1, boothIndexMap.size() * appointmentPageLimit / appointmentListSize);
+            for (Map.Entry<String, Integer> entry : boothIndexMap.entrySet()) {
+                int page = entry.getValue() / pageLength;
+                entry.setValue(page);
+                maximumPage = Math.max(maximumPage, page);
+            }
+        }
+        pageCount = maximumPage + 1;
+
+        List<Appointment> scheduleAppointmentList = schedule.getAppointmentList();
+        int[] appointmentPages = new int[scheduleAppointmentList.size()];
+        for (int i = 0; i < appointmentPages.length; i++) {
+            Appointment appointment = scheduleAppointmentList.get(i);
+            appointmentPages[i] = boothPageMap.get(appointment.getVaccinationCenter()).get(appointment.getBoothId());
+        }
+        appointmentPageStarts = new int[pageCount + 1];
+        appointmentList = sortByPage(scheduleAppointmentList, appointmentPages, appointmentPageStarts);
+
+        List<Person> schedulePersonList = schedule.getPersonList();
+        if (personAppointments.length != schedulePersonList.size()) {
+            throw new IllegalArgumentException("The personAppointments length (" + personAppointments.length
+                    + ") differs from the schedule's personList size (" + schedulePersonList.size() + ").");
+        }
+        List<Person> scheduleAssignedPersonList = new ArrayList<>(scheduleAppointmentList.size());
+        List<Appointment> scheduleAssignedAppointmentList = new ArrayList<>(scheduleAppointmentList.size());
+        List<Person> scheduleUnassignedPersonList = new ArrayList<>();
+        for (int i = 0; i < personAppointments.length; i++) {
+            if (personAppointments[i] == null) {
+                scheduleUnassignedPersonList.add(schedulePersonList.get(i));
+            } else {
+                scheduleAssignedPersonList.add(schedulePersonList.get(i));
+                scheduleAssignedAppointmentList.add(personAppointments[i]);
+            }
+        }
+        int[] personPages = new int[scheduleAssignedPersonList.size()];
+        for (int i = 0; i < personPages.length; i++) {
+            Person person = scheduleAssignedPersonList.get(i);
+            Appointment appointment = scheduleAssignedAppointmentList.get(i);
+            Map<String, Integer> boothIndexMap = boothPageMap.get(appointment.getVaccinationCenter());
+            Integer page = boothIndexMap == null ? null : boothIndexMap.get(appointment.getBoothId());
+            if (page == null) {
+                throw new IllegalStateException("The person (" + person + ") has an appointment (" + appointment
+                        + ") that is not part of the schedule's appointmentList.");
+            }
+            personPages[i] = page;
+        }
+        assignedPersonPageStarts = new int[pageCount + 1];
+        assignedPersonList = sortByPage(scheduleAssignedPersonList, personPages, assignedPersonPageStarts);
+        unassignedPersonList = scheduleUnassignedPersonList;
+        // Spread the unassigned persons evenly over the pages
+        unassignedPersonPageLength = (unassignedPersonList.size() + pageCount - 1) / pageCount;
+    }
+
+    /**
+     * @param schedule never null, must not change while this method runs
+     * @return never null, the appointment of each person, by person index, null if unassigned
+     */
+    public static Appointment[] snapshotPersonAppointments(VaccinationSchedule schedule) {
+        List<Person> personList = schedule.getPersonList();
+        Appointment[] personAppointments = new Appointment[personList.size()];
+        for (int i = 0; i < personAppointments.length; i++) {
+            personAppointments[i] = personList.get(i).getAppointment();
+        }
+        return personAppointments;
+    }
+
+    /**
+     * A stable counting sort.
+     * @param pageStarts filled in, pageStarts[page] is the index of the first item of that page
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> sortByPage(List<T> list, int[] pages, int[] pageStarts) {
+        for (int page : pages) {
+            pageStarts[page + 1]++;
+        }
+        for (int page = 0; page < pageCount; page++) {
+            pageStarts[page + 1] += pageStarts[page];
+        }
+        int[] nextIndexes = Arrays.copyOf(pageStarts, pageCount);
+        T[] sortedItems = (T[]) new Object[list.size()];
+        for (int i = 0; i < pages.length; i++) {
+            sortedItems[nextIndexes[pages[i]]++] = list.get(i);
+        }
+        return Arrays.asList(sortedItems);
+    }
+
+    /**
+     * @param page at least 0
+     * @return never null, the whole schedule if it isn't paged, without a solver status
+     */
+    public VaccinationSchedule getPage(int page) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Unsupported page (" + page + ").");
+        }
+        if (appointmentList == null) {
+            return schedule;
+        }
+        List<Appointment> pageAppointmentList;
+        List<Person> pagePersonList;
+        if (page >= pageCount) {
+            pageAppointmentList = Collections.emptyList();
+            pagePersonList = Collections.emptyList();
+        } else {
+            pageAppointmentList = new ArrayList<>(
+                    appointmentList.subList(appointmentPageStarts[page], appointmentPageStarts[page + 1]));
+            List<Person> pageUnassignedPersonList = unassignedPersonList.subList(
+                    Math.min(unassignedPersonList.size(), page * unassignedPersonPageLength),
+                    Math.min(unassignedPersonList.size(), (page + 1) * unassignedPersonPageLength));
+            pagePersonList = new ArrayList<>(assignedPersonPageStarts[page + 1] - assignedPersonPageStarts[page]
+                    + pageUnassignedPersonList.size());
+            pagePersonList.addAll(
+                    assignedPersonList.subList(assignedPersonPageStarts[page], assignedPersonPageStarts[page + 1]));
+            pagePersonList.addAll(pageUnassignedPersonList);
+        }
+        VaccinationSchedule pagedSchedule = new VaccinationSchedule(schedule.getVaccineTypeList(),
+                schedule.getVaccinationCenterList(), pageAppointmentList, pagePersonList);
+        pagedSchedule.setScore(schedule.getScore());
+        return pagedSchedule;
+    }
+
+    /**
+     * @return at least 1
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+}
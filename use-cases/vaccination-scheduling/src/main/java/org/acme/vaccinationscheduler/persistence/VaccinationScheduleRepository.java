@@ -2,19 +2,93 @@ package org.acme.vaccinationscheduler.persistence;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
+import org.acme.vaccinationscheduler.domain.Appointment;
 import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSolution;
+
+import io.micrometer.core.annotation.Timed;
 
 @ApplicationScoped
 public class VaccinationScheduleRepository {
 
+    // Guards the fields and the appointments of the persons of the saved schedule,
+    // because translating a solution changes those appointments in place
+    private final Object lock = new Object();
+
     private VaccinationSchedule vaccinationSchedule;
+    // Translated lazily into the vaccinationSchedule, because most best solutions are never read
+    private VaccinationSolution untranslatedSolution;
+    // Incremented by every save, so a page index built from an older schedule is never cached
+    private long saveGeneration = 0L;
+    // Built lazily, at most once per save, because most best solutions are never paged
+    private VaccinationSchedulePageIndex pageIndex;
+
+    /**
+     * @return never null, hold it while changing the appointments of the persons of the saved schedule,
+     * such as when translating a solution of a part of the schedule into it
+     */
+    public Object getLock() {
+        return lock;
+    }
 
+    @Timed(value = "vaccinationSchedule.find", description = "Time spent loading the vaccination schedule")
     public VaccinationSchedule find() {
-        return vaccinationSchedule;
+        synchronized (lock) {
+            if (untranslatedSolution != null) {
+                vaccinationSchedule = untranslatedSolution.toSchedule();
+                untranslatedSolution = null;
+            }
+            return vaccinationSchedule;
+        }
     }
 
+    @Timed(value = "vaccinationSchedule.findPageIndex", description = "Time spent loading the vaccination schedule pages")
+    public VaccinationSchedulePageIndex findPageIndex() {
+        VaccinationSchedule schedule;
+        Appointment[] personAppointments;
+        long generation;
+        synchronized (lock) {
+            if (pageIndex != null) {
+                return pageIndex;
+            }
+            schedule = find();
+            // Under the lock, because translating a newer solution changes the appointments of the same persons
+            personAppointments = VaccinationSchedulePageIndex.snapshotPersonAppointments(schedule);
+            generation = saveGeneration;
+        }
+        // Outside the lock, so it doesn't block saving the next best solution
+        VaccinationSchedulePageIndex newPageIndex = new VaccinationSchedulePageIndex(schedule, personAppointments,
+                VaccinationSchedulePageIndex.DEFAULT_APPOINTMENT_PAGE_LIMIT);
+        synchronized (lock) {
+            if (generation == saveGeneration) {
+                pageIndex = newPageIndex;
+            }
+        }
+        return newPageIndex;
+    }
+
+    /**
+     * @param vaccinationSchedule never null, if it's the saved schedule with other appointments,
+     * those appointments must have been changed while holding {@link #getLock()}
+     */
     public void save(VaccinationSchedule vaccinationSchedule) {
-        this.vaccinationSchedule = vaccinationSchedule;
+        synchronized (lock) {
+            this.vaccinationSchedule = vaccinationSchedule;
+            untranslatedSolution = null;
+            saveGeneration++;
+            pageIndex = null;
+        }
+    }
+
+    /**
+     * @param solution never null, must not change afterwards, such as a best solution of the solver
+     */
+    public void save(VaccinationSolution solution) {
+        synchronized (lock) {
+            untranslatedSolution = solution;
+            saveGeneration++;
+            pageIndex = null;
+        }
     }
 
 }
@@ -1,128 +1,118 @@
 package org.acme.vaccinationscheduler.rest;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
-
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.StreamingOutput;
 
-import org.acme.vaccinationscheduler.domain.Appointment;
-import org.acme.vaccinationscheduler.domain.Person;
-import org.acme.vaccinationscheduler.domain.VaccinationCenter;
 import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
-import org.acme.vaccinationscheduler.domain.VaccineType;
 import org.acme.vaccinationscheduler.domain.solver.VaccinationSolution;
+import org.acme.vaccinationscheduler.persistence.VaccinationScheduleCsvIO;
 import org.acme.vaccinationscheduler.persistence.VaccinationScheduleRepository;
+import org.acme.vaccinationscheduler.solver.geo.EuclideanDistanceCalculator;
+import org.acme.vaccinationscheduler.solver.region.RegionPartitioner;
+import org.acme.vaccinationscheduler.solver.region.RegionSolverManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.optaplanner.core.api.solver.SolverManager;
 import org.optaplanner.core.api.solver.SolverStatus;
+import org.optaplanner.core.config.solver.SolverConfig;
 
 @Path("vaccinationSchedule")
 public class VaccinationScheduleSolverResource {
 
-    private static final int APPOINTMENT_PAGE_LIMIT = 5_000;
-
     @Inject
     VaccinationScheduleRepository vaccinationScheduleRepository;
 
     @Inject
     SolverManager<VaccinationSolution, Long> solverManager;
 
+    @Inject
+    SolverConfig solverConfig;
+    @ConfigProperty(name = "vaccination-schedule.region-count", defaultValue = "1")
+    int regionCount;
+    // Null if the schedule is solved as a whole
+    private RegionSolverManager regionSolverManager;
+
+    @PostConstruct
+    void initSolverManagers() {
+        if (regionCount > 1) {
+            regionSolverManager = new RegionSolverManager(solverConfig,
+                    new RegionPartitioner(regionCount, new EuclideanDistanceCalculator()));
+        }
+    }
+
+    @PreDestroy
+    void closeSolverManagers() {
+        if (regionSolverManager != null) {
+            regionSolverManager.close();
+        }
+    }
+
     // To try, open http://localhost:8080/vaccinationSchedule
     @GET
     public VaccinationSchedule get(@QueryParam("page") Integer page) {
         // Get the solver status before loading the schedule
         // to avoid the race condition that the solver terminates between them
         SolverStatus solverStatus = getSolverStatus();
-        VaccinationSchedule schedule = vaccinationScheduleRepository.find();
-        schedule.setSolverStatus(solverStatus);
+        VaccinationSchedule schedule;
         // Optional pagination because the UI can't handle huge datasets
         if (page != null) {
-            if (page < 0) {
-                throw new IllegalArgumentException("Unsupported page (" + page + ").");
-            }
-            int appointmentListSize = schedule.getAppointmentList().size();
-            if (appointmentListSize > APPOINTMENT_PAGE_LIMIT) {
-                List<VaccineType> vaccineTypeList = schedule.getVaccineTypeList();
-                List<VaccinationCenter> vaccinationCenterList = schedule.getVaccinationCenterList();
-                List<Appointment> appointmentList;
-                List<Person> personList;
-                if (appointmentListSize <= APPOINTMENT_PAGE_LIMIT) {
-                    appointmentList = schedule.getAppointmentList();
-                    personList = schedule.getPersonList();
-                } else {
-                    Map<VaccinationCenter, Set<String>> boothIdSetMap = new HashMap<>(vaccinationCenterList.size());
-                    for (VaccinationCenter vaccinationCenter : vaccinationCenterList) {
-                        boothIdSetMap.put(vaccinationCenter, new LinkedHashSet<>());
-                    }
-                    for (Appointment appointment : schedule.getAppointmentList()) {
-                        Set<String> boothIdSet = boothIdSetMap.get(appointment.getVaccinationCenter());
-                        boothIdSet.add(appointment.getBoothId());
-                    }
-                    Map<VaccinationCenter, Set<String>> subBoothIdSetMap = new HashMap<>(vaccinationCenterList.size());
-                    boothIdSetMap.forEach((vaccinationCenter, boothIdSet) -> {
-                        List<String> boothIdList = new ArrayList<>(boothIdSet);
-                        int pageLength = Math.max(1, boothIdList.size() * APPOINTMENT_PAGE_LIMIT / appointmentListSize);
-                        subBoothIdSetMap.put(vaccinationCenter, new HashSet<>(
-                                // For a page, filter the number of booths per page from each vaccination center
-                                boothIdList.subList(page * pageLength,
-                                        Math.min(boothIdList.size(), (page + 1) * pageLength))));
-                    });
-                    appointmentList = schedule.getAppointmentList().stream()
-                            .filter(appointment -> subBoothIdSetMap.get(appointment.getVaccinationCenter())
-                                    .contains(appointment.getBoothId()))
-                            .collect(Collectors.toList());
-                    personList = schedule.getPersonList().stream()
-                            .filter(person -> person.getAppointment() != null
-                                    && subBoothIdSetMap.get(person.getAppointment().getVaccinationCenter())
-                                    .contains(person.getAppointment().getBoothId()))
-                            .collect(Collectors.toList());
-
-                    List<Person> unassignedPersonList = personList.stream()
-                            .filter(person -> person.getAppointment() == null)
-                            .collect(Collectors.toList());
-                    int pageLength = unassignedPersonList.size() * APPOINTMENT_PAGE_LIMIT / appointmentListSize;
-                    personList.addAll(unassignedPersonList.subList(page * pageLength,
-                            Math.min(unassignedPersonList.size(), (page + 1) * pageLength)));
-                }
-                VaccinationSchedule pagedSchedule = new VaccinationSchedule(
-                        vaccineTypeList, vaccinationCenterList, appointmentList, personList);
-                pagedSchedule.setScore(schedule.getScore());
-                pagedSchedule.setSolverStatus(schedule.getSolverStatus());
-                return pagedSchedule;
-            }
+            schedule = vaccinationScheduleRepository.findPageIndex().getPage(page);
+        } else {
+            schedule = vaccinationScheduleRepository.find();
         }
+        schedule.setSolverStatus(solverStatus);
         return schedule;
     }
 
+    // To try, open http://localhost:8080/vaccinationSchedule/persons.csv
+    @GET
+    @Path("persons.csv")
+    @Produces("text/csv")
+    public StreamingOutput exportPersons() {
+        VaccinationSchedule schedule = vaccinationScheduleRepository.find();
+        return outputStream -> new VaccinationScheduleCsvIO().writePersons(schedule, outputStream);
+    }
+
     @POST
     @Path("solve")
     public void solve() {
+        if (regionSolverManager != null) {
+            // The regions change the persons of the saved schedule in place, so under the lock of the repository
+            regionSolverManager.solve(vaccinationScheduleRepository.find(), vaccinationScheduleRepository.getLock(),
+                    vaccinationScheduleRepository::save);
+            return;
+        }
         solverManager.solveAndListen(1L,
                 (problemId) -> {
                     VaccinationSchedule schedule = vaccinationScheduleRepository.find();
                     return new VaccinationSolution(schedule);
                 },
                 vaccinationSolution -> {
-                    vaccinationScheduleRepository.save(vaccinationSolution.toSchedule());
+                    // Translated into a schedule when a client reads it
+                    vaccinationScheduleRepository.save(vaccinationSolution);
                 });
     }
 
     public SolverStatus getSolverStatus() {
+        if (regionSolverManager != null) {
+            return regionSolverManager.getSolverStatus();
+        }
         return solverManager.getSolverStatus(1L);
     }
 
     @POST
     @Path("stopSolving")
     public void stopSolving() {
+        if (regionSolverManager != null) {
+            regionSolverManager.terminateEarly();
+            return;
+        }
         solverManager.terminateEarly(1L);
     }
 
@@ -0,0 +1,100 @@
+package org.acme.vaccinationscheduler.solver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.acme.vaccinationscheduler.domain.solver.PersonAssignment;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSlot;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSolution;
+import org.optaplanner.core.api.domain.variable.VariableListener;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+
+/**
+ * Keeps {@link VaccinationSlot#getAssignedCount()} in sync with the persons assigned to each slot.
+ * <p>
+ * The before events are delivered immediately, but the after events only when the variable listeners are triggered,
+ * so the slot a person is counted in is remembered from the first before event until its after event.
+ */
+public class AssignedCountUpdatingVariableListener implements VariableListener<VaccinationSolution, PersonAssignment> {
+
+    // The slot each changing person is still counted in, null if it was unassigned
+    private final Map<PersonAssignment, VaccinationSlot> countedSlotMap = new HashMap<>();
+
+    @Override
+    public boolean requiresUniqueEntityEvents() {
+        // A person that changes twice before the listeners are triggered must only be counted once
+        return true;
+    }
+
+    @Override
+    public void resetWorkingSolution(ScoreDirector<VaccinationSolution> scoreDirector) {
+        countedSlotMap.clear();
+        VaccinationSolution solution = scoreDirector.getWorkingSolution();
+        // Called before the score director calculates any score, so no need to notify it
+        for (VaccinationSlot vaccinationSlot : solution.getVaccinationSlotList()) {
+            vaccinationSlot.setAssignedCount(0);
+        }
+        for (PersonAssignment personAssignment : solution.getPersonAssignmentList()) {
+            VaccinationSlot vaccinationSlot = personAssignment.getVaccinationSlot();
+            if (vaccinationSlot != null) {
+                vaccinationSlot.setAssignedCount(vaccinationSlot.getAssignedCount() + 1);
+            }
+        }
+    }
+
+    @Override
+    public void beforeEntityAdded(ScoreDirector<VaccinationSolution> scoreDirector, PersonAssignment personAssignment) {
+        // Do nothing
+    }
+
+    @Override
+    public void afterEntityAdded(ScoreDirector<VaccinationSolution> scoreDirector, PersonAssignment personAssignment) {
+        updateAssignedCount(scoreDirector, personAssignment.getVaccinationSlot(), 1);
+    }
+
+    @Override
+    public void beforeVariableChanged(ScoreDirector<VaccinationSolution> scoreDirector,
+            PersonAssignment personAssignment) {
+        countedSlotMap.putIfAbsent(personAssignment, personAssignment.getVaccinationSlot());
+    }
+
+    @Override
+    public void afterVariableChanged(ScoreDirector<VaccinationSolution> scoreDirector,
+            PersonAssignment personAssignment) {
+        if (!countedSlotMap.containsKey(personAssignment)) {
+            return;
+        }
+        VaccinationSlot countedSlot = countedSlotMap.remove(personAssignment);
+        VaccinationSlot vaccinationSlot = personAssignment.getVaccinationSlot();
+        if (countedSlot != vaccinationSlot) {
+            updateAssignedCount(scoreDirector, countedSlot, -1);
+            updateAssignedCount(scoreDirector, vaccinationSlot, 1);
+        }
+    }
+
+    @Override
+    public void beforeEntityRemoved(ScoreDirector<VaccinationSolution> scoreDirector,
+            PersonAssignment personAssignment) {
+        VaccinationSlot countedSlot = countedSlotMap.containsKey(personAssignment)
+                ? countedSlotMap.remove(personAssignment)
+                : personAssignment.getVaccinationSlot();
+        updateAssignedCount(scoreDirector, countedSlot, -1);
+    }
+
+    @Override
+    public void afterEntityRemoved(ScoreDirector<VaccinationSolution> scoreDirector,
+            PersonAssignment personAssignment) {
+        // Do nothing
+    }
+
+    protected void updateAssignedCount(ScoreDirector<VaccinationSolution> scoreDirector,
+            VaccinationSlot vaccinationSlot, int delta) {
+        if (vaccinationSlot == null) {
+            return;
+        }
+        scoreDirector.beforeVariableChanged(vaccinationSlot, "assignedCount");
+        vaccinationSlot.setAssignedCount(vaccinationSlot.getAssignedCount() + delta);
+        scoreDirector.afterVariableChanged(vaccinationSlot, "assignedCount");
+    }
+
+}
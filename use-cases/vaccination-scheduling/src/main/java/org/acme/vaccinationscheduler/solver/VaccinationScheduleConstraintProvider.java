@@ -5,10 +5,11 @@ import static java.time.temporal.ChronoUnit.MINUTES;
 
 import java.time.LocalDateTime;
 
+import org.acme.common.solver.ConstraintProfiler;
 import org.acme.vaccinationscheduler.domain.solver.PersonAssignment;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSlot;
 import org.optaplanner.core.api.score.buildin.bendablelong.BendableLongScore;
 import org.optaplanner.core.api.score.stream.Constraint;
-import org.optaplanner.core.api.score.stream.ConstraintCollectors;
 import org.optaplanner.core.api.score.stream.ConstraintFactory;
 import org.optaplanner.core.api.score.stream.ConstraintProvider;
 
@@ -19,6 +20,8 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
 
     private static final LocalDateTime COVID_EPOCH = LocalDateTime.of(2021, 1, 1, 0, 0);
 
+    private final ConstraintProfiler profiler = ConstraintProfiler.create();
+
     private BendableLongScore ofHard(long hardScore) {
         return BendableLongScore.ofHard(HARD_LEVELS_SIZE, SOFT_LEVELS_SIZE, 0, hardScore);
     }
@@ -57,11 +60,13 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
 
     Constraint vaccinationSlotCapacity(ConstraintFactory constraintFactory) {
         return constraintFactory
-                .forEach(PersonAssignment.class)
-                .groupBy(PersonAssignment::getVaccinationSlot, ConstraintCollectors.count())
-                .filter((vaccinationSlot, personCount) -> personCount > vaccinationSlot.getCapacity())
+                // The assigned count is kept up to date by a variable listener, which is cheaper than a groupBy()
+                .forEach(VaccinationSlot.class)
+                .filter(profiler.filter("Vaccination slot capacity",
+                        vaccinationSlot -> vaccinationSlot.getAssignedCount() > vaccinationSlot.getCapacity()))
                 .penalizeLong(ofHard(1_000),
-                        (vaccinationSlot, personCount) -> personCount - vaccinationSlot.getCapacity())
+                        profiler.weighLong("Vaccination slot capacity",
+                                vaccinationSlot -> vaccinationSlot.getAssignedCount() - vaccinationSlot.getCapacity()))
                 .asConstraint("Vaccination slot capacity");
     }
 
@@ -69,8 +74,9 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // Typical usage: if a person is coming for their 2nd dose, use the same vaccine type as their 1st dose.
         return constraintFactory
                 .forEach(PersonAssignment.class)
-                .filter((personAssignment -> personAssignment.getRequiredVaccineType() != null
-                        && personAssignment.getVaccinationSlot().getVaccineType() != personAssignment.getRequiredVaccineType()))
+                .filter(profiler.filter("Required vaccine type",
+                        personAssignment -> personAssignment.getRequiredVaccineType() != null
+                                && personAssignment.getVaccinationSlot().getVaccineType() != personAssignment.getRequiredVaccineType()))
                 .penalize(ofHard(10_000_000))
                 .asConstraint("Required vaccine type");
     }
@@ -79,8 +85,9 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // Typical usage: if a person is coming for their 2nd dose, enforce the same vaccination center as their 1st dose.
         return constraintFactory
                 .forEach(PersonAssignment.class)
-                .filter((personAssignment -> personAssignment.getRequiredVaccinationCenter() != null
-                        && personAssignment.getVaccinationSlot().getVaccinationCenter() != personAssignment.getRequiredVaccinationCenter()))
+                .filter(profiler.filter("Required vaccination center",
+                        personAssignment -> personAssignment.getRequiredVaccinationCenter() != null
+                                && personAssignment.getVaccinationSlot().getVaccinationCenter() != personAssignment.getRequiredVaccinationCenter()))
                 .penalize(ofHard(1_000_000))
                 .asConstraint("Required vaccination center");
     }
@@ -89,13 +96,15 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // Don't inject too young people with a vaccine that has minimum age
         return constraintFactory
                 .forEach(PersonAssignment.class)
-                .filter(personAssignment -> personAssignment.getVaccinationSlot().getVaccineType().getMaximumAge() != null
-                        && personAssignment.getAgeOnVaccinationDate()
-                        < personAssignment.getVaccinationSlot().getVaccineType().getMinimumAge()
-                        && personAssignment.getRequiredVaccineType() == null)
+                .filter(profiler.filter("Minimum age of vaccination type",
+                        personAssignment -> personAssignment.getVaccinationSlot().getVaccineType().getMaximumAge() != null
+                                && personAssignment.getAgeOnVaccinationDate()
+                                < personAssignment.getVaccinationSlot().getVaccineType().getMinimumAge()
+                                && personAssignment.getRequiredVaccineType() == null))
                 .penalizeLong(ofHard(1),
-                        personAssignment -> personAssignment.getVaccinationSlot().getVaccineType().getMinimumAge()
-                                - personAssignment.getAgeOnVaccinationDate())
+                        profiler.weighLong("Minimum age of vaccination type",
+                                personAssignment -> personAssignment.getVaccinationSlot().getVaccineType().getMinimumAge()
+                                        - personAssignment.getAgeOnVaccinationDate()))
                 .asConstraint("Minimum age of vaccination type");
     }
 
@@ -103,14 +112,16 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // Don't inject with a vaccine that has maximum age people over that age
         return constraintFactory
                 .forEach(PersonAssignment.class)
-                .filter(personAssignment -> personAssignment.getVaccinationSlot().getVaccineType().getMaximumAge() != null
-                        && personAssignment.getAgeOnVaccinationDate()
-                        > personAssignment.getVaccinationSlot().getVaccineType().getMaximumAge()
-                        // If the 1th dose was a max 55 year vaccine, then it's ok to inject someone who only turned 56 last week with it
-                        && personAssignment.getRequiredVaccineType() == null)
+                .filter(profiler.filter("Maximum age of vaccination type",
+                        personAssignment -> personAssignment.getVaccinationSlot().getVaccineType().getMaximumAge() != null
+                                && personAssignment.getAgeOnVaccinationDate()
+                                > personAssignment.getVaccinationSlot().getVaccineType().getMaximumAge()
+                                // If the 1th dose was a max 55 year vaccine, then it's ok to inject someone who only turned 56 last week with it
+                                && personAssignment.getRequiredVaccineType() == null))
                 .penalizeLong(ofHard(1),
-                        personAssignment -> personAssignment.getAgeOnVaccinationDate()
-                                - personAssignment.getVaccinationSlot().getVaccineType().getMaximumAge())
+                        profiler.weighLong("Maximum age of vaccination type",
+                                personAssignment -> personAssignment.getAgeOnVaccinationDate()
+                                        - personAssignment.getVaccinationSlot().getVaccineType().getMaximumAge()))
                 .asConstraint("Maximum age of vaccination type");
     }
 
@@ -122,11 +133,13 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // and also prohibit gamification (to get an earlier appointment).
         return constraintFactory
                 .forEach(PersonAssignment.class)
-                .filter(personAssignment -> personAssignment.getReadyDate() != null
-                        && personAssignment.getVaccinationSlot().getDate().compareTo(personAssignment.getReadyDate()) < 0)
+                .filter(profiler.filter("Ready date",
+                        personAssignment -> personAssignment.getReadyDate() != null
+                                && personAssignment.getVaccinationSlot().getDate().compareTo(personAssignment.getReadyDate()) < 0))
                 .penalizeLong(ofHard(1),
-                        personAssignment -> DAYS.between(personAssignment.getVaccinationSlot().getDate(),
-                                personAssignment.getReadyDate()))
+                        profiler.weighLong("Ready date",
+                                personAssignment -> DAYS.between(personAssignment.getVaccinationSlot().getDate(),
+                                        personAssignment.getReadyDate())))
                 .asConstraint("Ready date");
     }
 
@@ -135,11 +148,13 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // For example, Pfizer is due to be injected 3 months after the first dose.
         return constraintFactory
                 .forEach(PersonAssignment.class)
-                .filter(personAssignment -> personAssignment.getDueDate() != null
-                        && personAssignment.getVaccinationSlot().getDate().compareTo(personAssignment.getDueDate()) > 0)
+                .filter(profiler.filter("Due date",
+                        personAssignment -> personAssignment.getDueDate() != null
+                                && personAssignment.getVaccinationSlot().getDate().compareTo(personAssignment.getDueDate()) > 0))
                 .penalizeLong(ofHard(1),
-                        personAssignment -> DAYS.between(personAssignment.getDueDate(),
-                                personAssignment.getVaccinationSlot().getDate()))
+                        profiler.weighLong("Due date",
+                                personAssignment -> DAYS.between(personAssignment.getDueDate(),
+                                        personAssignment.getVaccinationSlot().getDate())))
                 .asConstraint("Due date");
     }
 
@@ -154,9 +169,11 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         return constraintFactory
                 .forEachIncludingNullVars(PersonAssignment.class)
                 // TODO filter for ideal date is earlier or equal to planning window last day
-                .filter(personAssignment -> personAssignment.getDoseNumber() > 1 && personAssignment.getVaccinationSlot() == null)
+                .filter(profiler.filter("Schedule second (or later) dose people",
+                        personAssignment -> personAssignment.getDoseNumber() > 1 && personAssignment.getVaccinationSlot() == null))
                 .penalizeLong(ofSoft(0, 1),
-                        personAssignment -> personAssignment.getDoseNumber() - 1)
+                        profiler.weighLong("Schedule second (or later) dose people",
+                                personAssignment -> personAssignment.getDoseNumber() - 1))
                 .asConstraint("Schedule second (or later) dose people");
     }
 
@@ -165,11 +182,13 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // Priority rating is a person's age augmented by a few hundred points if they're a healthcare worker.
         return constraintFactory
                 .forEachIncludingNullVars(PersonAssignment.class)
-                .filter(personAssignment -> personAssignment.getVaccinationSlot() == null)
+                .filter(profiler.filter("Schedule higher priority rating people",
+                        personAssignment -> personAssignment.getVaccinationSlot() == null))
                 // This is softer than scheduleSecondOrLaterDosePeople()
                 // to avoid creating a backlog of 2nd dose persons, that would grow too big to respect due dates.
                 .penalizeLong(ofSoft(1, 1),
-                        PersonAssignment::getPriorityRating)
+                        profiler.weighLong("Schedule higher priority rating people",
+                                PersonAssignment::getPriorityRating))
                 .asConstraint("Schedule higher priority rating people");
     }
 
@@ -181,8 +200,9 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // Typical usage: if a person can pick a favorite vaccine type
         return constraintFactory
                 .forEach(PersonAssignment.class)
-                .filter((personAssignment -> personAssignment.getPreferredVaccineType() != null
-                        && personAssignment.getVaccinationSlot().getVaccineType() != personAssignment.getPreferredVaccineType()))
+                .filter(profiler.filter("Preferred vaccine type",
+                        personAssignment -> personAssignment.getPreferredVaccineType() != null
+                                && personAssignment.getVaccinationSlot().getVaccineType() != personAssignment.getPreferredVaccineType()))
                 .penalize(ofSoft(2, 1_000_000_000))
                 .asConstraint("Preferred vaccine type");
     }
@@ -191,8 +211,9 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // Typical usage: if a person is coming for their 2nd dose, prefer the same vaccination center as their 1st dose.
         return constraintFactory
                 .forEach(PersonAssignment.class)
-                .filter((personAssignment -> personAssignment.getPreferredVaccinationCenter() != null
-                        && personAssignment.getVaccinationSlot().getVaccinationCenter() != personAssignment.getPreferredVaccinationCenter()))
+                .filter(profiler.filter("Preferred vaccination center",
+                        personAssignment -> personAssignment.getPreferredVaccinationCenter() != null
+                                && personAssignment.getVaccinationSlot().getVaccinationCenter() != personAssignment.getPreferredVaccinationCenter()))
                 // TODO ignore the distance cost instead
                 .penalize(ofSoft(2, 1_000_000_000))
                 .asConstraint("Preferred vaccination center");
@@ -204,12 +225,13 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         return constraintFactory
                 .forEach(PersonAssignment.class)
                 .penalizeLong(ofSoft(2, 1),
-                        personAssignment -> {
-                            long regretDistance = personAssignment.getRegretDistanceTo(
-                                    personAssignment.getVaccinationSlot().getVaccinationCenter());
-                            // Penalize outliers more for fairness
-                            return regretDistance * regretDistance;
-                        })
+                        profiler.weighLong("Regret distance cost",
+                                personAssignment -> {
+                                    long regretDistance = personAssignment.getRegretDistanceTo(
+                                            personAssignment.getVaccinationSlot().getVaccinationCenter());
+                                    // Penalize outliers more for fairness
+                                    return regretDistance * regretDistance;
+                                }))
                 .asConstraint("Regret distance cost");
     }
 
@@ -218,17 +240,19 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
         // For example, Pfizer is ideally injected 21 days after the first dose. Moderna after 28 days.
         return constraintFactory
                 .forEach(PersonAssignment.class)
-                .filter(personAssignment -> personAssignment.getIdealDate() != null
-                        && !personAssignment.getIdealDate().equals(personAssignment.getVaccinationSlot().getDate()))
+                .filter(profiler.filter("Ideal date",
+                        personAssignment -> personAssignment.getIdealDate() != null
+                                && !personAssignment.getIdealDate().equals(personAssignment.getVaccinationSlot().getDate())))
                 // This constraint is softer than distanceCost() to avoid sending people
                 // half-way across the country just to be one day closer to their ideal date.
                 .penalizeLong(ofSoft(3, 1),
-                        personAssignment -> {
-                            long daysDiff = DAYS.between(personAssignment.getIdealDate(),
-                                    personAssignment.getVaccinationSlot().getDate());
-                            // Penalize outliers more for fairness
-                            return daysDiff * daysDiff;
-                        })
+                        profiler.weighLong("Ideal date",
+                                personAssignment -> {
+                                    long daysDiff = DAYS.between(personAssignment.getIdealDate(),
+                                            personAssignment.getVaccinationSlot().getDate());
+                                    // Penalize outliers more for fairness
+                                    return daysDiff * daysDiff;
+                                }))
                 .asConstraint("Ideal date");
     }
 
@@ -241,8 +265,9 @@ public class VaccinationScheduleConstraintProvider implements ConstraintProvider
                 // This constraint is softer than distanceCost() to avoid sending people
                 // half-way across the country just to get their vaccine one day earlier.
                 .penalizeLong(ofSoft(4, 1),
-                        personAssignment -> personAssignment.getPriorityRating()
-                                * MINUTES.between(COVID_EPOCH, personAssignment.getVaccinationSlot().getStartDateTime()))
+                        profiler.weighLong("Higher priority rating earlier",
+                                personAssignment -> personAssignment.getPriorityRating()
+                                        * MINUTES.between(COVID_EPOCH, personAssignment.getVaccinationSlot().getStartDateTime())))
                 .asConstraint("Higher priority rating earlier");
     }
 
@@ -11,13 +11,14 @@ public interface DistanceCalculator {
      * Typically much more scalable than {@link #calculateDistance(Location, Location)} iteratively.
      * @param fromLocations never null
      * @param toLocations never null
-     * @return never null
+     * @return never null, the distance from {@code fromLocations[i]} to {@code toLocations[j]}
+     * is at index {@code i * toLocations.length + j}
      */
-    default long[][] calculateBulkDistance(Location[] fromLocations, Location[] toLocations) {
-        long[][] distanceMatrix = new long[fromLocations.length][toLocations.length];
+    default long[] calculateBulkDistance(Location[] fromLocations, Location[] toLocations) {
+        long[] distanceMatrix = new long[Math.multiplyExact(fromLocations.length, toLocations.length)];
         for (int i = 0; i < fromLocations.length; i++) {
             for (int j = 0; j < toLocations.length; j++) {
-                distanceMatrix[i][j] = calculateDistance(fromLocations[i], toLocations[j]);
+                distanceMatrix[i * toLocations.length + j] = calculateDistance(fromLocations[i], toLocations[j]);
             }
         }
         return distanceMatrix;
@@ -1,15 +1,14 @@
 package org.acme.vaccinationscheduler.solver.optional;
 
-import static java.time.temporal.ChronoUnit.DAYS;
-import static java.time.temporal.ChronoUnit.YEARS;
-import static java.util.stream.Collectors.groupingBy;
-
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.LinkedHashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.acme.vaccinationscheduler.domain.VaccinationCenter;
 import org.acme.vaccinationscheduler.domain.VaccineType;
@@ -22,147 +21,310 @@ import org.optaplanner.core.impl.phase.custom.CustomPhaseCommand;
 
 /**
  * Power specialized custom Construction Heuristic.
+ * <p>
+ * Assigns each person, most difficult first, to the first available slot
+ * of the nearest vaccination center, the first vaccine type by name and the date nearest to the ideal date.
+ * <p>
+ * To scale to 1M persons, the slots are indexed in arrays by vaccination center, vaccine type and date
+ * and their availability is tracked in an {@code int[]}.
+ * The persons are handled in chunks: the order of the centers and dates of each person in a chunk
+ * is computed in parallel, after which the persons of that chunk are assigned sequentially,
+ * because they compete for the same slots.
  */
 public class VaccinationCustomConstructionHeuristic implements CustomPhaseCommand<VaccinationSolution> {
 
+    private static final int CHUNK_SIZE = 10_000;
+
     @Override
     public void changeWorkingSolution(ScoreDirector<VaccinationSolution> scoreDirector) {
         VaccinationSolution schedule = scoreDirector.getWorkingSolution();
-
-        // Index the VaccinationSlot instances by vaccinationCenter, vaccineType and date
-        Map<VaccinationCenter, Map<VaccineType, Map<LocalDate, Map<VaccinationSlot, Integer>>>> vaccinationCenterToSlotMap
-                = schedule.getVaccinationSlotList().stream()
-                .sorted(Comparator
-                        .comparing((VaccinationSlot vaccinationSlot) -> vaccinationSlot.getVaccineType().getName())
-                        .thenComparing(VaccinationSlot::getDate)
-                        .thenComparing(VaccinationSlot::getStartTime))
-                .collect(groupingBy(VaccinationSlot::getVaccinationCenter, LinkedHashMap::new,
-                        groupingBy(VaccinationSlot::getVaccineType, LinkedHashMap::new,
-                                groupingBy(VaccinationSlot::getDate,
-                                        LinkedHashMap::new, Collectors.toMap(
-                                                vaccinationSlot -> vaccinationSlot, VaccinationSlot::getCapacity,
-                                                (key, value) -> {
-                                                    throw new IllegalStateException("Duplicate key (" + key + ").");
-                                                },
-                                                LinkedHashMap::new)))));
+        SlotIndex slotIndex = new SlotIndex(schedule);
         schedule.getPersonAssignmentList().stream()
-                .filter(person -> person.getVaccinationSlot() != null)
-                .forEach(person ->  {
-            VaccinationSlot vaccinationSlot = person.getVaccinationSlot();
-            VaccinationCenter vaccinationCenter = vaccinationSlot.getVaccinationCenter();
-            Map<VaccineType, Map<LocalDate, Map<VaccinationSlot, Integer>>> vaccineTypeToSlotMap
-                    = vaccinationCenterToSlotMap.get(vaccinationCenter);
-            VaccineType vaccineType = vaccinationSlot.getVaccineType();
-            Map<LocalDate, Map<VaccinationSlot, Integer>> dateToSlotMap = vaccineTypeToSlotMap.get(vaccineType);
-            LocalDate date = vaccinationSlot.getDate();
-            Map<VaccinationSlot, Integer> slotToAvailabilityMap = dateToSlotMap.get(date);
-            int availability = slotToAvailabilityMap.get(vaccinationSlot);
-            reduceAvailability(vaccinationCenterToSlotMap, vaccinationCenter,
-                    vaccineTypeToSlotMap, vaccineType,
-                    dateToSlotMap, date,
-                    slotToAvailabilityMap, vaccinationSlot,
-                    availability);
-        });
+                .map(PersonAssignment::getVaccinationSlot)
+                .filter(vaccinationSlot -> vaccinationSlot != null)
+                .forEach(slotIndex::reduceAvailability);
         List<PersonAssignment> personList = schedule.getPersonAssignmentList().stream()
                 .filter(person -> !person.isPinned() && person.getVaccinationSlot() == null)
                 .sorted(new PersonAssignmentDifficultyComparator().reversed())
                 .collect(Collectors.toList());
-        for (PersonAssignment person : personList) {
-            VaccinationSlot vaccinationSlot = findAvailableVaccinationSlot(scoreDirector, vaccinationCenterToSlotMap, person);
-            if (vaccinationSlot != null) {
-                scoreDirector.beforeVariableChanged(person, "vaccinationSlot");
-                person.setVaccinationSlot(vaccinationSlot);
-                scoreDirector.afterVariableChanged(person, "vaccinationSlot");
-                scoreDirector.triggerVariableListeners();
+        for (int chunkStart = 0; chunkStart < personList.size(); chunkStart += CHUNK_SIZE) {
+            List<PersonAssignment> chunk = personList.subList(chunkStart,
+                    Math.min(chunkStart + CHUNK_SIZE, personList.size()));
+            List<Candidates> candidatesList = chunk.parallelStream()
+                    .map(slotIndex::buildCandidates)
+                    .collect(Collectors.toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                VaccinationSlot vaccinationSlot = slotIndex.takeAvailableVaccinationSlot(candidatesList.get(i));
+                if (vaccinationSlot != null) {
+                    PersonAssignment person = chunk.get(i);
+                    scoreDirector.beforeVariableChanged(person, "vaccinationSlot");
+                    person.setVaccinationSlot(vaccinationSlot);
+                    scoreDirector.afterVariableChanged(person, "vaccinationSlot");
+                }
             }
         }
+        // Once for all persons, the assigned counts of the slots don't influence which slot is available
+        scoreDirector.triggerVariableListeners();
     }
 
-    private VaccinationSlot findAvailableVaccinationSlot(ScoreDirector<VaccinationSolution> scoreDirector,
-            Map<VaccinationCenter, Map<VaccineType, Map<LocalDate, Map<VaccinationSlot, Integer>>>> vaccinationCenterToSlotMap,
-            PersonAssignment person) {
-        // Iterate the nearest VaccinationCenters to the person first.
-        List<VaccinationCenter> vaccinationCenterList = vaccinationCenterToSlotMap.keySet().stream()
-                .sorted(Comparator
-                        .comparing((VaccinationCenter vaccinationCenter) -> person.getRequiredVaccinationCenter() != vaccinationCenter)
-                        .thenComparing((VaccinationCenter vaccinationCenter) -> person.getPreferredVaccinationCenter() != vaccinationCenter)
-                        .thenComparing(person::getDistanceTo))
-                .collect(Collectors.toList());
+    /**
+     * The order in which a person tries the vaccination centers and, per vaccine type, the dates.
+     */
+    private static final class Candidates {
+
+        private final int[] vaccinationCenterIndexes;
+        // Null for a vaccine type that the person can't get
+        private final int[][] dateIndexesByVaccineType;
+
+        private Candidates(int[] vaccinationCenterIndexes, int[][] dateIndexesByVaccineType) {
+            this.vaccinationCenterIndexes = vaccinationCenterIndexes;
+            this.dateIndexesByVaccineType = dateIndexesByVaccineType;
+        }
+
+    }
+
+    /**
+     * Indexes the slots in buckets by vaccination center, vaccine type and date.
+     * A bucket holds its slots by start time.
+     */
+    private static final class SlotIndex {
+
+        private final List<VaccinationSlot> vaccinationSlotList;
+        private final Map<VaccinationSlot, Integer> slotIndexMap;
+        private final List<VaccinationCenter> vaccinationCenterList;
+        private final List<VaccineType> vaccineTypeList;
+        private final int vaccineTypeCount;
+        private final int dateCount;
+        // By date index
+        private final long[] dateEpochDays;
+        private final int[] dateYears;
+        private final int[] dateMonthDays;
 
-        for (VaccinationCenter vaccinationCenter : vaccinationCenterList) {
-            Map<VaccineType, Map<LocalDate, Map<VaccinationSlot, Integer>>> vaccineTypeToSlotMap
-                    = vaccinationCenterToSlotMap.get(vaccinationCenter);
-            for (Map.Entry<VaccineType, Map<LocalDate, Map<VaccinationSlot, Integer>>> vaccineTypeEntry : vaccineTypeToSlotMap.entrySet()) {
-                VaccineType vaccineType = vaccineTypeEntry.getKey();
+        // By bucket index, see bucketIndex()
+        private final int[][] bucketSlotIndexes;
+        private final int[] bucketAvailability;
+        // The first slot of a bucket that might still be available, never decreases
+        private final int[] bucketCursors;
+        // By vaccination center index
+        private final int[] vaccinationCenterAvailability;
+        // By slot index
+        private final int[] slotBucketIndexes;
+        private final int[] slotAvailability;
+
+        private SlotIndex(VaccinationSolution schedule) {
+            vaccinationSlotList = schedule.getVaccinationSlotList();
+            vaccinationCenterList = schedule.getVaccinationCenterList();
+            for (int i = 0; i < vaccinationCenterList.size(); i++) {
+                if (vaccinationCenterList.get(i).getIndex() != i) {
+                    throw new IllegalStateException("The vaccinationCenter (" + vaccinationCenterList.get(i)
+                            + ") has an index (" + vaccinationCenterList.get(i).getIndex()
+                            + ") that differs from its position (" + i + ") in the vaccinationCenterList.");
+                }
+            }
+            vaccineTypeList = vaccinationSlotList.stream()
+                    .map(VaccinationSlot::getVaccineType)
+                    .distinct()
+                    .sorted(Comparator.comparing(VaccineType::getName))
+                    .collect(Collectors.toList());
+            for (int i = 1; i < vaccineTypeList.size(); i++) {
+                if (vaccineTypeList.get(i - 1).getName().equals(vaccineTypeList.get(i).getName())) {
+                    throw new IllegalStateException("Don't have 2 VaccineType with the same name ("
+                            + vaccineTypeList.get(i).getName() + ") instances in your input data.");
+                }
+            }
+            vaccineTypeCount = vaccineTypeList.size();
+            List<LocalDate> dateList = vaccinationSlotList.stream()
+                    .map(VaccinationSlot::getDate)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+            dateCount = dateList.size();
+            dateEpochDays = dateList.stream().mapToLong(LocalDate::toEpochDay).toArray();
+            dateYears = dateList.stream().mapToInt(LocalDate::getYear).toArray();
+            dateMonthDays = dateList.stream().mapToInt(VaccinationSlot::toMonthDay).toArray();
+
+            slotIndexMap = new IdentityHashMap<>(vaccinationSlotList.size());
+            slotBucketIndexes = new int[vaccinationSlotList.size()];
+            slotAvailability = new int[vaccinationSlotList.size()];
+            int bucketCount = vaccinationCenterList.size() * vaccineTypeCount * dateCount;
+            List<List<Integer>> bucketSlotIndexLists = new ArrayList<>(bucketCount);
+            for (int i = 0; i < bucketCount; i++) {
+                bucketSlotIndexLists.add(new ArrayList<>());
+            }
+            Map<VaccineType, Integer> vaccineTypeIndexMap = new IdentityHashMap<>(vaccineTypeCount);
+            for (int i = 0; i < vaccineTypeCount; i++) {
+                vaccineTypeIndexMap.put(vaccineTypeList.get(i), i);
+            }
+            int[] slotIndexesByStartTime = IntStream.range(0, vaccinationSlotList.size()).boxed()
+                    .sorted(Comparator.comparing(i -> vaccinationSlotList.get(i).getStartTime()))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            for (int slotIndex : slotIndexesByStartTime) {
+                VaccinationSlot vaccinationSlot = vaccinationSlotList.get(slotIndex);
+                slotIndexMap.put(vaccinationSlot, slotIndex);
+                slotAvailability[slotIndex] = vaccinationSlot.getCapacity();
+                int bucketIndex = bucketIndex(vaccinationSlot.getVaccinationCenter().getIndex(),
+                        vaccineTypeIndexMap.get(vaccinationSlot.getVaccineType()),
+                        Arrays.binarySearch(dateEpochDays, vaccinationSlot.getDate().toEpochDay()));
+                slotBucketIndexes[slotIndex] = bucketIndex;
+                bucketSlotIndexLists.get(bucketIndex).add(slotIndex);
+            }
+            bucketSlotIndexes = new int[bucketCount][];
+            bucketAvailability = new int[bucketCount];
+            bucketCursors = new int[bucketCount];
+            vaccinationCenterAvailability = new int[vaccinationCenterList.size()];
+            for (int bucketIndex = 0; bucketIndex < bucketCount; bucketIndex++) {
+                bucketSlotIndexes[bucketIndex] = bucketSlotIndexLists.get(bucketIndex).stream()
+                        .mapToInt(Integer::intValue).toArray();
+                for (int slotIndex : bucketSlotIndexes[bucketIndex]) {
+                    bucketAvailability[bucketIndex] += slotAvailability[slotIndex];
+                }
+                vaccinationCenterAvailability[bucketIndex / (vaccineTypeCount * dateCount)]
+                        += bucketAvailability[bucketIndex];
+            }
+        }
+
+        private int bucketIndex(int vaccinationCenterIndex, int vaccineTypeIndex, int dateIndex) {
+            return (vaccinationCenterIndex * vaccineTypeCount + vaccineTypeIndex) * dateCount + dateIndex;
+        }
+
+        private void reduceAvailability(VaccinationSlot vaccinationSlot) {
+            Integer slotIndex = slotIndexMap.get(vaccinationSlot);
+            if (slotIndex == null) {
+                throw new IllegalStateException("The vaccinationSlot (" + vaccinationSlot
+                        + ") is not part of the solution's vaccinationSlotList.");
+            }
+            if (slotAvailability[slotIndex] <= 0) {
+                // Overbooked by the pre-set appointments, nothing left to reduce
+                return;
+            }
+            slotAvailability[slotIndex]--;
+            bucketAvailability[slotBucketIndexes[slotIndex]]--;
+            vaccinationCenterAvailability[vaccinationSlot.getVaccinationCenter().getIndex()]--;
+        }
+
+        /**
+         * Thread-safe, it only reads the index.
+         */
+        private Candidates buildCandidates(PersonAssignment person) {
+            VaccinationCenter requiredVaccinationCenter = person.getRequiredVaccinationCenter();
+            int[] vaccinationCenterIndexes;
+            if (requiredVaccinationCenter != null) {
+                // Like the person's vaccination slot range, never try another vaccination center
+                vaccinationCenterIndexes = new int[] { requiredVaccinationCenter.getIndex() };
+            } else {
+                // Iterate the nearest VaccinationCenters to the person first.
+                VaccinationCenter preferredVaccinationCenter = person.getPreferredVaccinationCenter();
+                vaccinationCenterIndexes = new int[vaccinationCenterList.size()];
+                long[] distances = new long[vaccinationCenterList.size()];
+                for (int i = 0; i < distances.length; i++) {
+                    VaccinationCenter vaccinationCenter = vaccinationCenterList.get(i);
+                    vaccinationCenterIndexes[i] = i;
+                    distances[i] = vaccinationCenter == preferredVaccinationCenter ? -1L
+                            : person.getDistanceTo(vaccinationCenter);
+                }
+                sortByKey(vaccinationCenterIndexes, vaccinationCenterIndexes.length, distances);
+            }
+            int[][] dateIndexesByVaccineType = new int[vaccineTypeCount][];
+            VaccineType requiredVaccineType = person.getRequiredVaccineType();
+            LocalDate readyDate = person.getReadyDate();
+            LocalDate dueDate = person.getDueDate();
+            long readyEpochDay = readyDate == null ? Long.MIN_VALUE : readyDate.toEpochDay();
+            long dueEpochDay = dueDate == null ? Long.MAX_VALUE : dueDate.toEpochDay();
+            LocalDate idealDate = person.getIdealDate();
+            long[] idealDateDistances = null;
+            if (idealDate != null) {
+                long idealEpochDay = idealDate.toEpochDay();
+                idealDateDistances = new long[dateCount];
+                for (int dateIndex = 0; dateIndex < dateCount; dateIndex++) {
+                    idealDateDistances[dateIndex] = Math.abs(dateEpochDays[dateIndex] - idealEpochDay);
+                }
+            }
+            int[] dateIndexes = new int[dateCount];
+            for (int vaccineTypeIndex = 0; vaccineTypeIndex < vaccineTypeCount; vaccineTypeIndex++) {
+                VaccineType vaccineType = vaccineTypeList.get(vaccineTypeIndex);
                 // Skip all slots with the wrong vaccineType
-                if (person.getRequiredVaccineType() != null && person.getRequiredVaccineType() != vaccineType) {
-                    if (person.getRequiredVaccineType().getName().equals(vaccineType.getName())) {
-                        throw new IllegalStateException("Don't have 2 VaccineType with the same name ("
-                                + vaccineType.getName() + ") instances in your input data.");
-                    }
+                if (requiredVaccineType != null && requiredVaccineType != vaccineType) {
                     continue;
                 }
-                Map<LocalDate, Map<VaccinationSlot, Integer>> dateToSlotMap = vaccineTypeEntry.getValue();
-                List<LocalDate> dateList = dateToSlotMap.keySet().stream()
-                        .filter(date -> {
-                            // Skip all slots with an invalid date
-                            long age = YEARS.between(person.getBirthdate(), date);
-                            if (vaccineType.getMinimumAge() != null && age < vaccineType.getMinimumAge()) {
-                                return false;
-                            }
-                            if (vaccineType.getMaximumAge() != null && age > vaccineType.getMaximumAge()) {
-                                return false;
-                            }
-                            if (person.getReadyDate() != null && date.compareTo(person.getReadyDate()) < 0) {
-                                return false;
-                            }
-                            if (person.getDueDate() != null && date.compareTo(person.getDueDate()) > 0) {
-                                return false;
-                            }
-                            return true;
-                        })
-                        .sorted(person.getIdealDate() == null ? Comparator.naturalOrder()
-                                : Comparator.<LocalDate, Long>comparing(date ->
-                                Math.abs(DAYS.between(person.getIdealDate(), date))))
-                        .collect(Collectors.toList());
-                for (LocalDate date : dateList) {
-                    Map<VaccinationSlot, Integer> slotToAvailabilityMap = dateToSlotMap.get(date);
-                    for (Map.Entry<VaccinationSlot, Integer> slotEntry : slotToAvailabilityMap.entrySet()) {
-                        VaccinationSlot vaccinationSlot = slotEntry.getKey();
-                        int availability = slotEntry.getValue();
-                        reduceAvailability(vaccinationCenterToSlotMap, vaccinationCenter,
-                                vaccineTypeToSlotMap, vaccineType,
-                                dateToSlotMap, date,
-                                slotToAvailabilityMap, vaccinationSlot,
-                                availability);
-                        return vaccinationSlot;
+                // Skip all slots with an invalid date
+                int dateIndexCount = 0;
+                for (int dateIndex = 0; dateIndex < dateCount; dateIndex++) {
+                    if (dateEpochDays[dateIndex] < readyEpochDay || dateEpochDays[dateIndex] > dueEpochDay) {
+                        continue;
                     }
+                    // Like the age constraints, a person with a required vaccine type ignores its age limits
+                    if (requiredVaccineType == null
+                            && (vaccineType.getMinimumAge() != null || vaccineType.getMaximumAge() != null)) {
+                        long age = person.getAgeOn(dateYears[dateIndex], dateMonthDays[dateIndex]);
+                        if ((vaccineType.getMinimumAge() != null && age < vaccineType.getMinimumAge())
+                                || (vaccineType.getMaximumAge() != null && age > vaccineType.getMaximumAge())) {
+                            continue;
+                        }
+                    }
+                    dateIndexes[dateIndexCount++] = dateIndex;
+                }
+                if (idealDateDistances != null) {
+                    sortByKey(dateIndexes, dateIndexCount, idealDateDistances);
                 }
+                dateIndexesByVaccineType[vaccineTypeIndex] = Arrays.copyOf(dateIndexes, dateIndexCount);
             }
+            return new Candidates(vaccinationCenterIndexes, dateIndexesByVaccineType);
         }
-        return null;
-    }
 
-    private void reduceAvailability(
-            Map<VaccinationCenter, Map<VaccineType, Map<LocalDate, Map<VaccinationSlot, Integer>>>> vaccinationCenterToSlotMap, VaccinationCenter vaccinationCenter,
-            Map<VaccineType, Map<LocalDate, Map<VaccinationSlot, Integer>>> vaccineTypeToSlotMap, VaccineType vaccineType,
-            Map<LocalDate, Map<VaccinationSlot, Integer>> dateToSlotMap, LocalDate date,
-            Map<VaccinationSlot, Integer> slotToAvailabilityMap, VaccinationSlot vaccinationSlot,
-            int availability) {
-        availability--;
-        slotToAvailabilityMap.put(vaccinationSlot, availability);
-        if (availability == 0) {
-            slotToAvailabilityMap.remove(vaccinationSlot);
-            if (slotToAvailabilityMap.isEmpty()) {
-                dateToSlotMap.remove(date);
-                if (dateToSlotMap.isEmpty()) {
-                    vaccineTypeToSlotMap.remove(vaccineType);
-                    if (vaccineTypeToSlotMap.isEmpty()) {
-                        vaccinationCenterToSlotMap.remove(vaccinationCenter);
+        /**
+         * A stable insertion sort without boxing, fast enough for the few dozen centers or dates it sorts.
+         * @param indexes never null, the first {@code size} elements are sorted by their key
+         * @param size at most {@code indexes.length}
+         * @param keys never null, the key of each index
+         */
+        private static void sortByKey(int[] indexes, int size, long[] keys) {
+            for (int i = 1; i < size; i++) {
+                int index = indexes[i];
+                long key = keys[index];
+                int j = i - 1;
+                while (j >= 0 && keys[indexes[j]] > key) {
+                    indexes[j + 1] = indexes[j];
+                    j--;
+                }
+                indexes[j + 1] = index;
+            }
+        }
+
+        /**
+         * Not thread-safe, it reduces the availability of the returned slot.
+         * @return sometimes null, if the person's candidates have no available slot
+         */
+        private VaccinationSlot takeAvailableVaccinationSlot(Candidates candidates) {
+            for (int vaccinationCenterIndex : candidates.vaccinationCenterIndexes) {
+                if (vaccinationCenterAvailability[vaccinationCenterIndex] <= 0) {
+                    continue;
+                }
+                for (int vaccineTypeIndex = 0; vaccineTypeIndex < vaccineTypeCount; vaccineTypeIndex++) {
+                    int[] dateIndexes = candidates.dateIndexesByVaccineType[vaccineTypeIndex];
+                    if (dateIndexes == null) {
+                        continue;
+                    }
+                    for (int dateIndex : dateIndexes) {
+                        int bucketIndex = bucketIndex(vaccinationCenterIndex, vaccineTypeIndex, dateIndex);
+                        if (bucketAvailability[bucketIndex] <= 0) {
+                            continue;
+                        }
+                        int[] slotIndexes = bucketSlotIndexes[bucketIndex];
+                        while (slotAvailability[slotIndexes[bucketCursors[bucketIndex]]] <= 0) {
+                            bucketCursors[bucketIndex]++;
+                        }
+                        int slotIndex = slotIndexes[bucketCursors[bucketIndex]];
+                        slotAvailability[slotIndex]--;
+                        bucketAvailability[bucketIndex]--;
+                        vaccinationCenterAvailability[vaccinationCenterIndex]--;
+                        return vaccinationSlotList.get(slotIndex);
                     }
                 }
             }
+            return null;
         }
+
     }
 
 }
@@ -0,0 +1,157 @@
+package org.acme.vaccinationscheduler.solver.region;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import org.acme.vaccinationscheduler.domain.Appointment;
+import org.acme.vaccinationscheduler.domain.Location;
+import org.acme.vaccinationscheduler.domain.Person;
+import org.acme.vaccinationscheduler.domain.VaccinationCenter;
+import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+import org.acme.vaccinationscheduler.solver.geo.DistanceCalculator;
+
+/**
+ * Splits a {@link VaccinationSchedule} into regions that can be solved independently,
+ * by laying a grid over the locations of the vaccination centers.
+ * <p>
+ * Because of the distance constraints, persons almost never go to a distant vaccination center,
+ * so each person goes to the region of its appointment, required, preferred or else nearest vaccination center.
+ * Each appointment goes to the region of its vaccination center.
+ * <p>
+ * Every region keeps all vaccination centers, even those without appointments in that region,
+ * so the index of each vaccination center and the nearest distance of each person are the same as in the whole schedule.
+ */
+public class RegionPartitioner {
+
+    private final int regionCount;
+    private final DistanceCalculator distanceCalculator;
+
+    /**
+     * @param regionCount at least 1, the number of grid cells, some cells might not have a vaccination center
+     * @param distanceCalculator never null
+     */
+    public RegionPartitioner(int regionCount, DistanceCalculator distanceCalculator) {
+        if (regionCount < 1) {
+            throw new IllegalArgumentException("The regionCount (" + regionCount + ") must be at least 1.");
+        }
+        this.regionCount = regionCount;
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    /**
+     * @param schedule never null
+     * @return never null, at most regionCount regions, without a score, that share the persons with the schedule
+     */
+    public List<VaccinationSchedule> partition(VaccinationSchedule schedule) {
+        List<VaccinationCenter> vaccinationCenterList = schedule.getVaccinationCenterList();
+        Map<VaccinationCenter, Integer> regionIndexMap = partitionVaccinationCenters(vaccinationCenterList);
+        int partitionCount = (int) regionIndexMap.values().stream().distinct().count();
+        List<List<Appointment>> appointmentLists = new ArrayList<>(partitionCount);
+        List<List<Person>> personLists = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            appointmentLists.add(new ArrayList<>());
+            personLists.add(new ArrayList<>());
+        }
+        for (Appointment appointment : schedule.getAppointmentList()) {
+            appointmentLists.get(findRegionIndex(regionIndexMap, appointment.getVaccinationCenter())).add(appointment);
+        }
+        List<Person> personList = schedule.getPersonList();
+        // Finding the nearest vaccination center of 1M persons is the expensive part
+        int[] personRegionIndexes = IntStream.range(0, personList.size()).parallel()
+                .map(i -> findRegionIndex(regionIndexMap,
+                        findVaccinationCenter(personList.get(i), vaccinationCenterList)))
+                .toArray();
+        for (int i = 0; i < personList.size(); i++) {
+            personLists.get(personRegionIndexes[i]).add(personList.get(i));
+        }
+        List<VaccinationSchedule> regionList = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            regionList.add(new VaccinationSchedule(schedule.getVaccineTypeList(), vaccinationCenterList,
+                    appointmentLists.get(i), personLists.get(i)));
+        }
+        return regionList;
+    }
+
+    private Map<VaccinationCenter, Integer> partitionVaccinationCenters(List<VaccinationCenter> vaccinationCenterList) {
+        double minimumLatitude = Double.POSITIVE_INFINITY;
+        double maximumLatitude = Double.NEGATIVE_INFINITY;
+        double minimumLongitude = Double.POSITIVE_INFINITY;
+        double maximumLongitude = Double.NEGATIVE_INFINITY;
+        for (VaccinationCenter vaccinationCenter : vaccinationCenterList) {
+            Location location = vaccinationCenter.getLocation();
+            minimumLatitude = Math.min(minimumLatitude, location.latitude);
+            maximumLatitude = Math.max(maximumLatitude, location.latitude);
+            minimumLongitude = Math.min(minimumLongitude, location.longitude);
+            maximumLongitude = Math.max(maximumLongitude, location.longitude);
+        }
+        int columnCount = (int) Math.ceil(Math.sqrt(regionCount));
+        int rowCount = (regionCount + columnCount - 1) / columnCount;
+        // The cells without a vaccination center don't become a region
+        Map<Integer, Integer> cellToRegionIndexMap = new TreeMap<>();
+        int[] cellIndexes = new int[vaccinationCenterList.size()];
+        for (int i = 0; i < vaccinationCenterList.size(); i++) {
+            Location location = vaccinationCenterList.get(i).getLocation();
+            int row = toGridIndex(location.latitude, minimumLatitude, maximumLatitude, rowCount);
+            int column = toGridIndex(location.longitude, minimumLongitude, maximumLongitude, columnCount);
+            cellIndexes[i] = row * columnCount + column;
+            cellToRegionIndexMap.put(cellIndexes[i], null);
+        }
+        int nextRegionIndex = 0;
+        for (Map.Entry<Integer, Integer> entry : cellToRegionIndexMap.entrySet()) {
+            entry.setValue(nextRegionIndex++);
+        }
+        Map<VaccinationCenter, Integer> regionIndexMap = new IdentityHashMap<>(vaccinationCenterList.size());
+        for (int i = 0; i < vaccinationCenterList.size(); i++) {
+            regionIndexMap.put(vaccinationCenterList.get(i), cellToRegionIndexMap.get(cellIndexes[i]));
+        }
+        return regionIndexMap;
+    }
+
+    private static int toGridIndex(double value, double minimum, double maximum, int count) {
+        if (maximum <= minimum) {
+            return 0;
+        }
+        return Math.min(count - 1, (int) ((value - minimum) / (maximum - minimum) * count));
+    }
+
+    private VaccinationCenter findVaccinationCenter(Person person, List<VaccinationCenter> vaccinationCenterList) {
+        if (person.getAppointment() != null) {
+            return person.getAppointment().getVaccinationCenter();
+        }
+        if (person.getRequiredVaccinationCenter() != null) {
+            return person.getRequiredVaccinationCenter();
+        }
+        if (person.getPreferredVaccinationCenter() != null) {
+            return person.getPreferredVaccinationCenter();
+        }
+        VaccinationCenter nearestVaccinationCenter = null;
+        long nearestDistance = Long.MAX_VALUE;
+        for (VaccinationCenter vaccinationCenter : vaccinationCenterList) {
+            long distance = distanceCalculator.calculateDistance(person.getHomeLocation(), vaccinationCenter.getLocation());
+            if (distance < nearestDistance) {
+                nearestVaccinationCenter = vaccinationCenter;
+                nearestDistance = distance;
+            }
+        }
+        return nearestVaccinationCenter;
+    }
+
+    private static int findRegionIndex(Map<VaccinationCenter, Integer> regionIndexMap,
+            VaccinationCenter vaccinationCenter) {
+        Integer regionIndex = regionIndexMap.get(vaccinationCenter);
+        if (regionIndex == null) {
+            throw new IllegalStateException("The vaccinationCenter (" + vaccinationCenter
+                    + ") is not part of the schedule's vaccinationCenterList.");
+        }
+        return regionIndex;
+    }
+
+}
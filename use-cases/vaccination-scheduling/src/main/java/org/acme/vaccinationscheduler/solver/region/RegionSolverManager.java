@@ -0,0 +1,467 @@
+package org.acme.vaccinationscheduler.solver.region;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import org.acme.vaccinationscheduler.domain.Appointment;
+import org.acme.vaccinationscheduler.domain.VaccinationCenter;
+import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+import org.acme.vaccinationscheduler.domain.solver.PersonAssignment;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSlot;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSolution;
+import org.optaplanner.core.api.score.buildin.bendablelong.BendableLongScore;
+import org.optaplanner.core.api.solver.SolverJob;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.api.solver.SolverStatus;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.SolverManagerConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Solves a {@link VaccinationSchedule} one region at a time, all regions in parallel, see {@link RegionPartitioner},
+ * followed by a rebalancing pass over the region borders.
+ * <p>
+ * The rebalancing pass starts from the appointments of the regions, so its construction heuristic
+ * only assigns the persons that their region couldn't fit, and its local search moves persons across region borders.
+ * It pins every assigned person that has no vaccination center of another region
+ * within {@value #BORDER_DISTANCE_FACTOR} times the distance to its own vaccination center,
+ * so it only moves the persons near a region border.
+ * <p>
+ * Of the spent limit of the solver config, the regions get {@value #REGION_SPENT_LIMIT_PERCENTAGE}%
+ * and the rebalancing pass gets the rest, so the whole solve doesn't take longer than a solve without regions.
+ */
+public class RegionSolverManager implements AutoCloseable {
+
+    protected static final Logger logger = LoggerFactory.getLogger(RegionSolverManager.class);
+
+    private static final int REGION_SPENT_LIMIT_PERCENTAGE = 80;
+    private static final long BORDER_DISTANCE_FACTOR = 2L;
+    private static final long REBALANCE_PROBLEM_ID = -1L;
+
+    private final RegionPartitioner regionPartitioner;
+    private final SolverManager<VaccinationSolution, Long> regionSolverManager;
+    private final SolverManager<VaccinationSolution, Long> rebalanceSolverManager;
+
+    // Guards submitting and terminating the solver jobs, so no rebalancing pass starts after terminateEarly().
+    // Never take it while holding this, but the other way around is fine.
+    private final Object jobLock = new Object();
+    // The problem ids of the current solve's jobs that were not cancelled before they started
+    private final Set<Long> startedProblemIdSet = ConcurrentHashMap.newKeySet();
+
+    // Guarded by this.
+    // Never call the SolverManagers while holding this lock, because their terminateEarly() waits for
+    // the solver threads, which call back into this class.
+    // The scheduleLock is only taken while holding this lock, never the other way around.
+    private long solveGeneration = 0L;
+    private boolean solving = false;
+    private boolean terminatedEarly = false;
+    private VaccinationSchedule schedule;
+    private Object scheduleLock;
+    private Consumer<VaccinationSchedule> bestScheduleConsumer;
+    private Map<VaccinationCenter, Integer> vaccinationCenterRegionMap;
+    private BendableLongScore[] regionScores;
+    private int unsolvedRegionCount;
+    private CompletableFuture<VaccinationSchedule> solvedFuture;
+    // Kept after solving, so the next solve can wait until they are unregistered from the SolverManagers
+    private List<SolverJob<VaccinationSolution, Long>> regionJobList = Collections.emptyList();
+    private SolverJob<VaccinationSolution, Long> rebalanceJob = null;
+
+    /**
+     * @param solverConfig never null
+     * @param regionPartitioner never null
+     */
+    public RegionSolverManager(SolverConfig solverConfig, RegionPartitioner regionPartitioner) {
+        this.regionPartitioner = regionPartitioner;
+        SolverConfig regionSolverConfig = solverConfig;
+        SolverConfig rebalanceSolverConfig = solverConfig;
+        TerminationConfig terminationConfig = solverConfig.getTerminationConfig();
+        Long spentLimitMillis = terminationConfig == null ? null : terminationConfig.calculateTimeMillisSpentLimit();
+        if (spentLimitMillis != null) {
+            long regionSpentLimitMillis = spentLimitMillis * REGION_SPENT_LIMIT_PERCENTAGE / 100;
+            regionSolverConfig = withSpentLimit(solverConfig, Duration.ofMillis(regionSpentLimitMillis));
+            rebalanceSolverConfig = withSpentLimit(solverConfig, Duration.ofMillis(spentLimitMillis - regionSpentLimitMillis));
+        }
+        // Every region must solve at the same time, otherwise the last regions get no time
+        regionSolverManager = SolverManager.create(regionSolverConfig,
+                new SolverManagerConfig().withParallelSolverCount(Integer.toString(regionPartitioner.getRegionCount())));
+        rebalanceSolverManager = SolverManager.create(rebalanceSolverConfig, new SolverManagerConfig());
+    }
+
+    private static SolverConfig withSpentLimit(SolverConfig solverConfig, Duration spentLimit) {
+        TerminationConfig terminationConfig = solverConfig.getTerminationConfig().copyConfig();
+        terminationConfig.overwriteSpentLimit(spentLimit);
+        return solverConfig.copyConfig().withTerminationConfig(terminationConfig);
+    }
+
+    /**
+     * As {@link #solve(VaccinationSchedule, Object, Consumer)}, for a schedule that no one else reads while solving.
+     */
+    public CompletableFuture<VaccinationSchedule> solve(VaccinationSchedule schedule,
+            Consumer<VaccinationSchedule> bestScheduleConsumer) {
+        return solve(schedule, new Object(), bestScheduleConsumer);
+    }
+
+    /**
+     * @param schedule never null, its persons get the appointments of the best solutions
+     * @param scheduleLock never null, held while the persons get the appointments of a best solution
+     * and while the bestScheduleConsumer runs, so readers that hold it too never see half a best solution
+     * @param bestScheduleConsumer never null, called with the schedule on every new best solution of any region,
+     * and with a new schedule, with the same persons, on every new best solution of the rebalancing pass
+     * @return never null, completes after the rebalancing pass, or after the regions if terminated early
+     */
+    public CompletableFuture<VaccinationSchedule> solve(VaccinationSchedule schedule, Object scheduleLock,
+            Consumer<VaccinationSchedule> bestScheduleConsumer) {
+        List<VaccinationSchedule> regionList = regionPartitioner.partition(schedule);
+        Map<VaccinationCenter, Integer> vaccinationCenterRegionMap = new IdentityHashMap<>();
+        for (int i = 0; i < regionList.size(); i++) {
+            for (Appointment appointment : regionList.get(i).getAppointmentList()) {
+                vaccinationCenterRegionMap.put(appointment.getVaccinationCenter(), i);
+            }
+        }
+        synchronized (jobLock) {
+            long generation;
+            CompletableFuture<VaccinationSchedule> future;
+            List<SolverJob<VaccinationSolution, Long>> previousJobList;
+            synchronized (this) {
+                if (solving) {
+                    throw new IllegalStateException("The schedule is already being solved.");
+                }
+                generation = ++solveGeneration;
+                solving = true;
+                terminatedEarly = false;
+                this.schedule = schedule;
+                this.scheduleLock = scheduleLock;
+                this.bestScheduleConsumer = bestScheduleConsumer;
+                this.vaccinationCenterRegionMap = vaccinationCenterRegionMap;
+                regionScores = new BendableLongScore[regionList.size()];
+                unsolvedRegionCount = regionList.size();
+                solvedFuture = future = new CompletableFuture<>();
+                previousJobList = getJobList();
+                regionJobList = Collections.emptyList();
+                rebalanceJob = null;
+            }
+            // A job that failed or finished its rebalancing pass might still be registered under the same problem id
+            awaitJobs(previousJobList);
+            startedProblemIdSet.clear();
+            logger.info("Solving ({}) persons in ({}) regions.", schedule.getPersonList().size(), regionList.size());
+            List<SolverJob<VaccinationSolution, Long>> jobList = new ArrayList<>(regionList.size());
+            for (int i = 0; i < regionList.size(); i++) {
+                int regionIndex = i;
+                VaccinationSchedule region = regionList.get(regionIndex);
+                jobList.add(regionSolverManager.solveAndListen((long) regionIndex,
+                        problemId -> {
+                            startedProblemIdSet.add(problemId);
+                            return new VaccinationSolution(region);
+                        },
+                        solution -> regionSolved(generation, regionIndex, solution),
+                        solution -> regionFinished(generation, regionIndex, solution),
+                        (problemId, throwable) -> solvingFailed(generation, problemId, throwable)));
+            }
+            boolean failed;
+            synchronized (this) {
+                regionJobList = jobList;
+                failed = !solving;
+            }
+            if (failed) {
+                // The failure happened before these jobs were known, so solvingFailed() couldn't terminate them
+                terminateJobs(jobList, null);
+            }
+            return future;
+        }
+    }
+
+    private synchronized void regionSolved(long generation, int regionIndex, VaccinationSolution solution) {
+        if (generation != solveGeneration || !solving) {
+            return;
+        }
+        regionScores[regionIndex] = solution.getScore();
+        BendableLongScore score = null;
+        for (BendableLongScore regionScore : regionScores) {
+            if (regionScore != null) {
+                score = score == null ? regionScore : score.add(regionScore);
+            }
+        }
+        synchronized (scheduleLock) {
+            // The region shares its persons with the whole schedule, so this also updates the schedule
+            solution.toSchedule();
+            schedule.setScore(score);
+            bestScheduleConsumer.accept(schedule);
+        }
+    }
+
+    private void regionFinished(long generation, int regionIndex, VaccinationSolution solution) {
+        VaccinationSchedule rebalanceSchedule;
+        Map<VaccinationCenter, Integer> rebalanceVaccinationCenterRegionMap;
+        synchronized (this) {
+            regionSolved(generation, regionIndex, solution);
+            // After terminateEarly(), that method finishes the solve
+            if (generation != solveGeneration || !solving || terminatedEarly) {
+                return;
+            }
+            unsolvedRegionCount--;
+            if (unsolvedRegionCount > 0) {
+                return;
+            }
+            rebalanceSchedule = schedule;
+            rebalanceVaccinationCenterRegionMap = vaccinationCenterRegionMap;
+        }
+        synchronized (jobLock) {
+            synchronized (this) {
+                if (generation != solveGeneration || !solving || terminatedEarly) {
+                    return;
+                }
+            }
+            logger.info("Solved all regions with score ({}), rebalancing them.", rebalanceSchedule.getScore());
+            SolverJob<VaccinationSolution, Long> job = rebalanceSolverManager.solveAndListen(REBALANCE_PROBLEM_ID,
+                    problemId -> {
+                        startedProblemIdSet.add(problemId);
+                        return createRebalanceSolution(rebalanceSchedule, rebalanceVaccinationCenterRegionMap);
+                    },
+                    rebalancedSolution -> rebalanceSolved(generation, rebalancedSolution, false),
+                    rebalancedSolution -> rebalanceSolved(generation, rebalancedSolution, true),
+                    (problemId, throwable) -> solvingFailed(generation, problemId, throwable));
+            boolean failed;
+            synchronized (this) {
+                rebalanceJob = job;
+                failed = !solving;
+            }
+            if (failed) {
+                terminateJobs(Collections.emptyList(), job);
+            }
+        }
+    }
+
+    /**
+     * Pins every assigned person that isn't near a region border,
+     * because its region already had every vaccination center that it could reasonably go to.
+     */
+    private static VaccinationSolution createRebalanceSolution(VaccinationSchedule schedule,
+            Map<VaccinationCenter, Integer> vaccinationCenterRegionMap) {
+        VaccinationSolution solution = new VaccinationSolution(schedule);
+        List<VaccinationCenter> vaccinationCenterList = solution.getVaccinationCenterList();
+        // By vaccination center index, -1 for a vaccination center without appointments
+        int[] regionIndexes = new int[vaccinationCenterList.size()];
+        for (VaccinationCenter vaccinationCenter : vaccinationCenterList) {
+            regionIndexes[vaccinationCenter.getIndex()] = vaccinationCenterRegionMap.getOrDefault(vaccinationCenter, -1);
+        }
+        int borderPersonCount = 0;
+        for (PersonAssignment personAssignment : solution.getPersonAssignmentList()) {
+            if (personAssignment.isPinned()) {
+                continue;
+            }
+            VaccinationSlot vaccinationSlot = personAssignment.getVaccinationSlot();
+            if (vaccinationSlot == null || isNearRegionBorder(personAssignment, vaccinationSlot.getVaccinationCenter(),
+                    vaccinationCenterList, regionIndexes)) {
+                borderPersonCount++;
+            } else {
+                personAssignment.setPinned(true);
+            }
+        }
+        logger.info("Rebalancing ({}) of ({}) persons, the unassigned persons and those near a region border.",
+                borderPersonCount, solution.getPersonAssignmentList().size());
+        return solution;
+    }
+
+    private static boolean isNearRegionBorder(PersonAssignment personAssignment, VaccinationCenter vaccinationCenter,
+            List<VaccinationCenter> vaccinationCenterList, int[] regionIndexes) {
+        int regionIndex = regionIndexes[vaccinationCenter.getIndex()];
+        long borderDistance = personAssignment.getDistanceTo(vaccinationCenter) * BORDER_DISTANCE_FACTOR;
+        for (VaccinationCenter otherVaccinationCenter : vaccinationCenterList) {
+            int otherRegionIndex = regionIndexes[otherVaccinationCenter.getIndex()];
+            if (otherRegionIndex >= 0 && otherRegionIndex != regionIndex
+                    && personAssignment.getDistanceTo(otherVaccinationCenter) <= borderDistance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void rebalanceSolved(long generation, VaccinationSolution solution, boolean finished) {
+        if (generation != solveGeneration || !solving) {
+            return;
+        }
+        VaccinationSchedule rebalancedSchedule = translateRebalancedSolution(solution);
+        if (finished) {
+            finish(rebalancedSchedule);
+        }
+    }
+
+    // Guarded by this
+    private VaccinationSchedule translateRebalancedSolution(VaccinationSolution solution) {
+        synchronized (scheduleLock) {
+            // Also changes the persons of the schedule, which the rebalanced schedule shares
+            VaccinationSchedule rebalancedSchedule = solution.toSchedule();
+            bestScheduleConsumer.accept(rebalancedSchedule);
+            return rebalancedSchedule;
+        }
+    }
+
+    // Guarded by this
+    private void finish(VaccinationSchedule solvedSchedule) {
+        solving = false;
+        schedule = null;
+        scheduleLock = null;
+        bestScheduleConsumer = null;
+        vaccinationCenterRegionMap = null;
+        regionScores = null;
+        solvedFuture.complete(solvedSchedule);
+    }
+
+    private void solvingFailed(long generation, Long problemId, Throwable throwable) {
+        List<SolverJob<VaccinationSolution, Long>> failedRegionJobList;
+        SolverJob<VaccinationSolution, Long> failedRebalanceJob;
+        synchronized (this) {
+            if (generation != solveGeneration || !solving) {
+                return;
+            }
+            logger.error("Solving the problem (" + problemId + ") failed.", throwable);
+            solving = false;
+            schedule = null;
+            scheduleLock = null;
+            bestScheduleConsumer = null;
+            vaccinationCenterRegionMap = null;
+            regionScores = null;
+            solvedFuture.completeExceptionally(throwable);
+            failedRegionJobList = regionJobList;
+            failedRebalanceJob = rebalanceJob;
+        }
+        // Asynchronously, because terminating the failed job from its own solver thread would wait for itself
+        CompletableFuture.runAsync(() -> terminateJobs(failedRegionJobList, failedRebalanceJob));
+    }
+
+    public SolverStatus getSolverStatus() {
+        int regionCount;
+        synchronized (this) {
+            if (!solving) {
+                return SolverStatus.NOT_SOLVING;
+            }
+            regionCount = regionScores.length;
+        }
+        if (rebalanceSolverManager.getSolverStatus(REBALANCE_PROBLEM_ID) == SolverStatus.SOLVING_ACTIVE) {
+            return SolverStatus.SOLVING_ACTIVE;
+        }
+        for (int i = 0; i < regionCount; i++) {
+            if (regionSolverManager.getSolverStatus((long) i) == SolverStatus.SOLVING_ACTIVE) {
+                return SolverStatus.SOLVING_ACTIVE;
+            }
+        }
+        return SolverStatus.SOLVING_SCHEDULED;
+    }
+
+    /**
+     * Stops the regions or the rebalancing pass and waits until they have stopped,
+     * so the schedule has their final best solutions and can be solved again right away.
+     */
+    public void terminateEarly() {
+        synchronized (jobLock) {
+            long generation;
+            List<SolverJob<VaccinationSolution, Long>> terminatedRegionJobList;
+            SolverJob<VaccinationSolution, Long> terminatedRebalanceJob;
+            synchronized (this) {
+                if (!solving) {
+                    return;
+                }
+                generation = solveGeneration;
+                terminatedEarly = true;
+                terminatedRegionJobList = regionJobList;
+                terminatedRebalanceJob = rebalanceJob;
+            }
+            // Waits for the solver threads, but the final best solution consumers run on other threads,
+            // so they might not have seen the final best solutions yet
+            terminateJobs(terminatedRegionJobList, terminatedRebalanceJob);
+            List<VaccinationSolution> regionSolutionList = new ArrayList<>(terminatedRegionJobList.size());
+            VaccinationSolution rebalancedSolution = null;
+            try {
+                for (SolverJob<VaccinationSolution, Long> regionJob : terminatedRegionJobList) {
+                    regionSolutionList.add(getFinalBestSolution(regionJob));
+                }
+                if (terminatedRebalanceJob != null) {
+                    rebalancedSolution = getFinalBestSolution(terminatedRebalanceJob);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for the final best solutions, keeping the best solutions so far.");
+            } catch (ExecutionException e) {
+                // The job called solvingFailed() already
+                return;
+            }
+            synchronized (this) {
+                if (generation != solveGeneration || !solving) {
+                    return;
+                }
+                if (rebalancedSolution != null) {
+                    finish(translateRebalancedSolution(rebalancedSolution));
+                    return;
+                }
+                for (int i = 0; i < regionSolutionList.size(); i++) {
+                    if (regionSolutionList.get(i) != null) {
+                        regionSolved(generation, i, regionSolutionList.get(i));
+                    }
+                }
+                finish(schedule);
+            }
+        }
+    }
+
+    /**
+     * @return null if the job was cancelled before it started
+     */
+    private VaccinationSolution getFinalBestSolution(SolverJob<VaccinationSolution, Long> solverJob)
+            throws InterruptedException, ExecutionException {
+        if (!startedProblemIdSet.contains(solverJob.getProblemId())) {
+            // Otherwise the SolverJob would load the unsolved problem again
+            return null;
+        }
+        return solverJob.getFinalBestSolution();
+    }
+
+    // Guarded by this
+    private List<SolverJob<VaccinationSolution, Long>> getJobList() {
+        List<SolverJob<VaccinationSolution, Long>> jobList = new ArrayList<>(regionJobList);
+        if (rebalanceJob != null) {
+            jobList.add(rebalanceJob);
+        }
+        return jobList;
+    }
+
+    private void awaitJobs(List<SolverJob<VaccinationSolution, Long>> jobList) {
+        for (SolverJob<VaccinationSolution, Long> job : jobList) {
+            try {
+                getFinalBestSolution(job);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the previous solve to stop.", e);
+            } catch (ExecutionException e) {
+                // Already reported by solvingFailed()
+            }
+        }
+    }
+
+    private static void terminateJobs(List<SolverJob<VaccinationSolution, Long>> regionJobList,
+            SolverJob<VaccinationSolution, Long> rebalanceJob) {
+        for (SolverJob<VaccinationSolution, Long> regionJob : regionJobList) {
+            regionJob.terminateEarly();
+        }
+        if (rebalanceJob != null) {
+            rebalanceJob.terminateEarly();
+        }
+    }
+
+    @Override
+    public void close() {
+        regionSolverManager.close();
+        rebalanceSolverManager.close();
+    }
+
+}
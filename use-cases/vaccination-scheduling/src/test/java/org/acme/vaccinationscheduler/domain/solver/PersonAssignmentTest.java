@@ -0,0 +1,42 @@
+package org.acme.vaccinationscheduler.domain.solver;
+
+import static java.time.temporal.ChronoUnit.YEARS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+class PersonAssignmentTest {
+
+    @Test
+    void getAgeOnVaccinationDate() {
+        PersonAssignment unassigned = new PersonAssignment("1", "Ann", null, null, LocalDate.of(1990, 1, 1), 0, null);
+        assertEquals(-1, unassigned.getAgeOnVaccinationDate());
+        // Includes birthdays on the first and last day of the year and on a leap day
+        for (LocalDate birthdate : new LocalDate[] { LocalDate.of(1990, 1, 1), LocalDate.of(1970, 6, 15),
+                LocalDate.of(1999, 12, 31), LocalDate.of(1980, 2, 29) }) {
+            for (LocalDate date = LocalDate.of(2020, 1, 1); date.isBefore(LocalDate.of(2022, 1, 2));
+                    date = date.plusDays(1)) {
+                VaccinationSlot vaccinationSlot = new VaccinationSlot(1L, null,
+                        LocalDateTime.of(date, LocalTime.of(9, 0)), null, 1);
+                PersonAssignment personAssignment = new PersonAssignment("1", "Ann", null, null, birthdate, 0,
+                        vaccinationSlot);
+                assertEquals(YEARS.between(birthdate, date), personAssignment.getAgeOnVaccinationDate(),
+                        "Born on " + birthdate + " vaccinated on " + date);
+            }
+        }
+    }
+
+    @Test
+    void getAgeOnVaccinationDateWithoutBirthdate() {
+        VaccinationSlot vaccinationSlot = new VaccinationSlot(1L, null,
+                LocalDateTime.of(2021, 6, 15, 9, 0), null, 1);
+        PersonAssignment personAssignment = new PersonAssignment("1", "Ann", null, null, null, 0, vaccinationSlot);
+        assertThrows(IllegalStateException.class, personAssignment::getAgeOnVaccinationDate);
+    }
+
+}
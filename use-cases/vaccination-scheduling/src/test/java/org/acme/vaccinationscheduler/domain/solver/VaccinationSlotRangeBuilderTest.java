@@ -0,0 +1,75 @@
+package org.acme.vaccinationscheduler.domain.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.acme.vaccinationscheduler.domain.Location;
+import org.acme.vaccinationscheduler.domain.VaccinationCenter;
+import org.acme.vaccinationscheduler.domain.VaccineType;
+import org.junit.jupiter.api.Test;
+
+class VaccinationSlotRangeBuilderTest {
+
+    private static final VaccineType PFIZER = new VaccineType("Pfizer");
+    private static final VaccineType AGE_40_TO_55_VACCINE = new VaccineType("40 to 55", 40, 55);
+    private static final VaccinationCenter VACCINATION_CENTER_1 = new VaccinationCenter("1", "Downtown", new Location(0, 0), 0);
+    private static final VaccinationCenter VACCINATION_CENTER_2 = new VaccinationCenter("2", "Uptown", new Location(10, 10), 1);
+    private static final LocalDate MONDAY = LocalDate.of(2021, 2, 1);
+    private static final LocalDate TUESDAY = LocalDate.of(2021, 2, 2);
+    private static final LocalDateTime MONDAY_0900 = LocalDateTime.of(MONDAY, LocalTime.of(9, 0));
+    private static final LocalDateTime TUESDAY_0900 = LocalDateTime.of(TUESDAY, LocalTime.of(9, 0));
+
+    @Test
+    void assignVaccinationSlotRanges() {
+        VaccinationSlot pfizerMonday1 = new VaccinationSlot(0L, VACCINATION_CENTER_1, MONDAY_0900, PFIZER, 10);
+        VaccinationSlot pfizerTuesday1 = new VaccinationSlot(1L, VACCINATION_CENTER_1, TUESDAY_0900, PFIZER, 10);
+        VaccinationSlot ageMonday1 = new VaccinationSlot(2L, VACCINATION_CENTER_1, MONDAY_0900, AGE_40_TO_55_VACCINE, 10);
+        VaccinationSlot pfizerMonday2 = new VaccinationSlot(3L, VACCINATION_CENTER_2, MONDAY_0900, PFIZER, 10);
+        List<VaccinationSlot> vaccinationSlotList = Arrays.asList(pfizerMonday1, pfizerTuesday1, ageMonday1, pfizerMonday2);
+
+        PersonAssignment ann = new PersonAssignment("1", "Ann", null, null, MONDAY.minusYears(30), 0, null);
+        PersonAssignment beth = new PersonAssignment("2", "Beth", null, null, MONDAY.minusYears(30), 0, null);
+        // Turns 40 on Tuesday, too young for the age vaccine on Monday
+        PersonAssignment carl = new PersonAssignment("3", "Carl", null, null, TUESDAY.minusYears(40), 0, null);
+        // A required vaccine type ignores the age limits
+        PersonAssignment dan = new PersonAssignment("4", "Dan", null, null, MONDAY.minusYears(30), 0,
+                2, AGE_40_TO_55_VACCINE, null, null, null, null, null, null, null);
+        PersonAssignment ed = new PersonAssignment("5", "Ed", null, null, MONDAY.minusYears(45), 0,
+                2, null, null, VACCINATION_CENTER_2, null, null, null, null, null);
+        PersonAssignment flo = new PersonAssignment("6", "Flo", null, null, MONDAY.minusYears(45), 0,
+                2, null, null, null, null, TUESDAY, null, null, null);
+        PersonAssignment gus = new PersonAssignment("7", "Gus", null, null, MONDAY.minusYears(45), 0,
+                2, null, null, null, null, null, null, MONDAY, null);
+        List<PersonAssignment> personAssignmentList = Arrays.asList(ann, beth, carl, dan, ed, flo, gus);
+
+        List<VaccinationSlotRange> vaccinationSlotRangeList = new VaccinationSlotRangeBuilder(vaccinationSlotList)
+                .assignVaccinationSlotRanges(personAssignmentList);
+
+        assertEquals(Arrays.asList(pfizerMonday1, pfizerTuesday1, pfizerMonday2), ann.getVaccinationSlotRange());
+        assertSame(ann.getVaccinationSlotRange(), beth.getVaccinationSlotRange());
+        assertEquals(Arrays.asList(pfizerMonday1, pfizerTuesday1, pfizerMonday2), carl.getVaccinationSlotRange());
+        assertEquals(Arrays.asList(ageMonday1), dan.getVaccinationSlotRange());
+        assertEquals(Arrays.asList(pfizerMonday2), ed.getVaccinationSlotRange());
+        assertEquals(Arrays.asList(pfizerTuesday1), flo.getVaccinationSlotRange());
+        assertEquals(Arrays.asList(pfizerMonday1, ageMonday1, pfizerMonday2), gus.getVaccinationSlotRange());
+
+        for (int i = 0; i < vaccinationSlotRangeList.size(); i++) {
+            assertEquals(i, vaccinationSlotRangeList.get(i).getIndex());
+        }
+        for (PersonAssignment personAssignment : personAssignmentList) {
+            VaccinationSlotRange vaccinationSlotRange = (VaccinationSlotRange) personAssignment.getVaccinationSlotRange();
+            assertSame(vaccinationSlotRange, vaccinationSlotRangeList.get(vaccinationSlotRange.getIndex()));
+        }
+        assertTrue(ed.getVaccinationSlotRange().contains(pfizerMonday2));
+        assertFalse(ed.getVaccinationSlotRange().contains(pfizerMonday1));
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.acme.vaccinationscheduler.domain.solver;
+
+import java.util.Arrays;
+
+import org.acme.vaccinationscheduler.bootstrap.DemoDataGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.optaplanner.core.api.domain.solution.cloner.SolutionCloner;
+import org.optaplanner.core.impl.domain.solution.cloner.FieldAccessingSolutionCloner;
+import org.optaplanner.core.impl.domain.solution.descriptor.SolutionDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the clone time of {@link VaccinationSolutionCloner} with the default solution cloner.
+ * The solver clones the working solution on every new best solution.
+ * <p>
+ * Needs about 4 GB of heap for 500k persons, so it only runs on demand:
+ * {@code mvn test -Dtest=VaccinationSolutionClonerBenchmarkTest -Dbenchmark.cloner=true -DargLine=-Xmx4g}.
+ * The booth counts are configurable with {@code -Dbenchmark.cloner.boothCounts=50,500,2600},
+ * each booth adds 192 persons.
+ */
+@EnabledIfSystemProperty(named = "benchmark.cloner", matches = "true")
+class VaccinationSolutionClonerBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VaccinationSolutionClonerBenchmarkTest.class);
+
+    private static final int WARM_UP_COUNT = 3;
+    private static final int MEASUREMENT_COUNT = 10;
+
+    @Test
+    void benchmark() {
+        SolutionDescriptor<VaccinationSolution> solutionDescriptor = SolutionDescriptor.buildSolutionDescriptor(
+                VaccinationSolution.class, PersonAssignment.class, VaccinationSlot.class);
+        SolutionCloner<VaccinationSolution> defaultCloner = new FieldAccessingSolutionCloner<>(solutionDescriptor);
+        SolutionCloner<VaccinationSolution> vaccinationCloner = new VaccinationSolutionCloner();
+        int[] boothCounts = Arrays.stream(System.getProperty("benchmark.cloner.boothCounts", "50,500,2600").split(","))
+                .mapToInt(boothCount -> Integer.parseInt(boothCount.trim()))
+                .toArray();
+        for (int boothCount : boothCounts) {
+            VaccinationSolution solution = new VaccinationSolution(
+                    new DemoDataGenerator().generate(Math.max(boothCount / 40, 3), boothCount, 0.0));
+            // Every person is assigned, like in a best solution
+            for (int i = 0; i < solution.getPersonAssignmentList().size(); i++) {
+                solution.getPersonAssignmentList().get(i).setVaccinationSlot(
+                        solution.getVaccinationSlotList().get(i % solution.getVaccinationSlotList().size()));
+            }
+            LOGGER.info("Cloning {} persons: default cloner ({} ms), vaccination cloner ({} ms).",
+                    solution.getPersonAssignmentList().size(),
+                    measureCloneMillis(defaultCloner, solution), measureCloneMillis(vaccinationCloner, solution));
+        }
+    }
+
+    private static double measureCloneMillis(SolutionCloner<VaccinationSolution> cloner,
+            VaccinationSolution solution) {
+        for (int i = 0; i < WARM_UP_COUNT; i++) {
+            cloner.cloneSolution(solution);
+        }
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < MEASUREMENT_COUNT; i++) {
+            cloner.cloneSolution(solution);
+        }
+        return (System.nanoTime() - startNanos) / (MEASUREMENT_COUNT * 1_000_000.0);
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.acme.vaccinationscheduler.domain.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.acme.vaccinationscheduler.domain.Location;
+import org.acme.vaccinationscheduler.domain.VaccinationCenter;
+import org.acme.vaccinationscheduler.domain.VaccineType;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.buildin.bendablelong.BendableLongScore;
+
+class VaccinationSolutionClonerTest {
+
+    private static final VaccineType PFIZER = new VaccineType("Pfizer");
+    private static final VaccinationCenter VACCINATION_CENTER_1 = new VaccinationCenter("1", "Downtown", new Location(0, 0));
+    private static final LocalDateTime MONDAY_0900 = LocalDateTime.of(LocalDate.of(2021, 2, 1), LocalTime.of(9, 0));
+    private static final LocalDateTime MONDAY_1000 = LocalDateTime.of(LocalDate.of(2021, 2, 1), LocalTime.of(10, 0));
+
+    @Test
+    void cloneSolution() {
+        VaccinationSlot slot1 = new VaccinationSlot(0L, VACCINATION_CENTER_1, MONDAY_0900, PFIZER, 2);
+        VaccinationSlot slot2 = new VaccinationSlot(1L, VACCINATION_CENTER_1, MONDAY_1000, PFIZER, 2);
+        slot1.setAssignedCount(1);
+        PersonAssignment ann = new PersonAssignment("1", "Ann", null, null, null, 0, slot1);
+        PersonAssignment beth = new PersonAssignment("2", "Beth", null, null, null, 0, null);
+        BendableLongScore score = BendableLongScore.zero(1, 5);
+        List<VaccinationSlot> vaccinationSlotList = Arrays.asList(slot1, slot2);
+        List<VaccinationSlotRange> vaccinationSlotRangeList = new VaccinationSlotRangeBuilder(vaccinationSlotList)
+                .assignVaccinationSlotRanges(Arrays.asList(ann, beth));
+        VaccinationSolution original = new VaccinationSolution(Arrays.asList(PFIZER),
+                Arrays.asList(VACCINATION_CENTER_1), Collections.emptyList(),
+                vaccinationSlotList, vaccinationSlotRangeList, Arrays.asList(ann, beth), score);
+
+        VaccinationSolution clone = new VaccinationSolutionCloner().cloneSolution(original);
+        assertSame(original.getVaccineTypeList(), clone.getVaccineTypeList());
+        assertSame(original.getVaccinationCenterList(), clone.getVaccinationCenterList());
+        assertSame(original.getAppointmentList(), clone.getAppointmentList());
+        assertSame(score, clone.getScore());
+
+        VaccinationSlot slot1Clone = clone.getVaccinationSlotList().get(0);
+        VaccinationSlot slot2Clone = clone.getVaccinationSlotList().get(1);
+        assertNotSame(slot1, slot1Clone);
+        assertEquals(slot1.getId(), slot1Clone.getId());
+        assertEquals(1, slot1Clone.getAssignedCount());
+        assertEquals(0, slot2Clone.getAssignedCount());
+
+        PersonAssignment annClone = clone.getPersonAssignmentList().get(0);
+        PersonAssignment bethClone = clone.getPersonAssignmentList().get(1);
+        assertNotSame(ann, annClone);
+        assertSame(ann.getPerson(), annClone.getPerson());
+        assertSame(slot1Clone, annClone.getVaccinationSlot());
+        assertNull(bethClone.getVaccinationSlot());
+        // The ranges hold the cloned slots
+        assertEquals(Arrays.asList(slot1Clone, slot2Clone), annClone.getVaccinationSlotRange());
+        assertSame(annClone.getVaccinationSlotRange(), bethClone.getVaccinationSlotRange());
+        assertSame(clone.getVaccinationSlotRangeList().get(0), annClone.getVaccinationSlotRange());
+        assertEquals(Arrays.asList(slot1, slot2), ann.getVaccinationSlotRange());
+
+        // Changing the clone doesn't change the original
+        annClone.setVaccinationSlot(slot2Clone);
+        slot1Clone.setAssignedCount(0);
+        assertSame(slot1, ann.getVaccinationSlot());
+        assertEquals(1, slot1.getAssignedCount());
+    }
+
+}
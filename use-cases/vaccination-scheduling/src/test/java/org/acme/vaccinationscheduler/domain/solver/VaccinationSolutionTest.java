@@ -93,6 +93,9 @@ class VaccinationSolutionTest {
         assertEquals("Ann", personAssignmentList.get(0).getName());
         assertEquals("Beth", personAssignmentList.get(1).getName());
         assertEquals("Carl", personAssignmentList.get(2).getName());
+        assertEquals(111_000L, personAssignmentList.get(0).getDistanceTo(VACCINATION_CENTER_1));
+        assertEquals(222_000L, personAssignmentList.get(1).getDistanceTo(VACCINATION_CENTER_1));
+        assertEquals(0L, personAssignmentList.get(1).getRegretDistanceTo(VACCINATION_CENTER_1));
 
         personAssignmentList.get(0).setVaccinationSlot(vaccinationSlotList.get(1));
         personAssignmentList.get(2).setVaccinationSlot(vaccinationSlotList.get(2));
@@ -101,6 +104,12 @@ class VaccinationSolutionTest {
         assertSame(vc1_13_0900, ann.getAppointment());
         assertNull(beth.getAppointment());
         assertSame(vc2_21_0900, carl.getAppointment());
+
+        // The translation doesn't use up the unscheduled appointments of the solution
+        schedule = solution.toSchedule();
+        assertSame(vc1_13_0900, ann.getAppointment());
+        assertNull(beth.getAppointment());
+        assertSame(vc2_21_0900, carl.getAppointment());
     }
 
     @Test
@@ -0,0 +1,100 @@
+package org.acme.vaccinationscheduler.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.vaccinationscheduler.bootstrap.DemoDataGenerator;
+import org.acme.vaccinationscheduler.domain.Appointment;
+import org.acme.vaccinationscheduler.domain.Person;
+import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class VaccinationScheduleCsvIOTest {
+
+    @Test
+    void writeAndRead(@TempDir Path directory) throws IOException {
+        VaccinationSchedule schedule = new DemoDataGenerator().generate(4, 4, 0.1);
+        // Small chunks to parse each file in many chunks
+        VaccinationScheduleCsvIO csvIO = new VaccinationScheduleCsvIO(1000);
+        csvIO.write(schedule, directory);
+        VaccinationSchedule readSchedule = csvIO.read(directory);
+
+        assertEquals(schedule.getVaccineTypeList().size(), readSchedule.getVaccineTypeList().size());
+        assertEquals(schedule.getVaccinationCenterList().size(), readSchedule.getVaccinationCenterList().size());
+        List<Appointment> appointmentList = schedule.getAppointmentList();
+        List<Appointment> readAppointmentList = readSchedule.getAppointmentList();
+        assertEquals(appointmentList.size(), readAppointmentList.size());
+        for (int i = 0; i < appointmentList.size(); i++) {
+            assertEquals(appointmentList.get(i).toString(), readAppointmentList.get(i).toString());
+            assertEquals(appointmentList.get(i).getVaccineType().getName(),
+                    readAppointmentList.get(i).getVaccineType().getName());
+        }
+        List<Person> personList = schedule.getPersonList();
+        List<Person> readPersonList = readSchedule.getPersonList();
+        assertEquals(personList.size(), readPersonList.size());
+        for (int i = 0; i < personList.size(); i++) {
+            Person person = personList.get(i);
+            Person readPerson = readPersonList.get(i);
+            assertEquals(person.getId(), readPerson.getId());
+            assertEquals(person.getName(), readPerson.getName());
+            assertEquals(person.getHomeLocation().latitude, readPerson.getHomeLocation().latitude);
+            assertEquals(person.getHomeLocation().longitude, readPerson.getHomeLocation().longitude);
+            assertEquals(person.getBirthdate(), readPerson.getBirthdate());
+            assertEquals(person.getDoseNumber(), readPerson.getDoseNumber());
+            assertEquals(person.getIdealDate(), readPerson.getIdealDate());
+            assertEquals(person.isPinned(), readPerson.isPinned());
+            if (person.getAppointment() == null) {
+                assertNull(readPerson.getAppointment());
+            } else {
+                // Refers to the imported appointment, not a copy of it
+                assertSame(readAppointmentList.get(appointmentList.indexOf(person.getAppointment())),
+                        readPerson.getAppointment());
+            }
+        }
+    }
+
+    @Test
+    void readWrongHeader(@TempDir Path directory) throws IOException {
+        VaccinationScheduleCsvIO csvIO = new VaccinationScheduleCsvIO();
+        csvIO.write(new DemoDataGenerator().generate(1, 1, 0.0), directory);
+        Files.writeString(directory.resolve(VaccinationScheduleCsvIO.VACCINE_TYPES_FILE_NAME), "name,age\nPfizer,\n");
+        assertThrows(IllegalStateException.class, () -> csvIO.read(directory));
+    }
+
+    @Test
+    void readEmptyName(@TempDir Path directory) throws IOException {
+        VaccinationScheduleCsvIO csvIO = new VaccinationScheduleCsvIO();
+        csvIO.write(new DemoDataGenerator().generate(1, 1, 0.0), directory);
+        replaceFirstPersonField(directory, 1, "");
+        assertNull(csvIO.read(directory).getPersonList().get(0).getName());
+    }
+
+    @Test
+    void readInvalidPinned(@TempDir Path directory) throws IOException {
+        VaccinationScheduleCsvIO csvIO = new VaccinationScheduleCsvIO();
+        csvIO.write(new DemoDataGenerator().generate(1, 1, 0.0), directory);
+        replaceFirstPersonField(directory, 14, "yes");
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> csvIO.read(directory));
+        assertTrue(exception.getMessage().contains(VaccinationScheduleCsvIO.PERSONS_FILE_NAME));
+    }
+
+    private static void replaceFirstPersonField(Path directory, int fieldIndex, String field) throws IOException {
+        Path file = directory.resolve(VaccinationScheduleCsvIO.PERSONS_FILE_NAME);
+        List<String> lineList = new ArrayList<>(Files.readAllLines(file));
+        String[] fields = lineList.get(1).split(",", -1);
+        fields[fieldIndex] = field;
+        lineList.set(1, String.join(",", fields));
+        Files.write(file, lineList);
+    }
+
+}
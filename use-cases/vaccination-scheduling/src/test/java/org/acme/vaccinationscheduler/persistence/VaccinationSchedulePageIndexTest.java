@@ -0,0 +1,71 @@
+package org.acme.vaccinationscheduler.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.acme.vaccinationscheduler.bootstrap.DemoDataGenerator;
+import org.acme.vaccinationscheduler.domain.Appointment;
+import org.acme.vaccinationscheduler.domain.Person;
+import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+import org.junit.jupiter.api.Test;
+
+class VaccinationSchedulePageIndexTest {
+
+    @Test
+    void getPage() {
+        VaccinationSchedule schedule = new DemoDataGenerator().generate(4, 20, 0.1);
+        VaccinationSchedulePageIndex pageIndex = new VaccinationSchedulePageIndex(schedule, 500);
+        assertTrue(pageIndex.getPageCount() > 1);
+
+        Set<Appointment> appointmentSet = new HashSet<>();
+        Set<Person> personSet = new HashSet<>();
+        int unassignedPersonCount = 0;
+        for (int page = 0; page < pageIndex.getPageCount(); page++) {
+            VaccinationSchedule pagedSchedule = pageIndex.getPage(page);
+            Set<Appointment> pageAppointmentSet = new HashSet<>(pagedSchedule.getAppointmentList());
+            for (Appointment appointment : pagedSchedule.getAppointmentList()) {
+                assertTrue(appointmentSet.add(appointment));
+            }
+            for (Person person : pagedSchedule.getPersonList()) {
+                assertTrue(personSet.add(person));
+                if (person.getAppointment() == null) {
+                    unassignedPersonCount++;
+                } else {
+                    assertTrue(pageAppointmentSet.contains(person.getAppointment()));
+                }
+            }
+        }
+        assertEquals(schedule.getAppointmentList().size(), appointmentSet.size());
+        assertEquals(schedule.getPersonList().size(), personSet.size());
+        assertTrue(unassignedPersonCount > 0);
+        assertTrue(pageIndex.getPage(pageIndex.getPageCount()).getAppointmentList().isEmpty());
+    }
+
+    @Test
+    void getPageFromSnapshot() {
+        VaccinationSchedule schedule = new DemoDataGenerator().generate(4, 20, 0.1);
+        VaccinationSchedulePageIndex expectedPageIndex = new VaccinationSchedulePageIndex(schedule, 500);
+        Appointment[] personAppointments = VaccinationSchedulePageIndex.snapshotPersonAppointments(schedule);
+        // Like the translation of a newer best solution while the index is built
+        schedule.getPersonList().forEach(person -> person.setAppointment(null));
+        VaccinationSchedulePageIndex pageIndex = new VaccinationSchedulePageIndex(schedule, personAppointments, 500);
+
+        assertEquals(expectedPageIndex.getPageCount(), pageIndex.getPageCount());
+        for (int page = 0; page < pageIndex.getPageCount(); page++) {
+            assertEquals(expectedPageIndex.getPage(page).getPersonList(), pageIndex.getPage(page).getPersonList());
+        }
+    }
+
+    @Test
+    void getPageOfSmallSchedule() {
+        VaccinationSchedule schedule = new DemoDataGenerator().generate(1, 1, 0.0);
+        VaccinationSchedulePageIndex pageIndex = new VaccinationSchedulePageIndex(schedule);
+        assertEquals(1, pageIndex.getPageCount());
+        assertSame(schedule, pageIndex.getPage(0));
+    }
+
+}
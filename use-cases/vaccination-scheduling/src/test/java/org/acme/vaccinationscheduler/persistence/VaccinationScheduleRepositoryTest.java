@@ -0,0 +1,36 @@
+package org.acme.vaccinationscheduler.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.acme.vaccinationscheduler.bootstrap.DemoDataGenerator;
+import org.acme.vaccinationscheduler.domain.Person;
+import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+import org.junit.jupiter.api.Test;
+
+class VaccinationScheduleRepositoryTest {
+
+    @Test
+    void findPageIndexOfSameScheduleSavedAgain() {
+        VaccinationScheduleRepository repository = new VaccinationScheduleRepository();
+        VaccinationSchedule schedule = new DemoDataGenerator().generate(1, 1, 0.0);
+        repository.save(schedule);
+        VaccinationSchedulePageIndex pageIndex = repository.findPageIndex();
+        assertSame(pageIndex, repository.findPageIndex());
+
+        // Like the region solver, which changes the persons of the saved schedule in place
+        synchronized (repository.getLock()) {
+            schedule.getPersonList().forEach(person -> person.setAppointment(null));
+            repository.save(schedule);
+        }
+        VaccinationSchedulePageIndex newPageIndex = repository.findPageIndex();
+        assertNotSame(pageIndex, newPageIndex);
+        for (Person person : newPageIndex.getPage(0).getPersonList()) {
+            assertNull(person.getAppointment());
+        }
+        assertEquals(schedule.getPersonList().size(), newPageIndex.getPage(0).getPersonList().size());
+    }
+
+}
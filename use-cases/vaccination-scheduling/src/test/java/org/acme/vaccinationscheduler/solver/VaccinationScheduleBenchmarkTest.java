@@ -0,0 +1,37 @@
+package org.acme.vaccinationscheduler.solver;
+
+import java.util.Arrays;
+
+import org.acme.vaccinationscheduler.bootstrap.DemoDataGenerator;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSolution;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+
+/**
+ * Compares the local search algorithms of {@code vaccinationBenchmarkConfig.xml}
+ * on schedules of about 10k, 100k and 500k persons.
+ * <p>
+ * Takes about 2 hours and needs about 4 GB of heap for 500k persons, so it only runs on demand:
+ * {@code mvn test -Dtest=VaccinationScheduleBenchmarkTest -Dbenchmark.vaccination=true -DargLine=-Xmx4g}.
+ * The booth counts are configurable with {@code -Dbenchmark.vaccination.boothCounts=50,500,2600},
+ * each booth adds 192 persons.
+ * The HTML report is written to {@code target/benchmarks/vaccination}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.vaccination", matches = "true")
+class VaccinationScheduleBenchmarkTest {
+
+    @Test
+    void benchmark() {
+        VaccinationSolution[] solutions = Arrays.stream(
+                System.getProperty("benchmark.vaccination.boothCounts", "50,500,2600").split(","))
+                .mapToInt(boothCount -> Integer.parseInt(boothCount.trim()))
+                .mapToObj(boothCount -> new VaccinationSolution(
+                        new DemoDataGenerator().generate(Math.max(boothCount / 40, 3), boothCount, 0.0)))
+                .toArray(VaccinationSolution[]::new);
+        PlannerBenchmarkFactory.createFromXmlResource("vaccinationBenchmarkConfig.xml")
+                .buildPlannerBenchmark(solutions)
+                .benchmark();
+    }
+
+}
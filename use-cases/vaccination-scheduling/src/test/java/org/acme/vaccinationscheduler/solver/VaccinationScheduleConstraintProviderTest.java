@@ -3,7 +3,6 @@ package org.acme.vaccinationscheduler.solver;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Map;
 
 import jakarta.inject.Inject;
 
@@ -26,8 +25,8 @@ class VaccinationScheduleConstraintProviderTest {
     private static final VaccineType ASTRAZENECA = new VaccineType("AstraZeneca");
     private static final VaccineType AGE_40_TO_55_VACCINE = new VaccineType("40 to 55", 40, 55);
 
-    private static final VaccinationCenter VACCINATION_CENTER_1 = new VaccinationCenter("1", "Downtown", new Location(0, 0));
-    private static final VaccinationCenter VACCINATION_CENTER_2 = new VaccinationCenter("2", "Uptown", new Location(10, 10));
+    private static final VaccinationCenter VACCINATION_CENTER_1 = new VaccinationCenter("1", "Downtown", new Location(0, 0), 0);
+    private static final VaccinationCenter VACCINATION_CENTER_2 = new VaccinationCenter("2", "Uptown", new Location(10, 10), 1);
     private static final LocalDate MONDAY = LocalDate.of(2021, 2, 1);
     private static final LocalDate TUESDAY = LocalDate.of(2021, 2, 2);
     private static final LocalDate WEDNESDAY = LocalDate.of(2021, 2, 3);
@@ -63,16 +62,13 @@ class VaccinationScheduleConstraintProviderTest {
     @Test
     void vaccinationSlotCapacity() {
         VaccinationCenter vaccinationCenter = new VaccinationCenter("1", "Uptown", new Location(0, 0));
-        VaccinationSlot vaccinationSlot = new VaccinationSlot(null, vaccinationCenter, null, null, 3);
+        VaccinationSlot vaccinationSlot = new VaccinationSlot(1L, vaccinationCenter, null, null, 3);
+        VaccinationSlot otherVaccinationSlot = new VaccinationSlot(2L, vaccinationCenter, null, null, 3);
+        // The constraint verifier doesn't trigger the variable listeners
+        vaccinationSlot.setAssignedCount(5);
+        otherVaccinationSlot.setAssignedCount(1);
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::vaccinationSlotCapacity)
-                .given(
-                        vaccinationSlot, PFIZER_MONDAY_SLOT,
-                        new PersonAssignment("1", "Ann", null, null, null, 0, vaccinationSlot),
-                        new PersonAssignment("2", "Beth", null, null, null, 0, vaccinationSlot),
-                        new PersonAssignment("3", "Carl", null, null, null, 0, vaccinationSlot),
-                        new PersonAssignment("4", "Dan", null, null, null, 0, vaccinationSlot),
-                        new PersonAssignment("5", "Ed", null, null, null, 0, vaccinationSlot),
-                        new PersonAssignment("6", "Flo", null, null, null, 0, PFIZER_MONDAY_SLOT))
+                .given(vaccinationSlot, otherVaccinationSlot)
                 .penalizesBy(2);
     }
 
@@ -295,78 +291,56 @@ class VaccinationScheduleConstraintProviderTest {
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 100L, VACCINATION_CENTER_2, 120L
-                        ), null, 0, AZ_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {100L, 120L}, null, 0, AZ_SLOT))
                 .penalizesBy(0L);
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 100L, VACCINATION_CENTER_2, 120L
-                        ), null, 0, VACCINATION_CENTER_2_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {100L, 120L}, null, 0, VACCINATION_CENTER_2_SLOT))
                 .penalizesBy(20L * 20L);
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 200L, VACCINATION_CENTER_2, 120L
-                        ), null, 0, VACCINATION_CENTER_2_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {200L, 120L}, null, 0, VACCINATION_CENTER_2_SLOT))
                 .penalizesBy(0L);
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 120L, VACCINATION_CENTER_2, 100L
-                        ), null, 0, AZ_SLOT),
-                        new PersonAssignment("2", "Beth", new Location(2, 0), Map.of(
-                                VACCINATION_CENTER_1, 100L, VACCINATION_CENTER_2, 103L
-                        ), null, 0, VACCINATION_CENTER_2_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {120L, 100L}, null, 0, AZ_SLOT),
+                        new PersonAssignment("2", "Beth", new Location(2, 0), new long[] {100L, 103L}, null, 0, VACCINATION_CENTER_2_SLOT))
                 .penalizesBy((20L * 20L) + (3L * 3L));
 
         // If the requiredVaccinationCenter is non-null, that has 0 regret distance and others have non-regret distance
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 100L, VACCINATION_CENTER_2, 120L
-                        ), null, 0, 1, null, null, VACCINATION_CENTER_2, null, null, null, null, VACCINATION_CENTER_2_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {100L, 120L}, null, 0, 1, null, null, VACCINATION_CENTER_2, null, null, null, null, VACCINATION_CENTER_2_SLOT))
                 .penalizesBy(0L);
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 100L, VACCINATION_CENTER_2, 120L
-                        ), null, 0, 1, null, null, VACCINATION_CENTER_2, null, null, null, null, AZ_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {100L, 120L}, null, 0, 1, null, null, VACCINATION_CENTER_2, null, null, null, null, AZ_SLOT))
                 .penalizesBy(0L);
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 130L, VACCINATION_CENTER_2, 100L
-                        ), null, 0, 1, null, null, VACCINATION_CENTER_2, null, null, null, null, AZ_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {130L, 100L}, null, 0, 1, null, null, VACCINATION_CENTER_2, null, null, null, null, AZ_SLOT))
                 .penalizesBy(30L * 30L);
         // If the preferredVaccinationCenter is non-null, that has 0 regret distance and others have non-regret distance
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 100L, VACCINATION_CENTER_2, 120L
-                        ), null, 0, 1, null, null, null, VACCINATION_CENTER_2, null, null, null, VACCINATION_CENTER_2_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {100L, 120L}, null, 0, 1, null, null, null, VACCINATION_CENTER_2, null, null, null, VACCINATION_CENTER_2_SLOT))
                 .penalizesBy(0L);
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 100L, VACCINATION_CENTER_2, 120L
-                        ), null, 0, 1, null, null, null, VACCINATION_CENTER_2, null, null, null, AZ_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {100L, 120L}, null, 0, 1, null, null, null, VACCINATION_CENTER_2, null, null, null, AZ_SLOT))
                 .penalizesBy(0L);
         constraintVerifier.verifyThat(VaccinationScheduleConstraintProvider::regretDistance)
                 .given(
                         VACCINATION_CENTER_1, VACCINATION_CENTER_2,
-                        new PersonAssignment("1", "Ann", new Location(1, 0), Map.of(
-                                VACCINATION_CENTER_1, 130L, VACCINATION_CENTER_2, 100L
-                        ), null, 0, 1, null, null, null, VACCINATION_CENTER_2, null, null, null, AZ_SLOT))
+                        new PersonAssignment("1", "Ann", new Location(1, 0), new long[] {130L, 100L}, null, 0, 1, null, null, null, VACCINATION_CENTER_2, null, null, null, AZ_SLOT))
                 .penalizesBy(30L * 30L);
     }
 
@@ -0,0 +1,45 @@
+package org.acme.vaccinationscheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.acme.vaccinationscheduler.bootstrap.DemoDataGenerator;
+import org.acme.vaccinationscheduler.domain.solver.PersonAssignment;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSlot;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSolution;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+class VaccinationScheduleSolverTest {
+
+    @Test
+    void solveFullAssert() {
+        // Outside Quarkus, so the domain isn't detected automatically
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withSolutionClass(VaccinationSolution.class)
+                .withEntityClasses(PersonAssignment.class, VaccinationSlot.class)
+                .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+                .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(5L));
+        // Detects corrupted shadow variables, such as a wrong assigned count
+        Solver<VaccinationSolution> solver = SolverFactory.<VaccinationSolution> create(solverConfig).buildSolver();
+        VaccinationSolution problem = new VaccinationSolution(new DemoDataGenerator().generate(2, 2, 0.1));
+        VaccinationSolution solution = solver.solve(problem);
+
+        Map<VaccinationSlot, Integer> assignedCountMap = new HashMap<>();
+        for (PersonAssignment personAssignment : solution.getPersonAssignmentList()) {
+            if (personAssignment.getVaccinationSlot() != null) {
+                assignedCountMap.merge(personAssignment.getVaccinationSlot(), 1, Integer::sum);
+            }
+        }
+        for (VaccinationSlot vaccinationSlot : solution.getVaccinationSlotList()) {
+            assertEquals(assignedCountMap.getOrDefault(vaccinationSlot, 0), vaccinationSlot.getAssignedCount());
+        }
+    }
+
+}
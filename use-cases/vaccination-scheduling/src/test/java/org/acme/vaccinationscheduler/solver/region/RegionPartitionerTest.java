@@ -0,0 +1,64 @@
+package org.acme.vaccinationscheduler.solver.region;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.acme.vaccinationscheduler.domain.Appointment;
+import org.acme.vaccinationscheduler.domain.Location;
+import org.acme.vaccinationscheduler.domain.Person;
+import org.acme.vaccinationscheduler.domain.VaccinationCenter;
+import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+import org.acme.vaccinationscheduler.domain.VaccineType;
+import org.acme.vaccinationscheduler.solver.geo.EuclideanDistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+class RegionPartitionerTest {
+
+    private static final VaccineType PFIZER = new VaccineType("Pfizer");
+    private static final VaccinationCenter SOUTH_WEST = new VaccinationCenter("1", "South west", new Location(0, 0), 0);
+    private static final VaccinationCenter NORTH_WEST = new VaccinationCenter("2", "North west", new Location(10, 0), 1);
+    private static final VaccinationCenter NORTH_EAST = new VaccinationCenter("3", "North east", new Location(10, 10), 2);
+    private static final LocalDate BIRTHDATE = LocalDate.of(1980, 1, 1);
+    private static final LocalDateTime MONDAY_0900 = LocalDateTime.of(2021, 2, 1, 9, 0);
+
+    @Test
+    void partition() {
+        List<VaccinationCenter> vaccinationCenterList = Arrays.asList(SOUTH_WEST, NORTH_WEST, NORTH_EAST);
+        Appointment southWestAppointment = new Appointment(SOUTH_WEST, "1", MONDAY_0900, PFIZER);
+        Appointment northEastAppointment = new Appointment(NORTH_EAST, "1", MONDAY_0900, PFIZER);
+        Person ann = new Person("1", "Ann", new Location(1, 1), BIRTHDATE, 0);
+        Person beth = new Person("2", "Beth", new Location(9, 1), BIRTHDATE, 0);
+        // Lives near the north east center, but has an appointment in the south west center
+        Person carl = new Person("3", "Carl", new Location(9, 9), BIRTHDATE, 0);
+        carl.setAppointment(southWestAppointment);
+        Person dan = new Person("4", "Dan", new Location(1, 1), BIRTHDATE, 0, 1, null, null,
+                null, NORTH_EAST, null, null, null);
+        VaccinationSchedule schedule = new VaccinationSchedule(Collections.singletonList(PFIZER), vaccinationCenterList,
+                Arrays.asList(southWestAppointment, northEastAppointment), Arrays.asList(ann, beth, carl, dan));
+
+        List<VaccinationSchedule> regionList = new RegionPartitioner(4, new EuclideanDistanceCalculator())
+                .partition(schedule);
+
+        // The south east cell has no vaccination center
+        assertEquals(3, regionList.size());
+        VaccinationSchedule southWestRegion = regionList.get(0);
+        assertEquals(Collections.singletonList(southWestAppointment), southWestRegion.getAppointmentList());
+        assertEquals(Arrays.asList(ann, carl), southWestRegion.getPersonList());
+        VaccinationSchedule northWestRegion = regionList.get(1);
+        assertEquals(Collections.emptyList(), northWestRegion.getAppointmentList());
+        assertEquals(Collections.singletonList(beth), northWestRegion.getPersonList());
+        VaccinationSchedule northEastRegion = regionList.get(2);
+        assertEquals(Collections.singletonList(northEastAppointment), northEastRegion.getAppointmentList());
+        assertEquals(Collections.singletonList(dan), northEastRegion.getPersonList());
+        for (VaccinationSchedule region : regionList) {
+            assertSame(vaccinationCenterList, region.getVaccinationCenterList());
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.acme.vaccinationscheduler.solver.region;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.vaccinationscheduler.bootstrap.DemoDataGenerator;
+import org.acme.vaccinationscheduler.domain.Appointment;
+import org.acme.vaccinationscheduler.domain.Person;
+import org.acme.vaccinationscheduler.domain.VaccinationSchedule;
+import org.acme.vaccinationscheduler.domain.solver.PersonAssignment;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSlot;
+import org.acme.vaccinationscheduler.domain.solver.VaccinationSolution;
+import org.acme.vaccinationscheduler.solver.geo.EuclideanDistanceCalculator;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.solver.SolverStatus;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+class RegionSolverManagerTest {
+
+    @Test
+    void solve() throws Exception {
+        SolverConfig solverConfig = createSolverConfig(5L);
+        VaccinationSchedule schedule = new DemoDataGenerator().generate(4, 4, 0.1);
+        try (RegionSolverManager regionSolverManager = new RegionSolverManager(solverConfig,
+                new RegionPartitioner(2, new EuclideanDistanceCalculator()))) {
+            VaccinationSchedule solvedSchedule = regionSolverManager.solve(schedule, bestSchedule -> {
+            }).get(1, TimeUnit.MINUTES);
+
+            assertNotNull(solvedSchedule.getScore());
+            assertEquals(SolverStatus.NOT_SOLVING, regionSolverManager.getSolverStatus());
+            // No appointment is double booked across the regions
+            Set<Appointment> appointmentSet = new HashSet<>();
+            for (Person person : solvedSchedule.getPersonList()) {
+                if (person.getAppointment() != null) {
+                    assertEquals(true, appointmentSet.add(person.getAppointment()), person.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void terminateEarlyAndSolveAgain() throws Exception {
+        SolverConfig solverConfig = createSolverConfig(60L);
+        VaccinationSchedule schedule = new DemoDataGenerator().generate(4, 4, 0.1);
+        try (RegionSolverManager regionSolverManager = new RegionSolverManager(solverConfig,
+                new RegionPartitioner(2, new EuclideanDistanceCalculator()))) {
+            CompletableFuture<VaccinationSchedule> future = regionSolverManager.solve(schedule, bestSchedule -> {
+            });
+            while (regionSolverManager.getSolverStatus() != SolverStatus.SOLVING_ACTIVE) {
+                TimeUnit.MILLISECONDS.sleep(100L);
+            }
+            TimeUnit.SECONDS.sleep(2L);
+            regionSolverManager.terminateEarly();
+
+            // The regions have stopped and their final best solutions are in the schedule
+            assertTrue(future.isDone());
+            VaccinationSchedule solvedSchedule = future.get();
+            assertNotNull(solvedSchedule.getScore());
+            assertTrue(solvedSchedule.getPersonList().stream().anyMatch(person -> person.getAppointment() != null));
+            assertEquals(SolverStatus.NOT_SOLVING, regionSolverManager.getSolverStatus());
+            // The same problem ids can be solved again right away
+            CompletableFuture<VaccinationSchedule> secondFuture = regionSolverManager.solve(schedule, bestSchedule -> {
+            });
+            regionSolverManager.terminateEarly();
+            assertTrue(secondFuture.isDone());
+            assertEquals(SolverStatus.NOT_SOLVING, regionSolverManager.getSolverStatus());
+        }
+    }
+
+    private static SolverConfig createSolverConfig(long secondsSpentLimit) {
+        // Outside Quarkus, so the domain isn't detected automatically
+        return SolverConfig.createFromXmlResource("solverConfig.xml")
+                .withSolutionClass(VaccinationSolution.class)
+                .withEntityClasses(PersonAssignment.class, VaccinationSlot.class)
+                .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(secondsSpentLimit));
+    }
+
+}
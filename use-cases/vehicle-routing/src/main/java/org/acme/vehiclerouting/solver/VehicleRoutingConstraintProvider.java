@@ -1,5 +1,6 @@
 package org.acme.vehiclerouting.solver;
 
+import org.acme.common.solver.ConstraintProfiler;
 import org.acme.vehiclerouting.domain.Vehicle;
 import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import org.optaplanner.core.api.score.stream.Constraint;
@@ -8,6 +9,8 @@ import org.optaplanner.core.api.score.stream.ConstraintProvider;
 
 public class VehicleRoutingConstraintProvider implements ConstraintProvider {
 
+    private final ConstraintProfiler profiler = ConstraintProfiler.create();
+
     @Override
     public Constraint[] defineConstraints(ConstraintFactory factory) {
         return new Constraint[] {
@@ -22,9 +25,9 @@ public class VehicleRoutingConstraintProvider implements ConstraintProvider {
 
     protected Constraint vehicleCapacity(ConstraintFactory factory) {
         return factory.forEach(Vehicle.class)
-                .filter(vehicle -> vehicle.getTotalDemand() > vehicle.getCapacity())
+                .filter(profiler.filter("vehicleCapacity", vehicle -> vehicle.getTotalDemand() > vehicle.getCapacity()))
                 .penalizeLong(HardSoftLongScore.ONE_HARD,
-                        vehicle -> vehicle.getTotalDemand() - vehicle.getCapacity())
+                        profiler.weighLong("vehicleCapacity", vehicle -> vehicle.getTotalDemand() - vehicle.getCapacity()))
                 .asConstraint("vehicleCapacity");
     }
 
@@ -35,7 +38,7 @@ public class VehicleRoutingConstraintProvider implements ConstraintProvider {
     protected Constraint totalDistance(ConstraintFactory factory) {
         return factory.forEach(Vehicle.class)
                 .penalizeLong(HardSoftLongScore.ONE_SOFT,
-                        Vehicle::getTotalDistanceMeters)
+                        profiler.weighLong("distanceFromPreviousStandstill", Vehicle::getTotalDistanceMeters))
                 .asConstraint("distanceFromPreviousStandstill");
     }
 }